@@ -1,17 +1,27 @@
 package com.ruoyi.backend;
 
+import com.ruoyi.backend.service.BalanceLedgerService;
 import com.ruoyi.backend.service.ExpenseCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BackendApplication implements CommandLineRunner {
 
     @Autowired
     private ExpenseCategoryService categoryService;
 
+    @Autowired
+    private BalanceLedgerService ledgerService;
+
+    @Value("${publicpay.ledger.rebuild-on-startup:false}")
+    private boolean rebuildLedgerOnStartup;
+
     public static void main(String[] args) {
         SpringApplication.run(BackendApplication.class, args);
     }
@@ -20,5 +30,10 @@ public class BackendApplication implements CommandLineRunner {
     public void run(String... args) throws Exception {
         // 初始化默认费用分类
         categoryService.initDefaultCategories();
+
+        // 按需从付款与分摊记录重建余额台账
+        if (rebuildLedgerOnStartup) {
+            ledgerService.rebuild();
+        }
     }
 }
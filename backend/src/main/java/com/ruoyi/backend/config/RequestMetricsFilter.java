@@ -0,0 +1,57 @@
+package com.ruoyi.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * 请求级数据库指标
+ * <p>
+ * 记录每个请求执行的 SQL 语句数与加载的实体数（publicpay.request.sql.statements /
+ * publicpay.request.entities.loaded），按接口路径模板打标签，便于发现 N+1 查询。
+ * 并发只读查询在执行线程上的 SQL 计入发起请求的线程；异步响应（如流式导出）在其他线程中执行的查询不计入。
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics.Counts counts = RequestStatistics.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            // 未匹配到接口（静态资源、404 等）时不记录，避免路径标签无限增长
+            if (pattern != null && counts != null) {
+                record("publicpay.request.sql.statements", "每个请求执行的 SQL 语句数",
+                        request.getMethod(), pattern.toString(), counts.getStatements());
+                record("publicpay.request.entities.loaded", "每个请求加载的实体数",
+                        request.getMethod(), pattern.toString(), counts.getEntitiesLoaded());
+            }
+        }
+    }
+
+    private void record(String name, String description, String method, String uri, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
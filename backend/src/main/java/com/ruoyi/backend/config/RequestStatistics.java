@@ -0,0 +1,108 @@
+package com.ruoyi.backend.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按请求统计的 Hibernate 统计
+ * <p>
+ * 在 Hibernate 全局统计的基础上，把 SQL 语句数与加载的实体数额外累加到当前线程的计数器，
+ * 由 {@link RequestMetricsFilter} 在请求开始时 {@link #begin()}、结束时 {@link #end()}。
+ * 请求内在其他线程执行的查询（如并发只读查询）通过 {@link #bind(Counts)} 计入同一个计数器。
+ * 通过 {@code hibernate.stats.factory} 指定 {@link Factory} 启用。
+ */
+public class RequestStatistics extends StatisticsImpl {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 单个请求内的计数，可能由多个线程同时累加
+     */
+    public static final class Counts {
+
+        private final LongAdder statements = new LongAdder();
+
+        private final LongAdder entitiesLoaded = new LongAdder();
+
+        public long getStatements() {
+            return statements.sum();
+        }
+
+        public long getEntitiesLoaded() {
+            return entitiesLoaded.sum();
+        }
+    }
+
+    /**
+     * Hibernate 统计工厂
+     */
+    public static class Factory implements StatisticsFactory {
+
+        @Override
+        public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+            return new RequestStatistics(sessionFactory);
+        }
+    }
+
+    public RequestStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    /**
+     * 开始为当前线程计数
+     */
+    public static void begin() {
+        CURRENT.set(new Counts());
+    }
+
+    /**
+     * 结束当前线程的计数并返回结果
+     */
+    public static Counts end() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    /**
+     * 当前线程的计数器，未在计数时为 null
+     */
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 让当前线程累加到指定的计数器（null 表示不计数），返回原先的计数器以便执行结束后恢复
+     */
+    public static Counts bind(Counts counts) {
+        Counts previous = CURRENT.get();
+        if (counts == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(counts);
+        }
+        return previous;
+    }
+
+    @Override
+    public void prepareStatement() {
+        super.prepareStatement();
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements.increment();
+        }
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entitiesLoaded.increment();
+        }
+    }
+}
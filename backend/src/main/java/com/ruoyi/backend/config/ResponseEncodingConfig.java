@@ -0,0 +1,30 @@
+package com.ruoyi.backend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 二进制响应编码
+ * <p>
+ * 在 JSON 之外支持 Accept: application/cbor 与 application/x-jackson-smile。
+ * ObjectMapper 由 Spring Boot 的 Jackson2ObjectMapperBuilder 构建，模块与特性配置与 JSON 一致；
+ * 两个转换器替换默认转换器列表中的同类项，位置在 JSON 之后，未指定 Accept 时仍返回 JSON。
+ */
+@Configuration
+public class ResponseEncodingConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,33 @@
+package com.ruoyi.backend.controller;
+
+import com.ruoyi.backend.service.ChangeEventBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 数据变更事件控制器
+ */
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventController {
+
+    @Autowired
+    private ChangeEventBroadcaster broadcaster;
+
+    /**
+     * 订阅数据变更事件流（text/event-stream），事件名为 change，数据为 ChangeEvent JSON
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe() {
+        try {
+            return ResponseEntity.ok(broadcaster.subscribe());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.ruoyi.backend.controller;
 
 import com.ruoyi.backend.dto.ExpenseCategoryResponse;
+import com.ruoyi.backend.enums.ResponseEncoding;
+import com.ruoyi.backend.service.DataVersion;
 import com.ruoyi.backend.service.ExpenseCategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,6 +24,9 @@ public class ExpenseCategoryController {
     @Autowired
     private ExpenseCategoryService categoryService;
     
+    @Autowired
+    private DataVersion dataVersion;
+    
     /**
      * 创建费用分类
      */
@@ -42,12 +49,18 @@ public class ExpenseCategoryController {
     }
     
     /**
-     * 获取所有费用分类
+     * 获取所有费用分类（支持 If-None-Match 条件请求）
      */
     @GetMapping
-    public ResponseEntity<List<ExpenseCategoryResponse>> getAllCategories() {
-        List<ExpenseCategoryResponse> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(WebRequest webRequest) {
+        if (dataVersion.checkNotModified(webRequest)) {
+            return null;
+        }
+        ResponseEncoding encoding = ResponseEncoding.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(encoding.getMediaType())
+                .body(categoryService.getAllCategoriesEncoded(encoding));
     }
     
     /**
@@ -1,15 +1,43 @@
 package com.ruoyi.backend.controller;
 
+import com.ruoyi.backend.dto.CursorPageResponse;
 import com.ruoyi.backend.dto.ExpenseRequest;
 import com.ruoyi.backend.dto.ExpenseResponse;
-import com.ruoyi.backend.dto.UserBalanceResponse;
+import com.ruoyi.backend.dto.ImportResultResponse;
+import com.ruoyi.backend.dto.SettleRequest;
+import com.ruoyi.backend.dto.SettlementResponse;
+import com.ruoyi.backend.enums.ExportFormat;
+import com.ruoyi.backend.enums.ImportFormat;
+import com.ruoyi.backend.exception.IngestQueueFullException;
+import com.ruoyi.backend.service.DataVersion;
+import com.ruoyi.backend.service.ExpenseArchiveService;
+import com.ruoyi.backend.service.ExpenseExportService;
+import com.ruoyi.backend.service.ExpenseImportService;
+import com.ruoyi.backend.service.ExpenseIngestQueue;
 import com.ruoyi.backend.service.ExpenseService;
+import com.ruoyi.backend.service.IdempotencyStore;
+import com.ruoyi.backend.service.ParallelReads;
+import com.ruoyi.backend.service.SettlementService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
 
 /**
  * 费用控制器
@@ -19,29 +47,138 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ExpenseController {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     @Autowired
     private ExpenseService expenseService;
     
+    @Autowired
+    private SettlementService settlementService;
+    
+    @Autowired
+    private ExpenseExportService exportService;
+    
+    @Autowired
+    private ExpenseImportService importService;
+    
+    @Autowired
+    private ExpenseArchiveService archiveService;
+    
+    @Autowired
+    private ExpenseIngestQueue ingestQueue;
+    
+    @Autowired
+    private ParallelReads parallelReads;
+    
+    @Autowired
+    private DataVersion dataVersion;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
     /**
      * 添加费用记录
+     * <p>
+     * 携带 Idempotency-Key 时，相同键的重试直接返回首次的响应（响应头 Idempotent-Replayed: true），不会重复创建费用。
+     * 启用分组提交时，不带 Idempotency-Key 的请求进入写入队列，以异步请求等待所属分组提交；队列已满时返回 429。
+     * 带 Idempotency-Key 的请求仍同步写入，幂等记录与费用在同一事务中提交。
      */
     @PostMapping
-    public ResponseEntity<?> addExpense(@Valid @RequestBody ExpenseRequest request) {
+    public Object addExpense(@Valid @RequestBody ExpenseRequest request,
+                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            ExpenseResponse response = expenseService.addExpense(request);
-            return ResponseEntity.ok(response);
+            if (idempotencyKey == null && ingestQueue.isEnabled()) {
+                return ingestQueue.submit(request)
+                        .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                        .exceptionally(e -> {
+                            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                            return ResponseEntity.badRequest().body("{\"error\": \"" + cause.getMessage() + "\"}");
+                        });
+            }
+            if (idempotencyKey == null) {
+                return ResponseEntity.ok(expenseService.addExpense(request));
+            }
+            IdempotencyStore.Result<ExpenseResponse> result = idempotencyStore.execute("POST /api/expenses",
+                    idempotencyKey, request, ExpenseResponse.class, () -> expenseService.addExpense(request));
+            return ResponseEntity.ok()
+                    .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                    .body(result.body());
+        } catch (IngestQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("{\"error\": \"" + e.getMessage() + "\"}");
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
         }
     }
     
     /**
-     * 获取所有费用记录
+     * 批量导入费用记录（请求体为 JSON 数组或 CSV）
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportResultResponse> importExpenses(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                               InputStream body) {
+        ImportFormat format = ImportFormat.detect(contentType, null);
+        return ResponseEntity.ok(importService.importExpenses(body, format));
+    }
+    
+    /**
+     * 批量导入费用记录（上传 .json 或 .csv 文件）
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importExpenseFile(@RequestParam("file") MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            ImportFormat format = ImportFormat.detect(file.getContentType(), file.getOriginalFilename());
+            return ResponseEntity.ok(importService.importExpenses(in, format));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+    }
+    
+    /**
+     * 分页获取费用记录（游标分页），unpaged=true 时返回全部记录；支持 If-None-Match 条件请求
      */
     @GetMapping
-    public ResponseEntity<List<ExpenseResponse>> getAllExpenses() {
-        List<ExpenseResponse> expenses = expenseService.getAllExpenses();
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<?> getAllExpenses(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit,
+                                            @RequestParam(defaultValue = "false") boolean unpaged,
+                                            WebRequest webRequest) {
+        if (!unpaged && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            return ResponseEntity.badRequest().body("{\"error\": \"limit 必须在 1 到 " + MAX_PAGE_SIZE + " 之间\"}");
+        }
+        if (dataVersion.checkNotModified(webRequest)) {
+            return null;
+        }
+        if (unpaged) {
+            List<ExpenseResponse> expenses = expenseService.getAllExpenses();
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(expenses);
+        }
+        
+        try {
+            CursorPageResponse<ExpenseResponse> page = expenseService.getExpensePage(cursor, limit);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+    }
+    
+    /**
+     * 流式导出全部费用记录（format=ndjson|csv）
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = out -> exportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=expenses." + exportFormat.getExtension())
+                .body(body);
     }
     
     /**
@@ -65,6 +202,8 @@ public class ExpenseController {
         try {
             ExpenseResponse response = expenseService.updateExpense(id, request);
             return ResponseEntity.ok(response);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("{\"error\": \"费用记录已被他人修改，请刷新后重试\"}");
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
         }
@@ -84,11 +223,69 @@ public class ExpenseController {
     }
     
     /**
-     * 获取用户余额统计
+     * 批量结清分摊：按债务人、债权人或分摊ID列表，返回本次结清的分摊数与结算记录
+     */
+    @PostMapping("/settlements")
+    public ResponseEntity<?> settleShares(@Valid @RequestBody SettleRequest request) {
+        try {
+            SettlementResponse response = settlementService.settle(request);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+    }
+    
+    /**
+     * 获取用户余额统计（支持 If-None-Match 条件请求）
      */
     @GetMapping("/balances")
-    public ResponseEntity<List<UserBalanceResponse>> getUserBalances() {
-        List<UserBalanceResponse> balances = expenseService.getUserBalances();
-        return ResponseEntity.ok(balances);
+    public Object getUserBalances(WebRequest webRequest) throws Exception {
+        if (dataVersion.checkNotModified(webRequest)) {
+            return null;
+        }
+        return cancellable(() -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(expenseService.getUserBalances()));
+    }
+    
+    /**
+     * 根据付款与分摊记录重建余额台账
+     */
+    @PostMapping("/balances/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildBalanceLedger() {
+        int users = expenseService.rebuildBalanceLedger();
+        return ResponseEntity.ok(Map.of("users", users));
+    }
+    
+    /**
+     * 立即归档已结清的费用（minAgeDays 为归档年限，缺省使用配置值），返回归档的费用数
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<?> archiveSettledExpenses(@RequestParam(required = false) Integer minAgeDays) {
+        try {
+            int expenses = minAgeDays != null
+                    ? archiveService.archive(Duration.ofDays(minAgeDays))
+                    : archiveService.archiveWithConfiguredAge();
+            return ResponseEntity.ok(Map.of("expenses", expenses));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+    }
+    
+    /**
+     * 获取结算方案（谁付给谁，支持 If-None-Match 条件请求）
+     */
+    @GetMapping("/settlement-plan")
+    public Object getSettlementPlan(WebRequest webRequest) throws Exception {
+        if (dataVersion.checkNotModified(webRequest)) {
+            return null;
+        }
+        return cancellable(() -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(settlementService.getSettlementPlan()));
+    }
+    
+    /**
+     * 虚拟线程模式下以异步请求执行：客户端断开或请求超时时 Spring 中断处理线程，
+     * 正在并发执行的查询随之取消；否则直接同步执行
+     */
+    private Object cancellable(Callable<ResponseEntity<?>> handler) throws Exception {
+        return parallelReads.isEnabled() ? handler : handler.call();
     }
 }
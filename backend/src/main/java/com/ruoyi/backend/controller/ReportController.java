@@ -0,0 +1,102 @@
+package com.ruoyi.backend.controller;
+
+import com.ruoyi.backend.dto.MonthlyRollupResponse;
+import com.ruoyi.backend.dto.SpendingReportResponse;
+import com.ruoyi.backend.enums.ReportGroupBy;
+import com.ruoyi.backend.enums.RollupDimension;
+import com.ruoyi.backend.service.DataVersion;
+import com.ruoyi.backend.service.MonthlyRollupService;
+import com.ruoyi.backend.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * 报表控制器
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private MonthlyRollupService rollupService;
+    
+    @Autowired
+    private DataVersion dataVersion;
+    
+    /**
+     * 消费报表（groupBy=category|user|month，支持 If-None-Match 条件请求）
+     * <p>
+     * from、to 为包含在内的日期（yyyy-MM-dd），默认统计最近 12 个自然月。
+     */
+    @GetMapping("/spending")
+    public ResponseEntity<?> getSpendingReport(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                               @RequestParam(defaultValue = "category") String groupBy,
+                                               WebRequest webRequest) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1).minusMonths(11);
+        ReportGroupBy reportGroupBy;
+        try {
+            reportGroupBy = ReportGroupBy.of(groupBy);
+            if (start.isAfter(end)) {
+                throw new RuntimeException("开始日期不能晚于结束日期");
+            }
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+        if (dataVersion.checkNotModified(webRequest)) {
+            return null;
+        }
+        SpendingReportResponse response = reportService.getSpendingReport(start, end, reportGroupBy);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+    }
+    
+    /**
+     * 月度汇总（groupBy=user|category|payer，支持 If-None-Match 条件请求）
+     * <p>
+     * 读取预先汇总的月度数据，不扫描费用明细；from、to 为包含在内的月份（yyyy-MM），默认最近 12 个月。
+     */
+    @GetMapping("/monthly")
+    public ResponseEntity<?> getMonthlyTotals(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+                                              @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+                                              @RequestParam(defaultValue = "user") String groupBy,
+                                              WebRequest webRequest) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        RollupDimension dimension;
+        try {
+            dimension = RollupDimension.of(groupBy);
+            if (start.isAfter(end)) {
+                throw new RuntimeException("开始月份不能晚于结束月份");
+            }
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+        if (dataVersion.checkNotModified(webRequest)) {
+            return null;
+        }
+        MonthlyRollupResponse response = rollupService.getMonthlyTotals(start, end, dimension);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+    }
+    
+    /**
+     * 根据费用、付款与分摊记录重建月度汇总
+     */
+    @PostMapping("/monthly/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildMonthlyTotals() {
+        int rows = rollupService.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+}
@@ -1,12 +1,16 @@
 package com.ruoyi.backend.controller;
 
 import com.ruoyi.backend.entity.User;
+import com.ruoyi.backend.enums.ResponseEncoding;
+import com.ruoyi.backend.service.DataVersion;
 import com.ruoyi.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,6 +24,9 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private DataVersion dataVersion;
+    
     /**
      * 创建用户
      */
@@ -35,12 +42,18 @@ public class UserController {
     }
     
     /**
-     * 获取所有用户
+     * 获取所有用户（支持 If-None-Match 条件请求）
      */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<byte[]> getAllUsers(WebRequest webRequest) {
+        if (dataVersion.checkNotModified(webRequest)) {
+            return null;
+        }
+        ResponseEncoding encoding = ResponseEncoding.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(encoding.getMediaType())
+                .body(userService.getAllUsersEncoded(encoding));
     }
     
     /**
@@ -0,0 +1,75 @@
+package com.ruoyi.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ruoyi.backend.enums.ChangeType;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 数据变更事件DTO，通过 /api/events 推送给客户端
+ * <p>
+ * 只携带变更对象的ID与受影响用户的最新余额，客户端据此局部更新，不必重新加载整个列表。
+ * 不在请求线程中发布的事件（如分组提交、定时归档）没有 originClientId。
+ * version 为读取余额时的数据版本号（与读接口的 ETag 同源），广播顺序与之一致；
+ * 客户端丢弃版本号小于已应用数据的余额，避免旧余额覆盖新余额。
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ChangeEvent {
+    
+    private ChangeType type;
+    private Long expenseId;
+    private Long categoryId;
+    private Long settlementId;
+    private List<Long> userIds;               // 受影响的用户
+    private List<BalanceTotal> balances;      // 受影响用户的最新余额（提交后读取）
+    private Long version;                     // 数据版本号（DataVersion），不小于先广播的事件
+    private String originClientId;            // 发起变更的客户端（请求头 X-Client-Id），客户端据此跳过已由响应更新的本地操作
+    
+    @Data
+    public static class BalanceTotal {
+        private Long userId;
+        private BigDecimal totalPaid;
+        private BigDecimal totalOwed;
+        private BigDecimal balance;
+    }
+    
+    public static ChangeEvent expense(ChangeType type, Long expenseId, Collection<Long> userIds) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        event.setExpenseId(expenseId);
+        event.setUserIds(List.copyOf(userIds));
+        return event;
+    }
+    
+    public static ChangeEvent settlement(Long settlementId, Collection<Long> userIds) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(ChangeType.SHARES_SETTLED);
+        event.setSettlementId(settlementId);
+        event.setUserIds(List.copyOf(userIds));
+        return event;
+    }
+    
+    public static ChangeEvent user(ChangeType type, Long userId) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        event.setUserIds(List.of(userId));
+        return event;
+    }
+    
+    public static ChangeEvent category(ChangeType type, Long categoryId) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        event.setCategoryId(categoryId);
+        return event;
+    }
+    
+    public static ChangeEvent of(ChangeType type) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        return event;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ruoyi.backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页响应DTO
+ */
+@Data
+public class CursorPageResponse<T> {
+    
+    private List<T> items;
+    private String nextCursor;     // 下一页游标，为 null 表示没有更多数据
+    private Boolean hasMore;
+}
@@ -36,6 +36,9 @@ public class ExpenseRequest {
     
     private List<CustomShareRequest> customShares;
     
+    // 更新时携带读取到的版本号，用于乐观锁校验（可选）
+    private Long version;
+    
     @Data
     public static class PaymentRequest {
         @NotNull(message = "付款人ID不能为空")
@@ -52,5 +55,9 @@ public class ExpenseRequest {
         
         @DecimalMin(value = "0.00", message = "分摊金额不能为负数")
         private BigDecimal amount;
+
+        // PERCENTAGE 时为百分比（合计 100），WEIGHTED 时为权重；仅用于计算分摊金额，不保存
+        @DecimalMin(value = "0", message = "分摊比例或权重不能为负数")
+        private BigDecimal weight;
     }
 }
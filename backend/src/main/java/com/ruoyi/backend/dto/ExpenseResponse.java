@@ -1,5 +1,8 @@
 package com.ruoyi.backend.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.ruoyi.backend.dto.serializer.CompactDateTimeSerializer;
+import com.ruoyi.backend.dto.serializer.CompactMoneySerializer;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -8,24 +11,31 @@ import java.util.List;
 
 /**
  * 费用响应DTO
+ * <p>
+ * CBOR / Smile 编码下金额为整数分、时间为毫秒时间戳，JSON 不变。
  */
 @Data
 public class ExpenseResponse {
     
     private Long id;
     private String description;
+    @JsonSerialize(using = CompactMoneySerializer.class)
     private BigDecimal amount;
     private List<PaymentResponse> payments;
     private String categoryName;
     private String splitType;
+    @JsonSerialize(using = CompactDateTimeSerializer.class)
     private LocalDateTime expenseDate;
+    @JsonSerialize(using = CompactDateTimeSerializer.class)
     private LocalDateTime createdAt;
     private List<ExpenseShareResponse> shares;
+    private Long version;
     
     @Data
     public static class PaymentResponse {
         private Long id;
         private String payerName;
+        @JsonSerialize(using = CompactMoneySerializer.class)
         private BigDecimal amount;
     }
     
@@ -33,7 +43,9 @@ public class ExpenseResponse {
     public static class ExpenseShareResponse {
         private Long id;
         private String userName;
+        @JsonSerialize(using = CompactMoneySerializer.class)
         private BigDecimal amount;
+        @JsonSerialize(using = CompactMoneySerializer.class)
         private BigDecimal customAmount;
         private Boolean isPaid;
     }
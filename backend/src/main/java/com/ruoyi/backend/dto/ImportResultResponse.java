@@ -0,0 +1,27 @@
+package com.ruoyi.backend.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果响应DTO
+ */
+@Data
+public class ImportResultResponse {
+    
+    private Integer totalRows;          // 读取的行数
+    private Integer importedRows;       // 成功导入的行数
+    private Integer failedRows;         // 失败的行数
+    private Long elapsedMillis;         // 耗时（毫秒）
+    private Double rowsPerSecond;       // 吞吐量（行/秒）
+    private Boolean aborted = false;    // 文件无法继续解析时为 true
+    private List<RowError> errors = new ArrayList<>();   // 仅保留前若干条错误
+    
+    @Data
+    public static class RowError {
+        private Integer row;            // 行号（从 1 开始，不含表头）
+        private String message;
+    }
+}
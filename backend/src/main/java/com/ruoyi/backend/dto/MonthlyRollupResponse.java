@@ -0,0 +1,33 @@
+package com.ruoyi.backend.dto;
+
+import com.ruoyi.backend.enums.RollupDimension;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 月度汇总响应DTO
+ * <p>
+ * 按用户汇总分摊金额、按分类汇总费用金额、按付款人汇总付款金额；count 为对应的分摊、费用或付款条数。
+ */
+@Data
+public class MonthlyRollupResponse {
+    
+    private RollupDimension dimension;
+    private YearMonth from;
+    private YearMonth to;
+    private Long count;
+    private BigDecimal totalAmount;
+    private List<Row> rows;
+    
+    @Data
+    public static class Row {
+        private YearMonth month;
+        private Long id;                // 用户ID、分类ID或付款人ID，未分类时为空
+        private String name;
+        private Long count;
+        private BigDecimal totalAmount;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ruoyi.backend.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量结清请求DTO
+ * <p>
+ * 三个条件至少提供一个，同时提供时取交集：
+ * 债务人的分摊、付款人包含债权人的费用中其他人的分摊、指定ID的分摊。
+ */
+@Data
+public class SettleRequest {
+    
+    private Long debtorId;
+    
+    private Long creditorId;
+    
+    @Size(max = 1000, message = "一次最多结清1000条分摊")
+    private List<Long> shareIds;
+}
@@ -0,0 +1,25 @@
+package com.ruoyi.backend.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 结算方案响应DTO
+ */
+@Data
+public class SettlementPlanResponse {
+    
+    private BigDecimal totalAmount;    // 需转账总金额
+    private List<Transfer> transfers;
+    
+    @Data
+    public static class Transfer {
+        private Long fromUserId;        // 付款方（债务人）
+        private String fromUserName;
+        private Long toUserId;          // 收款方（债权人）
+        private String toUserName;
+        private BigDecimal amount;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ruoyi.backend.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 批量结清响应DTO
+ */
+@Data
+public class SettlementResponse {
+    
+    private Long id;                    // 结算记录ID，没有分摊被结清时为空
+    private Long debtorId;
+    private Long creditorId;
+    private Integer settledShares;      // 本次标记为已支付的分摊数
+    private BigDecimal amount;          // 本次结清的金额合计
+    private LocalDateTime createdAt;
+}
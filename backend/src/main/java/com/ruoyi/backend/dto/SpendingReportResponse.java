@@ -0,0 +1,39 @@
+package com.ruoyi.backend.dto;
+
+import com.ruoyi.backend.enums.ReportGroupBy;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 消费报表响应DTO
+ * <p>
+ * 分位数为近似值（相对误差不超过 1%）。顶层的条数、总金额与分位数始终按费用金额统计，与分组方式无关；
+ * 按用户分组时各分组统计的是该用户的分摊金额，其余分组方式为费用金额。
+ */
+@Data
+public class SpendingReportResponse {
+    
+    private ReportGroupBy groupBy;
+    private LocalDate from;
+    private LocalDate to;
+    private Long count;
+    private BigDecimal totalAmount;
+    private BigDecimal p50;
+    private BigDecimal p90;
+    private BigDecimal p99;
+    private List<Group> groups;
+    
+    @Data
+    public static class Group {
+        private Long id;                // 分类ID或用户ID，按月分组及未分类时为空
+        private String name;            // 分类名称、用户名称或月份（yyyy-MM）
+        private Long count;
+        private BigDecimal totalAmount;
+        private BigDecimal p50;
+        private BigDecimal p90;
+        private BigDecimal p99;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ruoyi.backend.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.ruoyi.backend.dto.serializer.CompactMoneySerializer;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -7,14 +9,19 @@ import java.util.List;
 
 /**
  * 用户余额响应DTO
+ * <p>
+ * CBOR / Smile 编码下金额为整数分，JSON 不变。
  */
 @Data
 public class UserBalanceResponse {
     
     private Long userId;
     private String userName;
+    @JsonSerialize(using = CompactMoneySerializer.class)
     private BigDecimal totalPaid;      // 总共支付
+    @JsonSerialize(using = CompactMoneySerializer.class)
     private BigDecimal totalOwed;      // 总共欠款
+    @JsonSerialize(using = CompactMoneySerializer.class)
     private BigDecimal balance;        // 余额 (正数表示别人欠我，负数表示我欠别人)
     private List<BalanceDetail> details;
     
@@ -22,6 +29,7 @@ public class UserBalanceResponse {
     public static class BalanceDetail {
         private String type;            // "owed" 或 "should_receive"
         private String description;
+        @JsonSerialize(using = CompactMoneySerializer.class)
         private BigDecimal amount;
         private String relatedUserName;
     }
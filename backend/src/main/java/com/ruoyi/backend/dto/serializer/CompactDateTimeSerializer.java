@@ -0,0 +1,32 @@
+package com.ruoyi.backend.dto.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 时间序列化
+ * <p>
+ * JSON 照常输出 ISO-8601 字符串；CBOR / Smile 输出按服务器时区换算的毫秒时间戳，
+ * 以整数代替 19 个以上字符的字符串。
+ */
+public class CompactDateTimeSerializer extends StdSerializer<LocalDateTime> {
+
+    public CompactDateTimeSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            gen.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        } else {
+            // 交给 JavaTimeModule 的默认序列化器，与未标注的字段保持一致
+            provider.findValueSerializer(LocalDateTime.class).serialize(value, gen, provider);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ruoyi.backend.dto.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.ruoyi.backend.entity.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * 金额序列化
+ * <p>
+ * JSON 照常输出十进制数；CBOR / Smile 输出整数分（如 12.50 输出 1250），
+ * 小整数只占 1~5 字节，避免 BigDecimal 的十进制分数编码。
+ */
+public class CompactMoneySerializer extends StdSerializer<BigDecimal> {
+
+    public CompactMoneySerializer() {
+        super(BigDecimal.class);
+    }
+
+    @Override
+    public void serialize(BigDecimal value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            gen.writeNumber(Money.toCents(value));
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ruoyi.backend.entity;
+
+import com.ruoyi.backend.enums.SplitType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已归档的费用记录（全部分摊已支付且超过归档年限，从 expenses 整行移入）
+ * <p>
+ * 只读：由归档任务以 INSERT ... SELECT 写入，保留原ID与版本号；分类以ID保存，不建立关联。
+ */
+@Entity
+@Immutable
+@Table(name = "expenses_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedExpense {
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private String description;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private Money amount;
+    
+    @Column(name = "category_id")
+    private Long categoryId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", nullable = false)
+    private SplitType splitType;
+    
+    @Column(name = "expense_date")
+    private LocalDateTime expenseDate;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
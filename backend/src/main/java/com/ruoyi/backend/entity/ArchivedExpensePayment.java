@@ -0,0 +1,39 @@
+package com.ruoyi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已归档费用的付款记录（随费用一并从 expense_payments 移入，只读）
+ */
+@Entity
+@Immutable
+@Table(name = "expense_payments_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedExpensePayment {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "expense_id", nullable = false)
+    private Long expenseId;
+    
+    @Column(name = "payer_id", nullable = false)
+    private Long payerId;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private Money amount;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
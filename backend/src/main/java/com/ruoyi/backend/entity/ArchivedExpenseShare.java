@@ -0,0 +1,48 @@
+package com.ruoyi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已归档费用的分摊记录（随费用一并从 expense_shares 移入，均为已支付，只读）
+ */
+@Entity
+@Immutable
+@Table(name = "expense_shares_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedExpenseShare {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "expense_id", nullable = false)
+    private Long expenseId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private Money amount;
+    
+    @Column(name = "custom_amount", precision = 10, scale = 2)
+    private Money customAmount;
+    
+    @Column(name = "is_paid")
+    private Boolean isPaid;
+    
+    @Column(name = "settlement_id")
+    private Long settlementId;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -7,7 +7,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,15 +21,17 @@ import java.util.List;
 @AllArgsConstructor
 public class Expense {
     
+    // 池化序列分配ID（MySQL 下由 Hibernate 以序列表模拟），一次取号 50 个，插入可走 JDBC 批处理
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
     private String description;
     
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
     
     // 移除單一付款人，改為多付款人支持
     // @ManyToOne(fetch = FetchType.LAZY)
@@ -54,6 +55,11 @@ public class Expense {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // 乐观锁版本号，并发修改时后提交者失败
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<ExpenseShare> shares = new ArrayList<>();
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class ExpenseCategory {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_categories_seq")
+    @SequenceGenerator(name = "expense_categories_seq", sequenceName = "expense_categories_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -6,7 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -20,7 +19,8 @@ import java.time.LocalDateTime;
 public class ExpensePayment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_payments_seq")
+    @SequenceGenerator(name = "expense_payments_seq", sequenceName = "expense_payments_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,7 +33,7 @@ public class ExpensePayment {
     private User payer;
     
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
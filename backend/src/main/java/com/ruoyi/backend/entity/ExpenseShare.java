@@ -6,7 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -20,7 +19,8 @@ import java.time.LocalDateTime;
 public class ExpenseShare {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_shares_seq")
+    @SequenceGenerator(name = "expense_shares_seq", sequenceName = "expense_shares_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,14 +33,18 @@ public class ExpenseShare {
     private User user;
     
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
     
     @Column(name = "custom_amount", precision = 10, scale = 2)
-    private BigDecimal customAmount;
+    private Money customAmount;
     
     @Column(name = "is_paid")
     private Boolean isPaid = false;
     
+    @Column(name = "settlement_id")
+    @JsonIgnore
+    private Long settlementId;      // 通过批量结清标记为已支付时的结算记录ID
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -0,0 +1,82 @@
+package com.ruoyi.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 幂等键记录：客户端提供的 Idempotency-Key 与首次执行的响应
+ * <p>
+ * 与业务写入在同一事务中保存，重启后仍能识别重试请求；过期记录由定时任务清理。
+ * 主键为客户端提供的键（非生成值），实现 {@link Persistable} 使保存直接 INSERT。
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+    
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String key;
+    
+    @Column(nullable = false, length = 64)
+    private String fingerprint;         // 接口与请求体的 SHA-256，用于识别同一键被用于不同请求
+    
+    @Lob
+    @Column(name = "response_body", nullable = false, length = 16777215)
+    private String responseBody;        // 首次执行的响应 JSON（MySQL mediumtext）
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    /** 尚未持久化（新建对象为 true，加载或保存后为 false） */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newRecord = true;
+    
+    public IdempotencyRecord(String key, String fingerprint, String responseBody, LocalDateTime expiresAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.responseBody = responseBody;
+        this.expiresAt = expiresAt;
+    }
+    
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return key;
+    }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newRecord;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        newRecord = false;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ruoyi.backend.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 金额值类型：以"分"为单位的 long 定点数，对应数据库中两位小数的 DECIMAL 列
+ * <p>
+ * 不可变，可在多个实体间共享同一实例；加减运算溢出时抛出 {@link ArithmeticException}。
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * 由 BigDecimal 转换，超过两位小数的部分四舍五入；null 返回 null
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofCents(toCents(amount));
+    }
+
+    /**
+     * BigDecimal 金额转换为分，超过两位小数的部分四舍五入
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 整数除法，按四舍五入（远离零）取整，与 BigDecimal 的 HALF_UP 一致
+     */
+    public static long divideHalfUp(long cents, long divisor) {
+        long quotient = cents / divisor;
+        long remainder = cents % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(cents) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
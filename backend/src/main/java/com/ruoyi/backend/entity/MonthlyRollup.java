@@ -0,0 +1,106 @@
+package com.ruoyi.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ruoyi.backend.enums.RollupDimension;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 月度汇总（按月份与维度键累计的金额与条数，由汇总任务从 {@link RollupDelta} 增量合并）
+ * <p>
+ * 主键为（维度, 月份, 维度键），月份为 yyyyMM 形式的整数；分类维度下未分类的费用以键 0 汇总。
+ * 实现 {@link Persistable} 使新建行直接 INSERT，而不是先 SELECT 判断是否存在。
+ */
+@Entity
+@Table(name = "monthly_rollups")
+@IdClass(MonthlyRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyRollup implements Persistable<MonthlyRollup.Key> {
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RollupDimension dimension;
+    
+    @Id
+    @Column(name = "period_month", nullable = false)
+    private Integer periodMonth;
+    
+    @Id
+    @Column(name = "key_id", nullable = false)
+    private Long keyId;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private Money amount = Money.ZERO;
+    
+    @Column(name = "item_count", nullable = false)
+    private Long itemCount = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    /** 尚未持久化（新建对象为 true，加载或保存后为 false） */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newRollup = true;
+    
+    public MonthlyRollup(RollupDimension dimension, Integer periodMonth, Long keyId, Money amount, Long itemCount) {
+        this.dimension = dimension;
+        this.periodMonth = periodMonth;
+        this.keyId = keyId;
+        this.amount = amount;
+        this.itemCount = itemCount;
+    }
+    
+    @Override
+    @JsonIgnore
+    public Key getId() {
+        return new Key(dimension, periodMonth, keyId);
+    }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newRollup;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        newRollup = false;
+    }
+    
+    /**
+     * 复合主键
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private RollupDimension dimension;
+        private Integer periodMonth;
+        private Long keyId;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ruoyi.backend.entity;
+
+import com.ruoyi.backend.enums.RollupDimension;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 月度汇总增量（待合并到 {@link MonthlyRollup} 的带符号变化量）
+ * <p>
+ * 费用写入方法在同一事务内追加：新增计正值，修改先冲销旧值再计入新值，抵消为零的不写入。
+ * 汇总任务合并后删除已合并的行，未合并的行在查询时与汇总表相加，结果始终精确。
+ */
+@Entity
+@Table(name = "rollup_deltas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupDelta {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rollup_deltas_seq")
+    @SequenceGenerator(name = "rollup_deltas_seq", sequenceName = "rollup_deltas_seq", allocationSize = 50)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RollupDimension dimension;
+    
+    @Column(name = "period_month", nullable = false)
+    private Integer periodMonth;     // yyyyMM
+    
+    @Column(name = "key_id", nullable = false)
+    private Long keyId;              // 用户ID、分类ID（未分类为 0）或付款人ID
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private Money amount;
+    
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    public RollupDelta(RollupDimension dimension, Integer periodMonth, Long keyId, Money amount, Integer itemCount) {
+        this.dimension = dimension;
+        this.periodMonth = periodMonth;
+        this.keyId = keyId;
+        this.amount = amount;
+        this.itemCount = itemCount;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
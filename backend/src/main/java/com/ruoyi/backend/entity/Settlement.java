@@ -0,0 +1,46 @@
+package com.ruoyi.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 结算记录（一次批量结清操作）
+ * <p>
+ * 被本次结算标记为已支付的分摊通过 expense_shares.settlement_id 关联到本记录。
+ */
+@Entity
+@Table(name = "settlements")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Settlement {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "settlements_seq")
+    @SequenceGenerator(name = "settlements_seq", sequenceName = "settlements_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "debtor_id")
+    private Long debtorId;          // 按债务人结算时的债务人ID
+    
+    @Column(name = "creditor_id")
+    private Long creditorId;        // 按债权人结算时的债权人ID
+    
+    @Column(name = "share_count", nullable = false)
+    private Integer shareCount = 0;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private Money amount = Money.ZERO;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
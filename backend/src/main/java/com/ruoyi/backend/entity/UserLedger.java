@@ -0,0 +1,80 @@
+package com.ruoyi.backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户余额台账（按用户汇总的支付与欠款总额，随费用写入增量维护）
+ * <p>
+ * 主键为用户ID（非生成值），实现 {@link Persistable} 使新建台账直接 INSERT，
+ * 而不是先 SELECT 判断是否存在。
+ */
+@Entity
+@Table(name = "user_ledgers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLedger implements Persistable<Long> {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "total_paid", nullable = false, precision = 14, scale = 2)
+    private Money totalPaid = Money.ZERO;
+    
+    @Column(name = "total_owed", nullable = false, precision = 14, scale = 2)
+    private Money totalOwed = Money.ZERO;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    /** 尚未持久化（新建对象为 true，加载或保存后为 false） */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newLedger = true;
+    
+    public UserLedger(Long userId, Money totalPaid, Money totalOwed) {
+        this.userId = userId;
+        this.totalPaid = totalPaid;
+        this.totalOwed = totalOwed;
+    }
+    
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return userId;
+    }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newLedger;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        newLedger = false;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ruoyi.backend.enums;
+
+/**
+ * 数据变更事件类型枚举
+ */
+public enum ChangeType {
+    EXPENSE_CREATED("新增费用"),
+    EXPENSE_UPDATED("修改费用"),
+    SHARE_PAID("分摊已支付"),
+    SHARES_SETTLED("批量结清分摊"),
+    EXPENSES_IMPORTED("批量导入费用"),
+    EXPENSES_ARCHIVED("归档已结清费用"),
+    USER_CREATED("新增用户"),
+    USER_UPDATED("修改用户"),
+    USER_DELETED("删除用户"),
+    CATEGORY_CREATED("新增分类"),
+    CATEGORY_UPDATED("修改分类"),
+    CATEGORY_DELETED("删除分类");
+    
+    private final String description;
+    
+    ChangeType(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ruoyi.backend.enums;
+
+/**
+ * 导出格式枚举
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+    
+    private final String contentType;
+    private final String extension;
+    
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    /**
+     * 按名称解析导出格式（不区分大小写）
+     */
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new RuntimeException("不支持的导出格式: " + name);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ruoyi.backend.enums;
+
+/**
+ * 导入格式枚举
+ */
+public enum ImportFormat {
+    JSON,   // JSON 数组（或逐行 JSON 对象）
+    CSV;
+    
+    /**
+     * 根据请求的 Content-Type 或文件名判断导入格式
+     */
+    public static ImportFormat detect(String contentType, String fileName) {
+        if (fileName != null) {
+            String lower = fileName.toLowerCase();
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".json") || lower.endsWith(".ndjson")) {
+                return JSON;
+            }
+        }
+        if (contentType != null && contentType.toLowerCase().contains("csv")) {
+            return CSV;
+        }
+        if (contentType != null && contentType.toLowerCase().contains("json")) {
+            return JSON;
+        }
+        throw new RuntimeException("无法识别的导入格式: " + (fileName != null ? fileName : contentType));
+    }
+}
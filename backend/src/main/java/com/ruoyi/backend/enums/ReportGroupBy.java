@@ -0,0 +1,32 @@
+package com.ruoyi.backend.enums;
+
+/**
+ * 消费报表分组维度枚举
+ */
+public enum ReportGroupBy {
+    CATEGORY("按分类"),
+    USER("按用户（分摊金额）"),
+    MONTH("按月份");
+    
+    private final String description;
+    
+    ReportGroupBy(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    /**
+     * 按名称解析分组维度（不区分大小写）
+     */
+    public static ReportGroupBy of(String name) {
+        for (ReportGroupBy groupBy : values()) {
+            if (groupBy.name().equalsIgnoreCase(name)) {
+                return groupBy;
+            }
+        }
+        throw new RuntimeException("不支持的分组维度: " + name);
+    }
+}
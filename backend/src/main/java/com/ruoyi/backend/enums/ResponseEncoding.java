@@ -0,0 +1,56 @@
+package com.ruoyi.backend.enums;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 响应编码枚举
+ */
+public enum ResponseEncoding {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+    
+    private final MediaType mediaType;
+    
+    ResponseEncoding(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    /**
+     * 按 Accept 请求头选择编码：质量值高者优先，同等质量下具体类型优先于通配；无匹配时使用 JSON
+     */
+    public static ResponseEncoding negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+                .thenComparing(MediaType::isWildcardType)
+                .thenComparing(MediaType::isWildcardSubtype));
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                break;
+            }
+            for (ResponseEncoding encoding : values()) {
+                if (type.includes(encoding.mediaType)) {
+                    return encoding;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ruoyi.backend.enums;
+
+/**
+ * 月度汇总维度枚举
+ */
+public enum RollupDimension {
+    USER("按分摊用户（分摊金额）"),
+    CATEGORY("按分类（费用金额）"),
+    PAYER("按付款人（付款金额）");
+    
+    private final String description;
+    
+    RollupDimension(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    /**
+     * 按名称解析汇总维度（不区分大小写）
+     */
+    public static RollupDimension of(String name) {
+        for (RollupDimension dimension : values()) {
+            if (dimension.name().equalsIgnoreCase(name)) {
+                return dimension;
+            }
+        }
+        throw new RuntimeException("不支持的汇总维度: " + name);
+    }
+}
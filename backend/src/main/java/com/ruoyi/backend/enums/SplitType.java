@@ -5,7 +5,9 @@ package com.ruoyi.backend.enums;
  */
 public enum SplitType {
     EQUAL("平均分摊"),
-    CUSTOM("自定义分摊");
+    CUSTOM("自定义分摊"),
+    PERCENTAGE("按比例分摊"),
+    WEIGHTED("按权重分摊");
     
     private final String description;
     
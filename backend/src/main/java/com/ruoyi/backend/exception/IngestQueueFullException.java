@@ -0,0 +1,11 @@
+package com.ruoyi.backend.exception;
+
+/**
+ * 分组提交队列已满，调用方应稍后重试（接口返回 429）
+ */
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.ArchivedExpensePayment;
+import com.ruoyi.backend.repository.projection.PaymentRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 已归档付款记录数据访问接口
+ */
+@Repository
+public interface ArchivedExpensePaymentRepository extends JpaRepository<ArchivedExpensePayment, Long> {
+    
+    /**
+     * 查询指定已归档费用的付款投影（含付款人名称）
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.PaymentRow(p.expenseId, p.id, u.name, p.amount) " +
+           "FROM ArchivedExpensePayment p JOIN User u ON u.id = p.payerId WHERE p.expenseId IN :expenseIds ORDER BY p.id")
+    List<PaymentRow> findRowsByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+    
+    /**
+     * 按付款人汇总已归档的付款金额，返回 [payerId, sum]（重建余额台账时与热表汇总相加）
+     */
+    @Query("SELECT p.payerId, SUM(p.amount) FROM ArchivedExpensePayment p GROUP BY p.payerId")
+    List<Object[]> sumAmountGroupByPayer();
+    
+    /**
+     * 将指定费用的付款记录整行复制到归档表，返回复制的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_payments_archive (id, expense_id, payer_id, amount, created_at, updated_at) " +
+                   "SELECT id, expense_id, payer_id, amount, created_at, updated_at " +
+                   "FROM expense_payments WHERE expense_id IN :expenseIds",
+           nativeQuery = true)
+    int copyFromPayments(@Param("expenseIds") Collection<Long> expenseIds);
+}
@@ -0,0 +1,59 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.ArchivedExpense;
+import com.ruoyi.backend.repository.projection.ExpenseRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 已归档费用数据访问接口
+ */
+@Repository
+public interface ArchivedExpenseRepository extends JpaRepository<ArchivedExpense, Long> {
+    
+    /**
+     * 按ID读取已归档费用的投影（与热表投影相同，供详情接口回查）
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ExpenseRow(" +
+           "e.id, e.description, e.amount, c.name, e.splitType, e.expenseDate, e.createdAt, e.version) " +
+           "FROM ArchivedExpense e LEFT JOIN ExpenseCategory c ON c.id = e.categoryId WHERE e.id = :id")
+    Optional<ExpenseRow> findRowById(@Param("id") Long id);
+    
+    /**
+     * 按ID批量读取已归档费用的投影，按ID升序
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ExpenseRow(" +
+           "e.id, e.description, e.amount, c.name, e.splitType, e.expenseDate, e.createdAt, e.version) " +
+           "FROM ArchivedExpense e LEFT JOIN ExpenseCategory c ON c.id = e.categoryId WHERE e.id IN :ids ORDER BY e.id")
+    List<ExpenseRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 以游标方式按ID顺序流式读取全部已归档费用ID，用于导出
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e.id FROM ArchivedExpense e ORDER BY e.id")
+    Stream<Long> streamAllIds();
+    
+    /**
+     * 将指定费用整行复制到归档表，返回复制的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expenses_archive " +
+                   "(id, description, amount, category_id, split_type, expense_date, created_at, updated_at, version, archived_at) " +
+                   "SELECT id, description, amount, category_id, split_type, expense_date, created_at, updated_at, version, :archivedAt " +
+                   "FROM expenses WHERE id IN :ids",
+           nativeQuery = true)
+    int copyFromExpenses(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,38 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.ArchivedExpenseShare;
+import com.ruoyi.backend.repository.projection.ShareRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 已归档分摊记录数据访问接口
+ */
+@Repository
+public interface ArchivedExpenseShareRepository extends JpaRepository<ArchivedExpenseShare, Long> {
+    
+    /**
+     * 查询指定已归档费用的分摊投影（含分摊用户名称）
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ShareRow(" +
+           "s.expenseId, s.id, u.name, s.amount, s.customAmount, s.isPaid) " +
+           "FROM ArchivedExpenseShare s JOIN User u ON u.id = s.userId WHERE s.expenseId IN :expenseIds ORDER BY s.id")
+    List<ShareRow> findRowsByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+    
+    /**
+     * 将指定费用的分摊记录整行复制到归档表，返回复制的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_shares_archive " +
+                   "(id, expense_id, user_id, amount, custom_amount, is_paid, settlement_id, created_at, updated_at) " +
+                   "SELECT id, expense_id, user_id, amount, custom_amount, is_paid, settlement_id, created_at, updated_at " +
+                   "FROM expense_shares WHERE expense_id IN :expenseIds",
+           nativeQuery = true)
+    int copyFromShares(@Param("expenseIds") Collection<Long> expenseIds);
+}
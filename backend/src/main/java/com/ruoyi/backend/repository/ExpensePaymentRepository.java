@@ -1,9 +1,14 @@
 package com.ruoyi.backend.repository;
 
 import com.ruoyi.backend.entity.ExpensePayment;
+import com.ruoyi.backend.repository.projection.PaymentRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,4 +22,46 @@ public interface ExpensePaymentRepository extends JpaRepository<ExpensePayment,
     List<ExpensePayment> findByPayerId(Long payerId);
     
     void deleteByExpenseId(Long expenseId);
+    
+    /**
+     * 批量删除指定费用的付款记录（归档时使用），返回删除的行数
+     */
+    @Modifying
+    @Query("DELETE FROM ExpensePayment p WHERE p.expense.id IN :expenseIds")
+    int deleteByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+    
+    /**
+     * 按付款人汇总付款金额，返回 [payerId, sum]（聚合结果为 BigDecimal）
+     */
+    @Query("SELECT p.payer.id, SUM(p.amount) FROM ExpensePayment p GROUP BY p.payer.id")
+    List<Object[]> sumAmountGroupByPayer();
+    
+    /**
+     * 查询仍有未支付分摊的费用的付款记录（连同付款人）
+     */
+    @Query("SELECT p FROM ExpensePayment p JOIN FETCH p.payer " +
+           "WHERE p.expense.id IN (SELECT s.expense.id FROM ExpenseShare s WHERE s.isPaid = false)")
+    List<ExpensePayment> findWithPayerForUnpaidExpenses();
+    
+    /**
+     * 查询仍有未支付分摊的费用的付款明细，按费用ID排序，返回 [expenseId, payerId, amount]
+     */
+    @Query("SELECT p.expense.id, p.payer.id, p.amount FROM ExpensePayment p " +
+           "WHERE p.expense.id IN (SELECT s.expense.id FROM ExpenseShare s WHERE s.isPaid = false) " +
+           "ORDER BY p.expense.id")
+    List<Object[]> findAmountsForUnpaidExpenses();
+    
+    /**
+     * 查询指定费用的付款投影（含付款人名称）
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.PaymentRow(p.expense.id, p.id, u.name, p.amount) " +
+           "FROM ExpensePayment p JOIN p.payer u WHERE p.expense.id IN :expenseIds ORDER BY p.id")
+    List<PaymentRow> findRowsByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+    
+    /**
+     * 查询全部付款投影（含付款人名称）
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.PaymentRow(p.expense.id, p.id, u.name, p.amount) " +
+           "FROM ExpensePayment p JOIN p.payer u ORDER BY p.id")
+    List<PaymentRow> findAllRows();
 }
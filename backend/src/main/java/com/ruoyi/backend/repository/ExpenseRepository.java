@@ -1,13 +1,24 @@
 package com.ruoyi.backend.repository;
 
 import com.ruoyi.backend.entity.Expense;
+import com.ruoyi.backend.repository.projection.ExpenseRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 费用记录数据访问接口
@@ -19,10 +30,120 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     // @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.shares s LEFT JOIN FETCH s.user WHERE e.payer.id = :payerId ORDER BY e.expenseDate DESC")
     // List<Expense> findByPayerIdOrderByExpenseDateDesc(@Param("payerId") Long payerId);
     
-    @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.shares s LEFT JOIN FETCH s.user ORDER BY e.expenseDate DESC")
-    List<Expense> findAllOrderByExpenseDateDesc();
-    
     @Query("SELECT e FROM Expense e WHERE e.expenseDate BETWEEN :startDate AND :endDate ORDER BY e.expenseDate DESC")
     List<Expense> findByDateRange(@Param("startDate") LocalDateTime startDate, 
                                  @Param("endDate") LocalDateTime endDate);
+    
+    /**
+     * 按 (expenseDate, id) 倒序读取全部费用投影
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ExpenseRow(" +
+           "e.id, e.description, e.amount, c.name, e.splitType, e.expenseDate, e.createdAt, e.version) " +
+           "FROM Expense e LEFT JOIN e.category c ORDER BY e.expenseDate DESC, e.id DESC")
+    List<ExpenseRow> findAllRows();
+    
+    /**
+     * 按 (expenseDate, id) 倒序取第一页费用投影
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ExpenseRow(" +
+           "e.id, e.description, e.amount, c.name, e.splitType, e.expenseDate, e.createdAt, e.version) " +
+           "FROM Expense e LEFT JOIN e.category c ORDER BY e.expenseDate DESC, e.id DESC")
+    List<ExpenseRow> findPageRows(Pageable pageable);
+    
+    /**
+     * 取游标 (expenseDate, id) 之后一页的费用投影
+     * <p>
+     * 条件 expenseDate &lt;= 游标 使 (expense_date, id) 索引可以直接定位到游标处，OR 部分只在该范围内逐行判断。
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ExpenseRow(" +
+           "e.id, e.description, e.amount, c.name, e.splitType, e.expenseDate, e.createdAt, e.version) " +
+           "FROM Expense e LEFT JOIN e.category c " +
+           "WHERE e.expenseDate <= :expenseDate AND (e.expenseDate < :expenseDate OR e.id < :id) " +
+           "ORDER BY e.expenseDate DESC, e.id DESC")
+    List<ExpenseRow> findPageRowsAfter(@Param("expenseDate") LocalDateTime expenseDate,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+    
+    /**
+     * 按ID读取费用投影
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ExpenseRow(" +
+           "e.id, e.description, e.amount, c.name, e.splitType, e.expenseDate, e.createdAt, e.version) " +
+           "FROM Expense e LEFT JOIN e.category c WHERE e.id = :id")
+    Optional<ExpenseRow> findRowById(@Param("id") Long id);
+    
+    /**
+     * 按ID批量读取费用投影，按ID升序
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ExpenseRow(" +
+           "e.id, e.description, e.amount, c.name, e.splitType, e.expenseDate, e.createdAt, e.version) " +
+           "FROM Expense e LEFT JOIN e.category c WHERE e.id IN :ids ORDER BY e.id")
+    List<ExpenseRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按ID读取费用并对费用行加写锁（修改费用时使用）
+     * <p>
+     * 修改、标记支付与批量结清都先锁费用行、再写分摊行：加锁顺序一致，读到的分摊不会在提交前被另一方改变。
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Expense e WHERE e.id = :id")
+    Optional<Expense> findByIdForUpdate(@Param("id") Long id);
+    
+    /**
+     * 递增费用的版本号（同时对费用行加写锁），返回受影响行数
+     * <p>
+     * 标记支付与批量结清在修改分摊前调用，持有旧版本号的修改请求随后以版本冲突失败。
+     */
+    @Modifying
+    @Query("UPDATE Expense e SET e.version = e.version + 1 WHERE e.id IN :ids")
+    int incrementVersion(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 取费用日期早于 cutoff 且没有未支付分摊的费用ID（最早的在前），并对这些费用行加写锁
+     * <p>
+     * 归档期间并发的修改会在费用行上等待，归档提交后因版本号不匹配而失败，不会把未支付的分摊移入归档表。
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e.id FROM Expense e WHERE e.expenseDate < :cutoff " +
+           "AND NOT EXISTS (SELECT 1 FROM ExpenseShare es WHERE es.expense = e AND es.isPaid = false) " +
+           "ORDER BY e.expenseDate")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    /**
+     * 以游标方式按ID顺序流式读取全部费用ID，用于导出
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e.id FROM Expense e ORDER BY e.id")
+    Stream<Long> streamAllIds();
+    
+    /**
+     * 按分类、金额桶聚合时间范围内的费用（含已归档费用），返回 [categoryId, categoryName, bucket, count, sum]
+     * <p>
+     * 桶号为 {@link com.ruoyi.backend.service.QuantileSketch} 的对数桶，返回行数只与分类数、金额数量级有关。
+     */
+    @Query(value = "SELECT g.group_id, g.label, g.bucket, COUNT(*), SUM(g.amount) FROM (" +
+                   "SELECT e.category_id AS group_id, c.name AS label, e.amount AS amount, " +
+                   "CASE WHEN e.amount > 0 THEN CEIL(LN(e.amount * 100) / :lnGamma) ELSE -1 END AS bucket " +
+                   "FROM (SELECT category_id, amount FROM expenses WHERE expense_date >= :from AND expense_date < :to " +
+                   "UNION ALL " +
+                   "SELECT category_id, amount FROM expenses_archive WHERE expense_date >= :from AND expense_date < :to) e " +
+                   "LEFT JOIN expense_categories c ON c.id = e.category_id) g " +
+                   "GROUP BY g.group_id, g.label, g.bucket",
+           nativeQuery = true)
+    List<Object[]> aggregateByCategory(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                       @Param("lnGamma") double lnGamma);
+    
+    /**
+     * 按月份（yyyyMM）、金额桶聚合时间范围内的费用（含已归档费用），返回 [month, null, bucket, count, sum]
+     */
+    @Query(value = "SELECT g.group_id, NULL, g.bucket, COUNT(*), SUM(g.amount) FROM (" +
+                   "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date) AS group_id, e.amount AS amount, " +
+                   "CASE WHEN e.amount > 0 THEN CEIL(LN(e.amount * 100) / :lnGamma) ELSE -1 END AS bucket " +
+                   "FROM (SELECT expense_date, amount FROM expenses WHERE expense_date >= :from AND expense_date < :to " +
+                   "UNION ALL " +
+                   "SELECT expense_date, amount FROM expenses_archive WHERE expense_date >= :from AND expense_date < :to) e) g " +
+                   "GROUP BY g.group_id, g.bucket",
+           nativeQuery = true)
+    List<Object[]> aggregateByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                    @Param("lnGamma") double lnGamma);
 }
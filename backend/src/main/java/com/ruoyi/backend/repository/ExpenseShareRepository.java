@@ -1,11 +1,16 @@
 package com.ruoyi.backend.repository;
 
 import com.ruoyi.backend.entity.ExpenseShare;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.repository.projection.ShareRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,4 +31,113 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long
     // List<ExpenseShare> findUnpaidByPayerId(@Param("payerId") Long payerId);
     
     void deleteByExpenseId(Long expenseId);
+    
+    /**
+     * 批量删除指定费用的分摊记录（归档时使用），返回删除的行数
+     */
+    @Modifying
+    @Query("DELETE FROM ExpenseShare es WHERE es.expense.id IN :expenseIds")
+    int deleteByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+    
+    /**
+     * 按分摊用户汇总未支付金额，返回 [userId, sum]（聚合结果为 BigDecimal）
+     */
+    @Query("SELECT es.user.id, SUM(es.amount) FROM ExpenseShare es WHERE es.isPaid = false GROUP BY es.user.id")
+    List<Object[]> sumUnpaidAmountGroupByUser();
+    
+    @Query("SELECT es FROM ExpenseShare es JOIN FETCH es.user WHERE es.isPaid = false")
+    List<ExpenseShare> findAllUnpaidWithUser();
+    
+    /**
+     * 查询全部未支付分摊的金额，返回 [expenseId, userId, amount]
+     */
+    @Query("SELECT es.expense.id, es.user.id, es.amount FROM ExpenseShare es WHERE es.isPaid = false")
+    List<Object[]> findUnpaidAmounts();
+    
+    /**
+     * 查询指定费用的分摊投影（含分摊用户名称）
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ShareRow(" +
+           "es.expense.id, es.id, u.name, es.amount, es.customAmount, es.isPaid) " +
+           "FROM ExpenseShare es JOIN es.user u WHERE es.expense.id IN :expenseIds ORDER BY es.id")
+    List<ShareRow> findRowsByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+    
+    /**
+     * 查询全部分摊投影（含分摊用户名称）
+     */
+    @Query("SELECT new com.ruoyi.backend.repository.projection.ShareRow(" +
+           "es.expense.id, es.id, u.name, es.amount, es.customAmount, es.isPaid) " +
+           "FROM ExpenseShare es JOIN es.user u ORDER BY es.id")
+    List<ShareRow> findAllRows();
+    
+    /**
+     * 将单条未支付分摊标记为已支付，返回受影响行数（已支付或不存在时为0）
+     */
+    @Modifying
+    @Query("UPDATE ExpenseShare es SET es.isPaid = true, es.updatedAt = :now WHERE es.id = :shareId AND es.isPaid = false")
+    int markPaidIfUnpaid(@Param("shareId") Long shareId, @Param("now") LocalDateTime now);
+    
+    /**
+     * 查询分摊的当前金额（不经过持久化上下文中已加载的实体）
+     */
+    @Query("SELECT es.amount FROM ExpenseShare es WHERE es.id = :shareId")
+    Money findAmountById(@Param("shareId") Long shareId);
+    
+    /**
+     * 查询有匹配的未支付分摊的费用ID，条件与 {@link #settleUnpaid} 相同
+     */
+    @Query("SELECT DISTINCT es.expense.id FROM ExpenseShare es " +
+           "WHERE es.isPaid = false " +
+           "AND (:debtorId IS NULL OR es.user.id = :debtorId) " +
+           "AND (:creditorId IS NULL OR (es.user.id <> :creditorId AND EXISTS (" +
+           "SELECT 1 FROM ExpensePayment p WHERE p.expense.id = es.expense.id AND p.payer.id = :creditorId))) " +
+           "AND (:filterShareIds = false OR es.id IN :shareIds)")
+    List<Long> findUnpaidExpenseIds(@Param("debtorId") Long debtorId,
+                                    @Param("creditorId") Long creditorId,
+                                    @Param("filterShareIds") boolean filterShareIds,
+                                    @Param("shareIds") Collection<Long> shareIds);
+    
+    /**
+     * 以一条条件 UPDATE 将指定费用中匹配的未支付分摊标记为已支付，并写入结算记录ID，返回受影响行数
+     * <p>
+     * 条件为空时不参与过滤；filterShareIds 为 false 时忽略 shareIds。
+     * 债权人条件匹配付款人包含该用户的费用中其他人的分摊。
+     */
+    @Modifying
+    @Query("UPDATE ExpenseShare es SET es.isPaid = true, es.settlementId = :settlementId, es.updatedAt = :now " +
+           "WHERE es.isPaid = false AND es.expense.id IN :expenseIds " +
+           "AND (:debtorId IS NULL OR es.user.id = :debtorId) " +
+           "AND (:creditorId IS NULL OR (es.user.id <> :creditorId AND EXISTS (" +
+           "SELECT 1 FROM ExpensePayment p WHERE p.expense.id = es.expense.id AND p.payer.id = :creditorId))) " +
+           "AND (:filterShareIds = false OR es.id IN :shareIds)")
+    int settleUnpaid(@Param("settlementId") Long settlementId,
+                     @Param("expenseIds") Collection<Long> expenseIds,
+                     @Param("debtorId") Long debtorId,
+                     @Param("creditorId") Long creditorId,
+                     @Param("filterShareIds") boolean filterShareIds,
+                     @Param("shareIds") Collection<Long> shareIds,
+                     @Param("now") LocalDateTime now);
+    
+    /**
+     * 查询指定结算记录结清的分摊金额，返回 [userId, amount]
+     */
+    @Query("SELECT es.user.id, es.amount FROM ExpenseShare es WHERE es.settlementId = :settlementId")
+    List<Object[]> findAmountsBySettlementId(@Param("settlementId") Long settlementId);
+    
+    /**
+     * 按分摊用户、金额桶聚合时间范围内费用的分摊（含已归档费用），返回 [userId, userName, bucket, count, sum]
+     */
+    @Query(value = "SELECT g.group_id, g.label, g.bucket, COUNT(*), SUM(g.amount) FROM (" +
+                   "SELECT es.user_id AS group_id, u.name AS label, es.amount AS amount, " +
+                   "CASE WHEN es.amount > 0 THEN CEIL(LN(es.amount * 100) / :lnGamma) ELSE -1 END AS bucket " +
+                   "FROM (SELECT s.user_id, s.amount FROM expense_shares s JOIN expenses e ON e.id = s.expense_id " +
+                   "WHERE e.expense_date >= :from AND e.expense_date < :to " +
+                   "UNION ALL " +
+                   "SELECT s.user_id, s.amount FROM expense_shares_archive s JOIN expenses_archive e ON e.id = s.expense_id " +
+                   "WHERE e.expense_date >= :from AND e.expense_date < :to) es " +
+                   "JOIN users u ON u.id = es.user_id) g " +
+                   "GROUP BY g.group_id, g.label, g.bucket",
+           nativeQuery = true)
+    List<Object[]> aggregateByUser(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("lnGamma") double lnGamma);
 }
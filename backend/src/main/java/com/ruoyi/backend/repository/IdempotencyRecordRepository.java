@@ -0,0 +1,31 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 幂等键记录数据访问接口
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    /**
+     * 删除指定键的过期记录，使该键可以重新使用，返回删除条数
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt <= :now")
+    int deleteExpiredKey(@Param("key") String key, @Param("now") LocalDateTime now);
+    
+    /**
+     * 删除已过期的记录，返回删除条数
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,97 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.entity.MonthlyRollup;
+import com.ruoyi.backend.enums.RollupDimension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 月度汇总数据访问接口
+ */
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, MonthlyRollup.Key> {
+    
+    /**
+     * 原子累加汇总行，返回受影响行数（0 表示该月份与维度键尚无汇总行）
+     */
+    @Modifying
+    @Query("UPDATE MonthlyRollup r SET r.amount = r.amount + :amount, r.itemCount = r.itemCount + :itemCount, " +
+           "r.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE r.dimension = :dimension AND r.periodMonth = :periodMonth AND r.keyId = :keyId")
+    int applyDelta(@Param("dimension") RollupDimension dimension,
+                   @Param("periodMonth") Integer periodMonth,
+                   @Param("keyId") Long keyId,
+                   @Param("amount") Money amount,
+                   @Param("itemCount") Long itemCount);
+    
+    /**
+     * 由费用记录（含已归档）生成分类维度的汇总行（未分类费用的维度键为 0），返回插入的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_rollups (dimension, period_month, key_id, amount, item_count, updated_at) " +
+                   "SELECT 'CATEGORY', t.period_month, t.key_id, SUM(t.amount), COUNT(*), CURRENT_TIMESTAMP FROM (" +
+                   "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date) AS period_month, " +
+                   "COALESCE(e.category_id, 0) AS key_id, e.amount FROM expenses e " +
+                   "UNION ALL " +
+                   "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date), COALESCE(e.category_id, 0), e.amount " +
+                   "FROM expenses_archive e" +
+                   ") t GROUP BY t.period_month, t.key_id",
+           nativeQuery = true)
+    int insertCategoryTotals();
+    
+    /**
+     * 由付款记录（含已归档）生成付款人维度的汇总行，返回插入的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_rollups (dimension, period_month, key_id, amount, item_count, updated_at) " +
+                   "SELECT 'PAYER', t.period_month, t.key_id, SUM(t.amount), COUNT(*), CURRENT_TIMESTAMP FROM (" +
+                   "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date) AS period_month, " +
+                   "p.payer_id AS key_id, p.amount FROM expense_payments p JOIN expenses e ON e.id = p.expense_id " +
+                   "UNION ALL " +
+                   "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date), p.payer_id, p.amount " +
+                   "FROM expense_payments_archive p JOIN expenses_archive e ON e.id = p.expense_id" +
+                   ") t GROUP BY t.period_month, t.key_id",
+           nativeQuery = true)
+    int insertPayerTotals();
+    
+    /**
+     * 由分摊记录（含已归档）生成用户维度的汇总行，返回插入的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_rollups (dimension, period_month, key_id, amount, item_count, updated_at) " +
+                   "SELECT 'USER', t.period_month, t.key_id, SUM(t.amount), COUNT(*), CURRENT_TIMESTAMP FROM (" +
+                   "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date) AS period_month, " +
+                   "s.user_id AS key_id, s.amount FROM expense_shares s JOIN expenses e ON e.id = s.expense_id " +
+                   "UNION ALL " +
+                   "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date), s.user_id, s.amount " +
+                   "FROM expense_shares_archive s JOIN expenses_archive e ON e.id = s.expense_id" +
+                   ") t GROUP BY t.period_month, t.key_id",
+           nativeQuery = true)
+    int insertUserTotals();
+    
+    /**
+     * 按月份与维度键汇总金额与条数（月份范围包含两端）
+     * <p>
+     * 汇总表与尚未合并的增量在同一条语句中相加，读取的是同一快照，不受并发合并的影响；
+     * 每行为 [月份, 维度键, 金额, 条数]，按月份、维度键排序。
+     */
+    @Query(value = "SELECT t.period_month, t.key_id, SUM(t.amount), SUM(t.item_count) FROM (" +
+                   "SELECT r.period_month, r.key_id, r.amount, r.item_count FROM monthly_rollups r " +
+                   "WHERE r.dimension = :dimension AND r.period_month BETWEEN :fromMonth AND :toMonth " +
+                   "UNION ALL " +
+                   "SELECT d.period_month, d.key_id, d.amount, d.item_count FROM rollup_deltas d " +
+                   "WHERE d.dimension = :dimension AND d.period_month BETWEEN :fromMonth AND :toMonth" +
+                   ") t GROUP BY t.period_month, t.key_id " +
+                   "HAVING SUM(t.item_count) <> 0 OR SUM(t.amount) <> 0 " +
+                   "ORDER BY t.period_month, t.key_id",
+           nativeQuery = true)
+    List<Object[]> sumByMonthAndKey(@Param("dimension") String dimension,
+                                    @Param("fromMonth") int fromMonth,
+                                    @Param("toMonth") int toMonth);
+}
@@ -0,0 +1,32 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.RollupDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 月度汇总增量数据访问接口
+ */
+@Repository
+public interface RollupDeltaRepository extends JpaRepository<RollupDelta, Long> {
+    
+    /**
+     * 按写入顺序读取待合并的增量
+     */
+    @Query("SELECT d FROM RollupDelta d ORDER BY d.id")
+    List<RollupDelta> findPending(Pageable pageable);
+    
+    /**
+     * 删除已合并的增量，返回删除的行数
+     */
+    @Modifying
+    @Query("DELETE FROM RollupDelta d WHERE d.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
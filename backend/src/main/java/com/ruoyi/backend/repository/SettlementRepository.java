@@ -0,0 +1,12 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.Settlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 结算记录数据访问接口
+ */
+@Repository
+public interface SettlementRepository extends JpaRepository<Settlement, Long> {
+}
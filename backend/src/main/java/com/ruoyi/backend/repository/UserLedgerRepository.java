@@ -0,0 +1,25 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.UserLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户余额台账数据访问接口
+ */
+@Repository
+public interface UserLedgerRepository extends JpaRepository<UserLedger, Long> {
+    
+    /**
+     * 查询指定用户的台账金额（用户ID、总支付、总欠款）
+     * <p>
+     * 返回标量而非实体，不受持久化上下文中旧实体的影响，始终为数据库中的最新值。
+     */
+    @Query("SELECT l.userId, l.totalPaid, l.totalOwed FROM UserLedger l WHERE l.userId IN :userIds")
+    List<Object[]> findTotalsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,19 @@
+package com.ruoyi.backend.repository.projection;
+
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.enums.SplitType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 费用列表/详情的只读投影（含分类名称），由 JPQL 构造表达式直接生成，不进入持久化上下文
+ */
+public record ExpenseRow(Long id,
+                         String description,
+                         Money amount,
+                         String categoryName,
+                         SplitType splitType,
+                         LocalDateTime expenseDate,
+                         LocalDateTime createdAt,
+                         Long version) {
+}
@@ -0,0 +1,9 @@
+package com.ruoyi.backend.repository.projection;
+
+import com.ruoyi.backend.entity.Money;
+
+/**
+ * 付款记录的只读投影（含付款人名称）
+ */
+public record PaymentRow(Long expenseId, Long id, String payerName, Money amount) {
+}
@@ -0,0 +1,9 @@
+package com.ruoyi.backend.repository.projection;
+
+import com.ruoyi.backend.entity.Money;
+
+/**
+ * 分摊记录的只读投影（含分摊用户名称）
+ */
+public record ShareRow(Long expenseId, Long id, String userName, Money amount, Money customAmount, Boolean isPaid) {
+}
@@ -0,0 +1,196 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.entity.ExpensePayment;
+import com.ruoyi.backend.entity.ExpenseShare;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.entity.UserLedger;
+import com.ruoyi.backend.repository.ArchivedExpensePaymentRepository;
+import com.ruoyi.backend.repository.ExpensePaymentRepository;
+import com.ruoyi.backend.repository.ExpenseShareRepository;
+import com.ruoyi.backend.repository.UserLedgerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 用户余额台账服务
+ * <p>
+ * 台账保存每个用户的总支付与总欠款（未支付分摊），由费用写入方法在同一事务内增量维护，
+ * 余额查询直接读取台账，无需遍历全部费用记录。
+ * <p>
+ * 增量以 INSERT … ON DUPLICATE KEY UPDATE 写入：用户首次出现时插入台账行，否则原子累加，
+ * 不存在"先更新、0 行再插入"的竞态；一次写入涉及的全部用户合为一个 JDBC 批次，按用户ID顺序加锁，避免并发写入相互死锁。
+ */
+@Service
+public class BalanceLedgerService {
+
+    @Autowired
+    private UserLedgerRepository ledgerRepository;
+
+    @Autowired
+    private ExpensePaymentRepository expensePaymentRepository;
+
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+
+    @Autowired
+    private ArchivedExpensePaymentRepository archivedPaymentRepository;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String UPSERT_SQL = "INSERT INTO user_ledgers (user_id, total_paid, total_owed, updated_at) "
+            + "VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE total_paid = total_paid + ?, total_owed = total_owed + ?, updated_at = ?";
+
+    /**
+     * 将一笔费用的付款和分摊计入台账，sign 为 1 表示计入，-1 表示冲销
+     */
+    @Transactional
+    public void applyExpense(List<ExpensePayment> payments, List<ExpenseShare> shares, int sign) {
+        Delta delta = new Delta();
+
+        for (ExpensePayment payment : payments) {
+            delta.paid(payment.getPayer().getId(), sign * payment.getAmount().cents());
+        }
+        for (ExpenseShare share : shares) {
+            delta.owed(share.getUser().getId(), sign * owedCents(share));
+        }
+
+        apply(delta);
+    }
+
+    /**
+     * 将累计的增量写入台账：所有受影响的用户在一个批次中插入或累加
+     */
+    @Transactional
+    public void apply(Delta delta) {
+        if (delta.totals.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(delta.totals.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        delta.totals.forEach((userId, cents) -> {
+            BigDecimal paid = Money.ofCents(cents[0]).toBigDecimal();
+            BigDecimal owed = Money.ofCents(cents[1]).toBigDecimal();
+            rows.add(new Object[]{userId, paid, owed, now, paid, owed, now});
+        });
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * 分摊对欠款的贡献（分）：已支付的分摊不计入欠款
+     */
+    public static long owedCents(ExpenseShare share) {
+        return Boolean.TRUE.equals(share.getIsPaid()) ? 0 : share.getAmount().cents();
+    }
+
+    /**
+     * 分摊被标记为已支付时，从分摊用户的欠款中扣除
+     */
+    @Transactional
+    public void applyShareSettled(Long userId, Money amount) {
+        Delta delta = new Delta();
+        delta.owed(userId, -amount.cents());
+        apply(delta);
+    }
+
+    /**
+     * 获取全部台账，按用户ID索引
+     */
+    public Map<Long, UserLedger> getLedgers() {
+        return ledgerRepository.findAll()
+                .stream()
+                .collect(Collectors.toMap(UserLedger::getUserId, ledger -> ledger));
+    }
+
+    /**
+     * 删除用户台账
+     */
+    @Transactional
+    public void removeUser(Long userId) {
+        if (ledgerRepository.existsById(userId)) {
+            ledgerRepository.deleteById(userId);
+        }
+    }
+
+    /**
+     * 根据付款记录（含已归档）和分摊记录重建台账（用于数据修复），返回重建的台账行数
+     */
+    @Transactional
+    public int rebuild() {
+        Map<Long, UserLedger> ledgers = new HashMap<>();
+
+        for (Object[] row : expensePaymentRepository.sumAmountGroupByPayer()) {
+            Long userId = (Long) row[0];
+            ledgers.computeIfAbsent(userId, this::emptyLedger).setTotalPaid(Money.of((BigDecimal) row[1]));
+        }
+        // 已归档费用的付款仍计入总支付；归档的分摊均已支付，不计入欠款
+        for (Object[] row : archivedPaymentRepository.sumAmountGroupByPayer()) {
+            UserLedger ledger = ledgers.computeIfAbsent((Long) row[0], this::emptyLedger);
+            ledger.setTotalPaid(ledger.getTotalPaid().plus(Money.of((BigDecimal) row[1])));
+        }
+        for (Object[] row : expenseShareRepository.sumUnpaidAmountGroupByUser()) {
+            Long userId = (Long) row[0];
+            ledgers.computeIfAbsent(userId, this::emptyLedger).setTotalOwed(Money.of((BigDecimal) row[1]));
+        }
+
+        ledgerRepository.deleteAllInBatch();
+        ledgerRepository.saveAll(ledgers.values());
+        dataVersion.bump();
+        return ledgers.size();
+    }
+
+    private UserLedger emptyLedger(Long userId) {
+        return new UserLedger(userId, Money.ZERO, Money.ZERO);
+    }
+
+    /**
+     * 台账增量：按用户累计支付与欠款的变化量（分），按用户ID排序
+     */
+    public static final class Delta {
+
+        private final Map<Long, long[]> totals = new TreeMap<>();
+
+        public void paid(Long userId, long cents) {
+            add(userId, 0, cents);
+        }
+
+        public void owed(Long userId, long cents) {
+            add(userId, 1, cents);
+        }
+
+        /**
+         * 余额有变化的用户
+         */
+        public Set<Long> userIds() {
+            return totals.keySet();
+        }
+
+        private void add(Long userId, int index, long cents) {
+            if (cents == 0) {
+                return;
+            }
+            long[] userTotals = totals.computeIfAbsent(userId, k -> new long[2]);
+            userTotals[index] += cents;
+            if (userTotals[0] == 0 && userTotals[1] == 0) {
+                totals.remove(userId);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.ruoyi.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.dto.ChangeEvent;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.repository.UserLedgerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据变更事件广播（Server-Sent Events）
+ * <p>
+ * 服务层在写操作中发布 {@link ChangeEvent}，事务提交后由本类补充受影响用户的最新余额，序列化一次后
+ * 放入每个客户端的有界队列，发布方从不阻塞。少量发送线程负责把队列写到连接上；队列已满的客户端
+ * 视为慢消费者直接断开，由浏览器 EventSource 自动重连后重新加载。
+ * <p>
+ * 标记数据版本号、读取余额与入队在同一把锁内完成：并发提交的事件按读取余额的先后广播，
+ * 版本号单调不减，后广播的事件不会带着更旧的余额。
+ * 空闲连接是异步请求，不占用线程。
+ */
+@Component
+public class ChangeEventBroadcaster {
+
+    /**
+     * 客户端标识请求头：变更事件带回该值，发起请求的页面可以跳过已由响应更新的本地操作
+     */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    private final UserLedgerRepository ledgerRepository;
+
+    private final DataVersion dataVersion;
+
+    private final ObjectMapper objectMapper;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Object publishLock = new Object();
+
+    private final ExecutorService sender;
+
+    private final Counter dropped;
+
+    private final int maxClients;
+
+    private final int queueCapacity;
+
+    private final Duration timeout;
+
+    public ChangeEventBroadcaster(UserLedgerRepository ledgerRepository, DataVersion dataVersion,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                  @Value("${publicpay.events.max-clients:10000}") int maxClients,
+                                  @Value("${publicpay.events.queue-capacity:64}") int queueCapacity,
+                                  @Value("${publicpay.events.sender-threads:4}") int senderThreads,
+                                  @Value("${publicpay.events.timeout:30m}") Duration timeout) {
+        this.ledgerRepository = ledgerRepository;
+        this.dataVersion = dataVersion;
+        this.objectMapper = objectMapper;
+        this.maxClients = maxClients;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("publicpay.events.clients", clients, Set::size)
+                .description("已连接的事件流客户端数")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("publicpay.events.dropped")
+                .description("因队列已满被断开的慢客户端数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 订阅事件流
+     */
+    public SseEmitter subscribe() {
+        if (clients.size() >= maxClients) {
+            throw new RuntimeException("事件流连接数已达上限");
+        }
+        Client client = new Client(new SseEmitter(timeout.toMillis()), new ArrayBlockingQueue<>(queueCapacity));
+        client.emitter.onCompletion(() -> clients.remove(client));
+        client.emitter.onTimeout(() -> clients.remove(client));
+        client.emitter.onError(e -> clients.remove(client));
+        clients.add(client);
+        return client.emitter;
+    }
+
+    /**
+     * 事务提交后广播；不在事务中发布的事件立即广播
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        // 提交后的回调与发起请求在同一线程中执行
+        if (event.getOriginClientId() == null) {
+            event.setOriginClientId(currentClientId());
+        }
+        boolean withBalances = (event.getExpenseId() != null || event.getSettlementId() != null)
+                && event.getUserIds() != null && !event.getUserIds().isEmpty();
+
+        // 先取版本号再读余额（与读接口相同），余额不旧于该版本；持锁保证广播顺序与读取顺序一致
+        synchronized (publishLock) {
+            event.setVersion(dataVersion.current());
+            // 费用与结算类事件附带受影响用户提交后的余额
+            if (withBalances) {
+                event.setBalances(loadBalances(event.getUserIds()));
+            }
+
+            String data;
+            try {
+                data = objectMapper.writeValueAsString(event);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("事件序列化失败", e);
+            }
+            broadcast(SseEmitter.event()
+                    .id(String.valueOf(sequence.incrementAndGet()))
+                    .name("change")
+                    .data(data, MediaType.APPLICATION_JSON)
+                    .build());
+        }
+    }
+
+    /**
+     * 定期发送注释行：保持代理连接不被回收，并及时发现已断开的客户端
+     */
+    @Scheduled(fixedDelayString = "${publicpay.events.heartbeat:PT30S}")
+    public void heartbeat() {
+        if (!clients.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    /**
+     * 当前连接数
+     */
+    public int clientCount() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.forEach(client -> client.emitter.complete());
+        sender.shutdownNow();
+    }
+
+    private static String currentClientId() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            String clientId = attributes.getRequest().getHeader(CLIENT_ID_HEADER);
+            if (clientId != null && !clientId.isBlank() && clientId.length() <= MAX_CLIENT_ID_LENGTH) {
+                return clientId;
+            }
+        }
+        return null;
+    }
+
+    private List<ChangeEvent.BalanceTotal> loadBalances(List<Long> userIds) {
+        List<ChangeEvent.BalanceTotal> balances = new ArrayList<>(userIds.size());
+        for (Object[] row : ledgerRepository.findTotalsByUserIdIn(userIds)) {
+            Money totalPaid = (Money) row[1];
+            Money totalOwed = (Money) row[2];
+            ChangeEvent.BalanceTotal balance = new ChangeEvent.BalanceTotal();
+            balance.setUserId((Long) row[0]);
+            balance.setTotalPaid(totalPaid.toBigDecimal());
+            balance.setTotalOwed(totalOwed.toBigDecimal());
+            balance.setBalance(totalPaid.minus(totalOwed).toBigDecimal());
+            balances.add(balance);
+        }
+        return balances;
+    }
+
+    private void broadcast(Set<DataWithMediaType> message) {
+        for (Client client : clients) {
+            if (!client.queue.offer(message)) {
+                // 慢消费者：不等待，直接断开
+                dropped.increment();
+                drop(client);
+                continue;
+            }
+            if (client.draining.compareAndSet(false, true)) {
+                sender.execute(() -> drain(client));
+            }
+        }
+    }
+
+    private void drain(Client client) {
+        while (true) {
+            Set<DataWithMediaType> message;
+            while ((message = client.queue.poll()) != null) {
+                try {
+                    client.emitter.send(message);
+                } catch (IOException | IllegalStateException e) {
+                    drop(client);
+                    return;
+                }
+            }
+            client.draining.set(false);
+            // 释放标记后若又有新消息且没有其他线程接手，继续发送
+            if (client.queue.isEmpty() || !client.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void drop(Client client) {
+        if (clients.remove(client)) {
+            client.queue.clear();
+            try {
+                client.emitter.complete();
+            } catch (IllegalStateException e) {
+                // 连接已因错误关闭，无需再结束
+            }
+        }
+    }
+
+    private record Client(SseEmitter emitter, Queue<Set<DataWithMediaType>> queue, AtomicBoolean draining) {
+
+        Client(SseEmitter emitter, Queue<Set<DataWithMediaType>> queue) {
+            this(emitter, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.enums.ResponseEncoding;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全局数据版本号，用作读接口的强 ETag
+ * <p>
+ * 服务层每个写操作调用 {@link #bump}，在所在事务提交时递增（无事务时立即递增）。
+ * 读接口先取版本号再查询：请求携带的 If-None-Match 与当前版本一致时直接返回 304，不访问数据库、不序列化。
+ * 提交后才递增保证不会出现"新版本号配旧数据"；最坏情况是新数据配旧版本号，客户端下次多请求一次。
+ * <p>
+ * ETag 带有本次启动的标识，重启后旧 ETag 全部失效；CBOR / Smile 响应的 ETag 另带编码后缀，并返回 Vary: Accept。
+ * 版本号只在本进程内有效，多实例部署需改为共享计数。
+ */
+@Component
+public class DataVersion {
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile String etag = format(0);
+
+    /**
+     * 标记数据已变化
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment();
+                }
+            });
+        } else {
+            increment();
+        }
+    }
+
+    /**
+     * 当前版本号
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 当前版本对应的 ETag
+     */
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * 比较 If-None-Match 与当前版本：一致时将响应置为 304 并返回 true；否则写入 ETag 响应头并返回 false
+     */
+    public boolean checkNotModified(WebRequest request) {
+        String current = etag;
+        ResponseEncoding encoding = ResponseEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        if (encoding != ResponseEncoding.JSON) {
+            current = current.substring(0, current.length() - 1) + "-" + encoding.name().toLowerCase() + "\"";
+        }
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(current);
+    }
+
+    private synchronized void increment() {
+        etag = format(version.incrementAndGet());
+    }
+
+    private String format(long value) {
+        return "\"" + instance + "-" + value + "\"";
+    }
+}
@@ -0,0 +1,129 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ChangeEvent;
+import com.ruoyi.backend.enums.ChangeType;
+import com.ruoyi.backend.repository.ArchivedExpensePaymentRepository;
+import com.ruoyi.backend.repository.ArchivedExpenseRepository;
+import com.ruoyi.backend.repository.ArchivedExpenseShareRepository;
+import com.ruoyi.backend.repository.ExpensePaymentRepository;
+import com.ruoyi.backend.repository.ExpenseRepository;
+import com.ruoyi.backend.repository.ExpenseShareRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 费用归档服务
+ * <p>
+ * 全部分摊已支付、且费用日期早于归档年限的费用连同付款与分摊移入归档表，热表只保留仍有未结清分摊的费用和近期费用。
+ * 每批在独立事务中完成"复制到归档表 + 从热表删除"，批次大小有上限，锁持有时间与单批行数成正比。
+ * <p>
+ * 已支付的分摊不计入欠款，付款总额仍保留在台账中，归档不改变余额台账与月度汇总；
+ * 重建台账与消费报表同时统计归档表，详情接口在热表未命中时回查归档表。
+ */
+@Service
+public class ExpenseArchiveService {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpensePaymentRepository expensePaymentRepository;
+
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+
+    @Autowired
+    private ArchivedExpenseRepository archivedExpenseRepository;
+
+    @Autowired
+    private ArchivedExpensePaymentRepository archivedPaymentRepository;
+
+    @Autowired
+    private ArchivedExpenseShareRepository archivedShareRepository;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${publicpay.archive.min-age:P180D}")
+    private Duration minAge;
+
+    @Value("${publicpay.archive.batch-size:500}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archived;
+
+    public ExpenseArchiveService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = Counter.builder("publicpay.archive.expenses")
+                .description("移入归档表的费用数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按配置的归档年限归档（定时执行），返回归档的费用数
+     */
+    @Scheduled(fixedDelayString = "${publicpay.archive.interval:PT1H}", initialDelayString = "${publicpay.archive.interval:PT1H}")
+    public int archiveWithConfiguredAge() {
+        return archive(minAge);
+    }
+
+    /**
+     * 归档费用日期早于 now - minAge 的已结清费用，返回归档的费用数
+     */
+    public int archive(Duration minAge) {
+        if (minAge.isNegative()) {
+            throw new RuntimeException("归档年限不能为负数");
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        int total = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            // 归档的费用不再出现在列表中
+            dataVersion.bump();
+            eventPublisher.publishEvent(ChangeEvent.of(ChangeType.EXPENSES_ARCHIVED));
+        }
+        return total;
+    }
+
+    /**
+     * 归档一批：锁定候选费用，复制费用、付款、分摊到归档表，再从热表删除（先子表后主表）
+     */
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = expenseRepository.findArchivableIds(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedExpenseRepository.copyFromExpenses(ids, LocalDateTime.now());
+        archivedPaymentRepository.copyFromPayments(ids);
+        archivedShareRepository.copyFromShares(ids);
+
+        expenseShareRepository.deleteByExpenseIdIn(ids);
+        expensePaymentRepository.deleteByExpenseIdIn(ids);
+        expenseRepository.deleteAllByIdInBatch(ids);
+        archived.increment(ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,128 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.entity.Expense;
+import com.ruoyi.backend.entity.ExpenseShare;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.entity.User;
+import com.ruoyi.backend.enums.SplitType;
+import com.ruoyi.backend.service.split.SplitStrategies;
+import com.ruoyi.backend.service.split.SplitStrategy;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 费用组装：按分摊策略生成分摊记录，并把费用实体转换为响应DTO
+ * <p>
+ * 不访问数据库，也不依赖事务，可脱离 Spring 容器直接构造（基准测试即如此使用）。
+ */
+@Component
+public class ExpenseAssembler {
+
+    private final SplitStrategies splitStrategies;
+
+    public ExpenseAssembler(SplitStrategies splitStrategies) {
+        this.splitStrategies = splitStrategies;
+    }
+
+    /**
+     * 根据分摊类型为费用创建分摊记录（未保存）
+     * <p>
+     * 金额由对应的 {@link SplitStrategy} 按分计算，合计恰好等于费用金额；仅 CUSTOM 中指定的金额记为自定义金额。
+     */
+    public List<ExpenseShare> createShares(Expense expense, ExpenseRequest request, List<User> shareUsers) {
+        SplitType splitType = expense.getSplitType();
+        SplitStrategy strategy = splitStrategies.get(splitType);
+        
+        Map<Long, BigDecimal> parameters = new HashMap<>();
+        if (request.getCustomShares() != null) {
+            for (ExpenseRequest.CustomShareRequest customShare : request.getCustomShares()) {
+                BigDecimal parameter = strategy.parameter(customShare);
+                if (customShare.getUserId() != null && parameter != null) {
+                    parameters.put(customShare.getUserId(), parameter);
+                }
+            }
+        }
+        
+        List<Long> userIds = new ArrayList<>(shareUsers.size());
+        for (User user : shareUsers) {
+            userIds.add(user.getId());
+        }
+        long[] amounts = strategy.split(Money.toCents(request.getAmount()), userIds, parameters);
+        
+        List<ExpenseShare> shares = new ArrayList<>(shareUsers.size());
+        for (int i = 0; i < amounts.length; i++) {
+            User user = shareUsers.get(i);
+            ExpenseShare share = new ExpenseShare();
+            share.setExpense(expense);
+            share.setUser(user);
+            share.setAmount(Money.ofCents(amounts[i]));
+            if (splitType == SplitType.CUSTOM && parameters.containsKey(user.getId())) {
+                share.setCustomAmount(share.getAmount());
+            }
+            share.setIsPaid(false);
+            shares.add(share);
+        }
+        return shares;
+    }
+
+    /**
+     * 转换为响应DTO
+     */
+    public ExpenseResponse convertToResponse(Expense expense) {
+        ExpenseResponse response = new ExpenseResponse();
+        response.setId(expense.getId());
+        response.setDescription(expense.getDescription());
+        response.setAmount(expense.getAmount().toBigDecimal());
+        response.setCategoryName(expense.getCategory() != null ? expense.getCategory().getName() : null);
+        response.setSplitType(expense.getSplitType().getDescription());
+        response.setExpenseDate(expense.getExpenseDate());
+        response.setCreatedAt(expense.getCreatedAt());
+        response.setVersion(expense.getVersion());
+        
+        // 转换付款信息
+        List<ExpenseResponse.PaymentResponse> paymentResponses = new ArrayList<>();
+        if (expense.getPayments() != null && !expense.getPayments().isEmpty()) {
+            paymentResponses = expense.getPayments()
+                    .stream()
+                    .filter(payment -> payment != null && payment.getPayer() != null)
+                    .map(payment -> {
+                        ExpenseResponse.PaymentResponse paymentResponse = new ExpenseResponse.PaymentResponse();
+                        paymentResponse.setId(payment.getId());
+                        paymentResponse.setPayerName(payment.getPayer().getName());
+                        paymentResponse.setAmount(payment.getAmount().toBigDecimal());
+                        return paymentResponse;
+                    })
+                    .collect(Collectors.toList());
+        }
+        response.setPayments(paymentResponses);
+        
+        // 转换分摊信息
+        List<ExpenseResponse.ExpenseShareResponse> shareResponses = new ArrayList<>();
+        if (expense.getShares() != null && !expense.getShares().isEmpty()) {
+            shareResponses = expense.getShares()
+                    .stream()
+                    .filter(share -> share != null && share.getUser() != null)
+                    .map(share -> {
+                        ExpenseResponse.ExpenseShareResponse shareResponse = new ExpenseResponse.ExpenseShareResponse();
+                        shareResponse.setId(share.getId());
+                        shareResponse.setUserName(share.getUser().getName());
+                        shareResponse.setAmount(share.getAmount().toBigDecimal());
+                        shareResponse.setCustomAmount(share.getCustomAmount() != null ? share.getCustomAmount().toBigDecimal() : null);
+                        shareResponse.setIsPaid(share.getIsPaid());
+                        return shareResponse;
+                    })
+                    .collect(Collectors.toList());
+        }
+        
+        response.setShares(shareResponses);
+        return response;
+    }
+}
@@ -0,0 +1,242 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.entity.*;
+import com.ruoyi.backend.enums.SplitType;
+import com.ruoyi.backend.repository.ExpenseCategoryRepository;
+import com.ruoyi.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 费用批量写入
+ * <p>
+ * 批量导入与分组提交共用：一次性加载整批请求引用的用户与分类并逐条校验，
+ * 再以 Hibernate JDBC 批处理在单个事务中写入费用、付款与分摊，同时更新余额台账与月度汇总。
+ */
+@Service
+public class ExpenseBatchWriter {
+
+    static final int JDBC_BATCH_SIZE = 500;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseCategoryRepository categoryRepository;
+
+    @Autowired
+    private ExpenseAssembler expenseAssembler;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private BalanceLedgerService ledgerService;
+
+    @Autowired
+    private MonthlyRollupService rollupService;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ExpenseBatchWriter(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 整批请求引用的用户与分类
+     */
+    record References(Map<Long, User> users, Map<Long, ExpenseCategory> categories) {
+    }
+
+    /**
+     * 校验通过、待写入的费用
+     */
+    record PreparedExpense(Expense expense, List<ExpensePayment> payments, List<ExpenseShare> shares) {
+    }
+
+    /**
+     * 一次性加载整批请求引用的用户与分类
+     */
+    References loadReferences(Collection<ExpenseRequest> requests) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        for (ExpenseRequest request : requests) {
+            if (request.getPayments() != null) {
+                request.getPayments().stream()
+                        .map(ExpenseRequest.PaymentRequest::getPayerId)
+                        .filter(Objects::nonNull)
+                        .forEach(userIds::add);
+            }
+            if (request.getShareUserIds() != null) {
+                request.getShareUserIds().stream().filter(Objects::nonNull).forEach(userIds::add);
+            }
+            if (request.getCategoryId() != null) {
+                categoryIds.add(request.getCategoryId());
+            }
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, ExpenseCategory> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(ExpenseCategory::getId, Function.identity()));
+        return new References(users, categories);
+    }
+
+    /**
+     * 不访问数据库的校验：字段约束、分摊类型、付款人与分摊用户不重复及付款总金额，返回分摊类型
+     */
+    SplitType validate(ExpenseRequest request) {
+        Set<ConstraintViolation<ExpenseRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new RuntimeException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        SplitType splitType;
+        try {
+            splitType = SplitType.valueOf(request.getSplitType());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("不支持的分摊类型: " + request.getSplitType());
+        }
+
+        ExpenseService.requireDistinctUsers(request);
+        if (ExpenseService.totalPaymentCents(request.getPayments()) != Money.toCents(request.getAmount())) {
+            throw new RuntimeException("付款总金额与费用金额不匹配");
+        }
+        return splitType;
+    }
+
+    /**
+     * 校验单条请求并构建待写入的实体
+     */
+    PreparedExpense prepare(ExpenseRequest request, References references) {
+        SplitType splitType = validate(request);
+
+        List<User> shareUsers = request.getShareUserIds().stream()
+                .map(references.users()::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (shareUsers.size() != request.getShareUserIds().size()) {
+            throw new RuntimeException("部分分摊用户不存在");
+        }
+
+        ExpenseCategory category = null;
+        if (request.getCategoryId() != null) {
+            category = references.categories().get(request.getCategoryId());
+            if (category == null) {
+                throw new RuntimeException("费用分类不存在: " + request.getCategoryId());
+            }
+        }
+
+        Expense expense = new Expense();
+        expense.setDescription(request.getDescription());
+        expense.setAmount(Money.of(request.getAmount()));
+        expense.setCategory(category);
+        expense.setSplitType(splitType);
+        expense.setExpenseDate(request.getExpenseDate() != null ? request.getExpenseDate() : LocalDateTime.now());
+
+        List<ExpensePayment> payments = new ArrayList<>();
+        for (ExpenseRequest.PaymentRequest paymentRequest : request.getPayments()) {
+            User payer = references.users().get(paymentRequest.getPayerId());
+            if (payer == null) {
+                throw new RuntimeException("付款人不存在: " + paymentRequest.getPayerId());
+            }
+            ExpensePayment payment = new ExpensePayment();
+            payment.setExpense(expense);
+            payment.setPayer(payer);
+            payment.setAmount(Money.of(paymentRequest.getAmount()));
+            payments.add(payment);
+        }
+
+        List<ExpenseShare> shares = expenseAssembler.createShares(expense, request, shareUsers);
+        return new PreparedExpense(expense, payments, shares);
+    }
+
+    /**
+     * 在单个事务中写入整批费用；批量写入失败时逐条重试以隔离出错的费用，
+     * 每条失败的费用回调一次 onFailure，返回写入成功的条数
+     */
+    <T> int write(List<T> items, Function<T, PreparedExpense> expenseOf, BiConsumer<T, RuntimeException> onFailure) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        try {
+            write(items.stream().map(expenseOf).toList());
+            return items.size();
+        } catch (RuntimeException batchFailure) {
+            int written = 0;
+            for (T item : items) {
+                try {
+                    write(List.of(expenseOf.apply(item)));
+                    written++;
+                } catch (RuntimeException e) {
+                    onFailure.accept(item, e);
+                }
+            }
+            return written;
+        }
+    }
+
+    /**
+     * 在单个事务中批量写入费用并更新余额台账与月度汇总
+     */
+    private void write(List<PreparedExpense> prepared) {
+        List<Expense> expenses = new ArrayList<>(prepared.size());
+        List<ExpensePayment> payments = new ArrayList<>();
+        List<ExpenseShare> shares = new ArrayList<>();
+        for (PreparedExpense expense : prepared) {
+            expenses.add(expense.expense());
+            payments.addAll(expense.payments());
+            shares.addAll(expense.shares());
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(JDBC_BATCH_SIZE);
+            // 批量失败后逐条重试时实体可能已带有回滚前分配的ID，需重新分配
+            for (Expense expense : expenses) {
+                expense.setId(null);
+                entityManager.persist(expense);
+            }
+            for (ExpensePayment payment : payments) {
+                payment.setId(null);
+                entityManager.persist(payment);
+            }
+            for (ExpenseShare share : shares) {
+                share.setId(null);
+                entityManager.persist(share);
+            }
+            entityManager.flush();
+            ledgerService.applyExpense(payments, shares, 1);
+            MonthlyRollupService.Delta rollupDelta = new MonthlyRollupService.Delta();
+            for (PreparedExpense expense : prepared) {
+                rollupDelta.expense(expense.expense(), expense.payments(), expense.shares(), 1);
+            }
+            rollupService.record(rollupDelta);
+            dataVersion.bump();
+            // 每批结束后清空持久化上下文，避免实体跨批次累积
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+}
@@ -1,9 +1,15 @@
 package com.ruoyi.backend.service;
 
+import com.ruoyi.backend.dto.ChangeEvent;
 import com.ruoyi.backend.dto.ExpenseCategoryResponse;
 import com.ruoyi.backend.entity.ExpenseCategory;
+import com.ruoyi.backend.enums.ChangeType;
+import com.ruoyi.backend.enums.ResponseEncoding;
 import com.ruoyi.backend.repository.ExpenseCategoryRepository;
+import com.ruoyi.backend.service.ListResponseCache.CachedList;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,11 +20,21 @@ import java.util.stream.Collectors;
  * 费用分类服务类
  */
 @Service
+@Timed(value = "publicpay.service", description = "服务方法耗时", percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class ExpenseCategoryService {
     
     @Autowired
     private ExpenseCategoryRepository categoryRepository;
     
+    @Autowired
+    private ListResponseCache responseCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private DataVersion dataVersion;
+    
     /**
      * 创建费用分类
      */
@@ -33,6 +49,9 @@ public class ExpenseCategoryService {
         category.setIsDefault(isDefault != null ? isDefault : false);
         
         ExpenseCategory savedCategory = categoryRepository.save(category);
+        responseCache.invalidate(CachedList.CATEGORIES);
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.category(ChangeType.CATEGORY_CREATED, savedCategory.getId()));
         return convertToResponse(savedCategory);
     }
     
@@ -46,6 +65,13 @@ public class ExpenseCategoryService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 获取所有费用分类（按指定编码序列化后的字节，优先读缓存）
+     */
+    public byte[] getAllCategoriesEncoded(ResponseEncoding encoding) {
+        return responseCache.get(CachedList.CATEGORIES, encoding, this::getAllCategories);
+    }
+    
     /**
      * 根据ID获取费用分类
      */
@@ -68,6 +94,9 @@ public class ExpenseCategoryService {
         category.setDescription(description);
         
         ExpenseCategory savedCategory = categoryRepository.save(category);
+        responseCache.invalidate(CachedList.CATEGORIES);
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.category(ChangeType.CATEGORY_UPDATED, id));
         return convertToResponse(savedCategory);
     }
     
@@ -79,6 +108,9 @@ public class ExpenseCategoryService {
             throw new RuntimeException("费用分类不存在: " + id);
         }
         categoryRepository.deleteById(id);
+        responseCache.invalidate(CachedList.CATEGORIES);
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.category(ChangeType.CATEGORY_DELETED, id));
     }
     
     /**
@@ -0,0 +1,29 @@
+package com.ruoyi.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 费用列表分页游标，对外以不透明字符串表示 (expenseDate, id)
+ */
+record ExpenseCursor(LocalDateTime expenseDate, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String raw = expenseDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ExpenseCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new ExpenseCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("无效的分页游标: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.ruoyi.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.enums.ExportFormat;
+import com.ruoyi.backend.repository.ArchivedExpenseRepository;
+import com.ruoyi.backend.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 费用导出服务
+ * <p>
+ * 以流方式逐行读取费用ID，每 {@value #CHUNK_SIZE} 条以投影查询批量加载费用、分摊与付款并写出，
+ * 内存占用与费用总数无关。先导出热表中的费用，再以同样方式导出已归档的费用，输出为完整的费用历史。
+ */
+@Service
+public class ExpenseExportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final String CSV_HEADER = "id,expenseDate,description,category,splitType,amount,payments,shares";
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ArchivedExpenseRepository archivedExpenseRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 将全部费用记录（含已归档费用）按指定格式写入输出流
+     */
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            // 写入 BOM，便于 Excel 正确识别中文
+            writer.write('\uFEFF');
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Long> stream = expenseRepository.streamAllIds()) {
+            writeAll(format, stream, expenseService::findResponsesByIds, writer);
+        }
+        try (Stream<Long> stream = archivedExpenseRepository.streamAllIds()) {
+            writeAll(format, stream, expenseService::findArchivedResponsesByIds, writer);
+        }
+        writer.flush();
+    }
+
+    private void writeAll(ExportFormat format, Stream<Long> ids, Function<List<Long>, List<ExpenseResponse>> loader,
+                          Writer writer) throws IOException {
+        List<Long> chunk = new ArrayList<>(CHUNK_SIZE);
+        Iterator<Long> iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(format, loader.apply(chunk), writer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(format, loader.apply(chunk), writer);
+        }
+    }
+
+    private void writeChunk(ExportFormat format, List<ExpenseResponse> responses, Writer writer) throws IOException {
+        for (ExpenseResponse response : responses) {
+            if (format == ExportFormat.CSV) {
+                writeCsvRow(response, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(response));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(ExpenseResponse response, Writer writer) throws IOException {
+        String payments = response.getPayments().stream()
+                .map(payment -> payment.getPayerName() + ":" + payment.getAmount())
+                .collect(Collectors.joining(";"));
+        String shares = response.getShares().stream()
+                .map(share -> share.getUserName() + ":" + share.getAmount()
+                        + ":" + (Boolean.TRUE.equals(share.getIsPaid()) ? "paid" : "unpaid"))
+                .collect(Collectors.joining(";"));
+
+        writer.write(String.valueOf(response.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(response.getExpenseDate()));
+        writer.write(',');
+        writer.write(csv(response.getDescription()));
+        writer.write(',');
+        writer.write(csv(response.getCategoryName()));
+        writer.write(',');
+        writer.write(csv(response.getSplitType()));
+        writer.write(',');
+        writer.write(response.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(csv(payments));
+        writer.write(',');
+        writer.write(csv(shares));
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
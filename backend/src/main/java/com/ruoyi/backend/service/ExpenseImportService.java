@@ -0,0 +1,349 @@
+package com.ruoyi.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.dto.ChangeEvent;
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ImportResultResponse;
+import com.ruoyi.backend.enums.ChangeType;
+import com.ruoyi.backend.enums.ImportFormat;
+import com.ruoyi.backend.enums.SplitType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 费用批量导入服务
+ * <p>
+ * 逐行流式解析 JSON 数组或 CSV，每 {@value #CHUNK_SIZE} 行为一批交给 {@link ExpenseBatchWriter}：
+ * 一次性校验整批引用的用户与分类，再以 JDBC 批处理在单个事务中写入。批量写入失败时逐行重试，以便定位并报告出错的行。
+ */
+@Service
+public class ExpenseImportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExpenseBatchWriter batchWriter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 导入费用记录
+     */
+    public ImportResultResponse importExpenses(InputStream in, ImportFormat format) {
+        long start = System.nanoTime();
+        ImportResultResponse result = new ImportResultResponse();
+        int[] counters = new int[2];   // [读取行数, 成功行数]
+
+        RowReader reader = null;
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        try {
+            reader = format == ImportFormat.CSV ? new CsvRowReader(in) : new JsonRowReader(in, objectMapper);
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    processChunk(chunk, result, counters);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 文件结构损坏，无法定位下一行：已读取的行照常写入，其余部分中止
+            result.setAborted(true);
+            addError(result, reader != null ? reader.rowNumber() : 0, "解析失败，导入中止: " + e.getMessage());
+        }
+        processChunk(chunk, result, counters);
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setTotalRows(counters[0]);
+        result.setImportedRows(counters[1]);
+        result.setFailedRows(counters[0] - counters[1]);
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos > 0 ? counters[1] * 1_000_000_000.0 / elapsedNanos : 0);
+        // 批量导入不逐条推送，客户端收到后整体刷新
+        if (counters[1] > 0) {
+            eventPublisher.publishEvent(ChangeEvent.of(ChangeType.EXPENSES_IMPORTED));
+        }
+        return result;
+    }
+
+    private void processChunk(List<ImportRow> rows, ImportResultResponse result, int[] counters) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        counters[0] += rows.size();
+
+        // 一次性加载整批引用的用户与分类
+        ExpenseBatchWriter.References references = batchWriter.loadReferences(rows.stream()
+                .map(ImportRow::request)
+                .filter(Objects::nonNull)
+                .toList());
+
+        List<PreparedRow> prepared = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.error() != null) {
+                addError(result, row.row(), row.error());
+                continue;
+            }
+            try {
+                prepared.add(new PreparedRow(row.row(), batchWriter.prepare(row.request(), references)));
+            } catch (RuntimeException e) {
+                addError(result, row.row(), e.getMessage());
+            }
+        }
+
+        counters[1] += batchWriter.write(prepared, PreparedRow::expense,
+                (row, e) -> addError(result, row.row(), "写入失败: " + e.getMessage()));
+    }
+
+    private static void addError(ImportResultResponse result, int row, String message) {
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            ImportResultResponse.RowError error = new ImportResultResponse.RowError();
+            error.setRow(row);
+            error.setMessage(message);
+            result.getErrors().add(error);
+        }
+    }
+
+    /**
+     * 已解析的一行；解析失败时 request 为 null，error 为失败原因
+     */
+    private record ImportRow(int row, ExpenseRequest request, String error) {
+    }
+
+    private record PreparedRow(int row, ExpenseBatchWriter.PreparedExpense expense) {
+    }
+
+    private interface RowReader {
+
+        /**
+         * 读取下一行，没有更多数据时返回 null
+         */
+        ImportRow next() throws IOException;
+
+        int rowNumber();
+    }
+
+    /**
+     * JSON 读取器：支持顶层数组，或连续的顶层对象（NDJSON）
+     */
+    private static final class JsonRowReader implements RowReader {
+
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private boolean inArray;
+        private boolean started;
+        private int rowNumber;
+
+        JsonRowReader(InputStream in, ObjectMapper objectMapper) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    inArray = true;
+                    token = parser.nextToken();
+                }
+            }
+            if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+                return null;
+            }
+
+            rowNumber++;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return new ImportRow(rowNumber, null, "不是 JSON 对象");
+            }
+            JsonNode node = parser.readValueAsTree();
+            try {
+                return new ImportRow(rowNumber, objectMapper.treeToValue(node, ExpenseRequest.class), null);
+            } catch (JsonProcessingException e) {
+                return new ImportRow(rowNumber, null, "字段格式错误: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public int rowNumber() {
+            return rowNumber;
+        }
+    }
+
+    /**
+     * CSV 读取器：首行为表头，列名与 {@link ExpenseRequest} 字段一致；
+     * payments 写作 "付款人ID:金额;…"，shareUserIds 写作 "ID;ID"，customShares 写作 "用户ID:金额;…"（PERCENTAGE、WEIGHTED 时为 "用户ID:比例或权重;…"）
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private int rowNumber;
+
+        CsvRowReader(InputStream in) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            rowNumber++;
+            try {
+                List<String> fields = split(line);
+                ExpenseRequest request = new ExpenseRequest();
+                request.setDescription(field(fields, "description"));
+                request.setAmount(decimal(field(fields, "amount")));
+                request.setSplitType(field(fields, "splitType"));
+                String categoryId = field(fields, "categoryId");
+                request.setCategoryId(categoryId != null ? Long.valueOf(categoryId) : null);
+                String expenseDate = field(fields, "expenseDate");
+                request.setExpenseDate(expenseDate != null ? LocalDateTime.parse(expenseDate) : null);
+
+                List<ExpenseRequest.PaymentRequest> payments = new ArrayList<>();
+                for (String[] pair : pairs(field(fields, "payments"))) {
+                    ExpenseRequest.PaymentRequest payment = new ExpenseRequest.PaymentRequest();
+                    payment.setPayerId(Long.valueOf(pair[0]));
+                    payment.setAmount(decimal(pair[1]));
+                    payments.add(payment);
+                }
+                request.setPayments(payments);
+
+                List<Long> shareUserIds = new ArrayList<>();
+                String shareUsers = field(fields, "shareUserIds");
+                if (shareUsers != null) {
+                    for (String id : shareUsers.split(";")) {
+                        if (!id.isBlank()) {
+                            shareUserIds.add(Long.valueOf(id.trim()));
+                        }
+                    }
+                }
+                request.setShareUserIds(shareUserIds);
+
+                boolean proportional = SplitType.PERCENTAGE.name().equals(request.getSplitType())
+                        || SplitType.WEIGHTED.name().equals(request.getSplitType());
+                List<ExpenseRequest.CustomShareRequest> customShares = new ArrayList<>();
+                for (String[] pair : pairs(field(fields, "customShares"))) {
+                    ExpenseRequest.CustomShareRequest customShare = new ExpenseRequest.CustomShareRequest();
+                    customShare.setUserId(Long.valueOf(pair[0]));
+                    if (proportional) {
+                        customShare.setWeight(decimal(pair[1]));
+                    } else {
+                        customShare.setAmount(decimal(pair[1]));
+                    }
+                    customShares.add(customShare);
+                }
+                request.setCustomShares(customShares);
+                return new ImportRow(rowNumber, request, null);
+            } catch (RuntimeException e) {
+                return new ImportRow(rowNumber, null, "字段格式错误: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public int rowNumber() {
+            return rowNumber;
+        }
+
+        private String field(List<String> fields, String name) {
+            Integer index = columns.get(name);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static BigDecimal decimal(String value) {
+            return value != null ? new BigDecimal(value.trim()) : null;
+        }
+
+        private static List<String[]> pairs(String value) {
+            List<String[]> pairs = new ArrayList<>();
+            if (value == null) {
+                return pairs;
+            }
+            for (String item : value.split(";")) {
+                if (item.isBlank()) {
+                    continue;
+                }
+                String[] pair = item.split(":");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("无法解析 \"" + item + "\"");
+                }
+                pairs.add(new String[]{pair[0].trim(), pair[1].trim()});
+            }
+            return pairs;
+        }
+
+        /**
+         * 拆分一行 CSV，支持双引号包裹与 "" 转义
+         */
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+}
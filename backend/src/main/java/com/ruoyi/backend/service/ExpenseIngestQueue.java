@@ -0,0 +1,238 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ChangeEvent;
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.entity.Expense;
+import com.ruoyi.backend.entity.ExpensePayment;
+import com.ruoyi.backend.entity.ExpenseShare;
+import com.ruoyi.backend.enums.ChangeType;
+import com.ruoyi.backend.exception.IngestQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 费用分组提交队列（可选的写入模式，publicpay.ingest.enabled）
+ * <p>
+ * 请求在调用线程完成不访问数据库的校验后放入有界队列，立即返回 {@link CompletableFuture}；
+ * 单个写入线程取出队首请求后最多再等待 linger，凑满 group-size 条即一起处理：整组共用一次用户与分类查询，
+ * 以 JDBC 批处理在一个事务中写入并更新台账与月度汇总，事务提交后逐个完成各请求的 Future。
+ * 组内个别请求引用不存在的用户或分类时只有该请求失败；批量写入失败时逐条重试以隔离出错的请求。
+ * <p>
+ * 队列已满时直接抛出 {@link IngestQueueFullException}（接口返回 429），调用方不会阻塞。
+ * 一组处理中抛出的任何异常（包括 Error）只使该组失败，写入线程继续运行。
+ * 停止时不再接受新请求，已入队的请求全部写完后写入线程才退出。
+ */
+@Service
+public class ExpenseIngestQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseIngestQueue.class);
+
+    private final ExpenseBatchWriter batchWriter;
+
+    private final ExpenseAssembler expenseAssembler;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+
+    private final int groupSize;
+
+    private final Duration linger;
+
+    private final BlockingQueue<Pending> queue;
+
+    private final Counter rejected;
+
+    private final DistributionSummary groupSizes;
+
+    private final Thread writer;
+
+    private volatile boolean stopping;
+
+    private record Pending(ExpenseRequest request, CompletableFuture<ExpenseResponse> result) {
+    }
+
+    public ExpenseIngestQueue(ExpenseBatchWriter batchWriter, ExpenseAssembler expenseAssembler,
+                              ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                              @Value("${publicpay.ingest.enabled:false}") boolean enabled,
+                              @Value("${publicpay.ingest.queue-capacity:10000}") int queueCapacity,
+                              @Value("${publicpay.ingest.group-size:100}") int groupSize,
+                              @Value("${publicpay.ingest.linger:5ms}") Duration linger) {
+        if (groupSize < 1 || groupSize > ExpenseBatchWriter.JDBC_BATCH_SIZE) {
+            throw new IllegalArgumentException("publicpay.ingest.group-size 须在 1 到 " + ExpenseBatchWriter.JDBC_BATCH_SIZE + " 之间");
+        }
+        this.batchWriter = batchWriter;
+        this.expenseAssembler = expenseAssembler;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.groupSize = groupSize;
+        this.linger = linger;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("publicpay.ingest.queued", queue, BlockingQueue::size)
+                .description("分组提交队列中等待写入的请求数")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("publicpay.ingest.rejected")
+                .description("因队列已满被拒绝的请求数")
+                .register(meterRegistry);
+        this.groupSizes = DistributionSummary.builder("publicpay.ingest.group.size")
+                .description("每次提交的请求数")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::run, "expense-ingest-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    /**
+     * 是否启用分组提交
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 校验并入队，返回在所属分组提交后完成的 Future；校验失败时直接抛出异常
+     */
+    public CompletableFuture<ExpenseResponse> submit(ExpenseRequest request) {
+        if (!enabled) {
+            throw new RuntimeException("未启用分组提交");
+        }
+        batchWriter.validate(request);
+        if (stopping) {
+            throw new IngestQueueFullException("服务正在停止，请稍后重试");
+        }
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new IngestQueueFullException("写入队列已满，请稍后重试");
+        }
+        return pending.result();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        if (enabled) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        // 与停止标记竞争时入队、未被写入线程取走的请求
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result().completeExceptionally(new IngestQueueFullException("服务正在停止，请稍后重试"));
+        }
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>(groupSize);
+        boolean interrupted = false;
+        while (!interrupted && !(stopping && queue.isEmpty())) {
+            try {
+                collect(group);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (!group.isEmpty()) {
+                commit(group);
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * 等待队首请求，再在 linger 内继续收集，直到凑满一组
+     */
+    private void collect(List<Pending> group) throws InterruptedException {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + linger.toNanos();
+        while (group.size() < groupSize) {
+            queue.drainTo(group, groupSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= groupSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    /**
+     * 提交一组请求：校验引用、批量写入，提交后完成各请求的 Future 并发布变更事件
+     */
+    private void commit(List<Pending> group) {
+        groupSizes.record(group.size());
+        try {
+            ExpenseBatchWriter.References references = batchWriter.loadReferences(group.stream()
+                    .map(Pending::request)
+                    .toList());
+
+            List<Prepared> prepared = new ArrayList<>(group.size());
+            for (Pending pending : group) {
+                try {
+                    prepared.add(new Prepared(pending, batchWriter.prepare(pending.request(), references)));
+                } catch (RuntimeException e) {
+                    pending.result().completeExceptionally(e);
+                }
+            }
+
+            batchWriter.write(prepared, Prepared::expense, (item, e) -> item.pending().result()
+                    .completeExceptionally(new RuntimeException("写入失败: " + e.getMessage(), e)));
+
+            for (Prepared item : prepared) {
+                if (!item.pending().result().isDone()) {
+                    complete(item);
+                }
+            }
+        } catch (Throwable e) {
+            // 查询引用、构建响应时出错或抛出 Error：尚未完成的请求全部失败，写入线程继续处理后续分组，
+            // 否则唯一的写入线程退出后队列不再消费，之后的请求全部超时或返回 429
+            log.error("分组提交失败，本组 {} 个请求", group.size(), e);
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private void complete(Prepared item) {
+        Expense expense = item.expense().expense();
+        List<ExpensePayment> payments = item.expense().payments();
+        List<ExpenseShare> shares = item.expense().shares();
+        expense.getPayments().addAll(payments);
+        expense.getShares().addAll(shares);
+
+        Set<Long> affectedUserIds = new LinkedHashSet<>();
+        payments.forEach(payment -> affectedUserIds.add(payment.getPayer().getId()));
+        shares.forEach(share -> affectedUserIds.add(share.getUser().getId()));
+        eventPublisher.publishEvent(ChangeEvent.expense(ChangeType.EXPENSE_CREATED, expense.getId(), affectedUserIds));
+        item.pending().result().complete(expenseAssembler.convertToResponse(expense));
+    }
+
+    private record Prepared(Pending pending, ExpenseBatchWriter.PreparedExpense expense) {
+    }
+}
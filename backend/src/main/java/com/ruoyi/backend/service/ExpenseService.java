@@ -1,28 +1,45 @@
 package com.ruoyi.backend.service;
 
+import com.ruoyi.backend.dto.ChangeEvent;
+import com.ruoyi.backend.dto.CursorPageResponse;
 import com.ruoyi.backend.dto.ExpenseRequest;
 import com.ruoyi.backend.dto.ExpenseResponse;
 import com.ruoyi.backend.dto.UserBalanceResponse;
 import com.ruoyi.backend.entity.*;
+import com.ruoyi.backend.enums.ChangeType;
 import com.ruoyi.backend.enums.SplitType;
 import com.ruoyi.backend.repository.*;
+import com.ruoyi.backend.repository.projection.ExpenseRow;
+import com.ruoyi.backend.repository.projection.PaymentRow;
+import com.ruoyi.backend.repository.projection.ShareRow;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * 费用服务类
  */
 @Service
+@Timed(value = "publicpay.service", description = "服务方法耗时", percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class ExpenseService {
     
     @Autowired
@@ -40,6 +57,33 @@ public class ExpenseService {
     @Autowired
     private ExpensePaymentRepository expensePaymentRepository;
     
+    @Autowired
+    private BalanceLedgerService ledgerService;
+    
+    @Autowired
+    private MonthlyRollupService rollupService;
+    
+    @Autowired
+    private ArchivedExpenseRepository archivedExpenseRepository;
+    
+    @Autowired
+    private ArchivedExpensePaymentRepository archivedPaymentRepository;
+    
+    @Autowired
+    private ArchivedExpenseShareRepository archivedShareRepository;
+    
+    @Autowired
+    private ParallelReads parallelReads;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private DataVersion dataVersion;
+    
+    @Autowired
+    private ExpenseAssembler expenseAssembler;
+    
     /**
      * 添加费用记录
      */
@@ -50,6 +94,7 @@ public class ExpenseService {
         if (paymentRequests == null || paymentRequests.isEmpty()) {
             throw new RuntimeException("付款人列表不能为空");
         }
+        requireDistinctUsers(request);
         
         // 验证所有付款人存在
         List<Long> payerIds = paymentRequests.stream()
@@ -61,10 +106,7 @@ public class ExpenseService {
         }
         
         // 验证付款总金额
-        BigDecimal totalPaymentAmount = paymentRequests.stream()
-                .map(ExpenseRequest.PaymentRequest::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        if (totalPaymentAmount.compareTo(request.getAmount()) != 0) {
+        if (totalPaymentCents(paymentRequests) != Money.toCents(request.getAmount())) {
             throw new RuntimeException("付款总金额与费用金额不匹配");
         }
         
@@ -84,7 +126,7 @@ public class ExpenseService {
         // 创建费用记录
         Expense expense = new Expense();
         expense.setDescription(request.getDescription());
-        expense.setAmount(request.getAmount());
+        expense.setAmount(Money.of(request.getAmount()));
         expense.setCategory(category);
         expense.setSplitType(SplitType.valueOf(request.getSplitType()));
         expense.setExpenseDate(request.getExpenseDate() != null ? request.getExpenseDate() : LocalDateTime.now());
@@ -102,94 +144,182 @@ public class ExpenseService {
             ExpensePayment payment = new ExpensePayment();
             payment.setExpense(expense);
             payment.setPayer(payer);
-            payment.setAmount(paymentRequest.getAmount());
+            payment.setAmount(Money.of(paymentRequest.getAmount()));
             payments.add(payment);
         }
         expensePaymentRepository.saveAll(payments);
         
         // 创建分摊记录
-        List<ExpenseShare> shares = new ArrayList<>();
+        List<ExpenseShare> shares = expenseAssembler.createShares(expense, request, shareUsers);
+        expenseShareRepository.saveAll(shares);
+        expense.getPayments().addAll(payments);
+        expense.getShares().addAll(shares);
+        ledgerService.applyExpense(payments, shares, 1);
+        rollupService.applyExpense(expense, payments, shares, 1);
         
-        if (SplitType.EQUAL.name().equals(request.getSplitType())) {
-            // 平均分摊
-            BigDecimal shareAmount = request.getAmount().divide(
-                    BigDecimal.valueOf(shareUsers.size()), 2, RoundingMode.HALF_UP);
-            
-            for (User user : shareUsers) {
-                ExpenseShare share = new ExpenseShare();
-                share.setExpense(expense);
-                share.setUser(user);
-                share.setAmount(shareAmount);
-                share.setIsPaid(false);
-                shares.add(share);
-            }
+        Set<Long> affectedUserIds = new LinkedHashSet<>(payerIds);
+        affectedUserIds.addAll(request.getShareUserIds());
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.expense(ChangeType.EXPENSE_CREATED, expense.getId(), affectedUserIds));
+        
+        return expenseAssembler.convertToResponse(expense);
+    }
+    
+    /**
+     * 获取所有费用记录（不含已归档费用，完整历史见导出）
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseResponse> getAllExpenses() {
+        return assembleResponses(expenseRepository.findAllRows(),
+                expensePaymentRepository.findAllRows(),
+                expenseShareRepository.findAllRows());
+    }
+    
+    /**
+     * 按游标分页获取费用记录（按费用日期、ID倒序）
+     * <p>
+     * 费用、付款、分摊各一次投影查询，查询次数与页大小无关。
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ExpenseResponse> getExpensePage(String cursor, int limit) {
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<ExpenseRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = expenseRepository.findPageRows(pageable);
         } else {
-            // 自定义分摊
-            Map<Long, BigDecimal> customAmounts = new HashMap<>();
-            if (request.getCustomShares() != null) {
-                for (ExpenseRequest.CustomShareRequest customShare : request.getCustomShares()) {
-                    customAmounts.put(customShare.getUserId(), customShare.getAmount());
-                }
-            }
-            
-            for (User user : shareUsers) {
-                ExpenseShare share = new ExpenseShare();
-                share.setExpense(expense);
-                share.setUser(user);
-                
-                BigDecimal customAmount = customAmounts.get(user.getId());
-                if (customAmount != null) {
-                    share.setAmount(customAmount);
-                    share.setCustomAmount(customAmount);
-                } else {
-                    // 如果没有自定义金额，使用平均分摊
-                    BigDecimal shareAmount = request.getAmount().divide(
-                            BigDecimal.valueOf(shareUsers.size()), 2, RoundingMode.HALF_UP);
-                    share.setAmount(shareAmount);
-                }
-                share.setIsPaid(false);
-                shares.add(share);
-            }
+            ExpenseCursor after = ExpenseCursor.decode(cursor);
+            rows = expenseRepository.findPageRowsAfter(after.expenseDate(), after.id(), pageable);
         }
         
-        expenseShareRepository.saveAll(shares);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
         
-        return convertToResponse(expense);
+        CursorPageResponse<ExpenseResponse> page = new CursorPageResponse<>();
+        page.setItems(loadResponses(rows));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            ExpenseRow last = rows.get(rows.size() - 1);
+            page.setNextCursor(new ExpenseCursor(last.expenseDate(), last.id()).encode());
+        }
+        return page;
     }
     
     /**
-     * 获取所有费用记录
+     * 按ID批量读取费用响应，按ID升序
      */
-    public List<ExpenseResponse> getAllExpenses() {
-        List<Expense> expenses = expenseRepository.findAllOrderByExpenseDateDesc();
-        return expenses.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    List<ExpenseResponse> findResponsesByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return loadResponses(expenseRepository.findRowsByIdIn(ids));
     }
     
     /**
-     * 根据ID获取费用记录
+     * 按ID批量读取已归档费用的响应，按ID升序
      */
+    List<ExpenseResponse> findArchivedResponsesByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return assembleResponses(archivedExpenseRepository.findRowsByIdIn(ids),
+                archivedPaymentRepository.findRowsByExpenseIdIn(ids),
+                archivedShareRepository.findRowsByExpenseIdIn(ids));
+    }
+    
+    /**
+     * 根据ID获取费用记录，热表中不存在时回查归档表
+     */
+    @Transactional(readOnly = true)
     public ExpenseResponse getExpenseById(Long id) {
-        Expense expense = expenseRepository.findById(id)
+        ExpenseRow row = expenseRepository.findRowById(id).orElse(null);
+        if (row != null) {
+            return loadResponses(List.of(row)).get(0);
+        }
+        ExpenseRow archived = archivedExpenseRepository.findRowById(id)
                 .orElseThrow(() -> new RuntimeException("费用记录不存在: " + id));
-        return convertToResponse(expense);
+        return assembleResponses(List.of(archived),
+                archivedPaymentRepository.findRowsByExpenseIdIn(List.of(id)),
+                archivedShareRepository.findRowsByExpenseIdIn(List.of(id))).get(0);
+    }
+    
+    /**
+     * 为已读取的费用投影加载付款与分摊，保持投影顺序
+     */
+    private List<ExpenseResponse> loadResponses(List<ExpenseRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = rows.stream().map(ExpenseRow::id).collect(Collectors.toList());
+        return assembleResponses(rows,
+                expensePaymentRepository.findRowsByExpenseIdIn(ids),
+                expenseShareRepository.findRowsByExpenseIdIn(ids));
+    }
+    
+    private List<ExpenseResponse> assembleResponses(List<ExpenseRow> rows, List<PaymentRow> paymentRows,
+                                                    List<ShareRow> shareRows) {
+        Map<Long, List<ExpenseResponse.PaymentResponse>> payments = new HashMap<>(rows.size() * 2);
+        for (PaymentRow paymentRow : paymentRows) {
+            ExpenseResponse.PaymentResponse paymentResponse = new ExpenseResponse.PaymentResponse();
+            paymentResponse.setId(paymentRow.id());
+            paymentResponse.setPayerName(paymentRow.payerName());
+            paymentResponse.setAmount(paymentRow.amount().toBigDecimal());
+            payments.computeIfAbsent(paymentRow.expenseId(), k -> new ArrayList<>()).add(paymentResponse);
+        }
+        
+        Map<Long, List<ExpenseResponse.ExpenseShareResponse>> shares = new HashMap<>(rows.size() * 2);
+        for (ShareRow shareRow : shareRows) {
+            ExpenseResponse.ExpenseShareResponse shareResponse = new ExpenseResponse.ExpenseShareResponse();
+            shareResponse.setId(shareRow.id());
+            shareResponse.setUserName(shareRow.userName());
+            shareResponse.setAmount(shareRow.amount().toBigDecimal());
+            shareResponse.setCustomAmount(shareRow.customAmount() != null ? shareRow.customAmount().toBigDecimal() : null);
+            shareResponse.setIsPaid(shareRow.isPaid());
+            shares.computeIfAbsent(shareRow.expenseId(), k -> new ArrayList<>()).add(shareResponse);
+        }
+        
+        List<ExpenseResponse> responses = new ArrayList<>(rows.size());
+        for (ExpenseRow row : rows) {
+            ExpenseResponse response = new ExpenseResponse();
+            response.setId(row.id());
+            response.setDescription(row.description());
+            response.setAmount(row.amount().toBigDecimal());
+            response.setCategoryName(row.categoryName());
+            response.setSplitType(row.splitType().getDescription());
+            response.setExpenseDate(row.expenseDate());
+            response.setCreatedAt(row.createdAt());
+            response.setVersion(row.version());
+            response.setPayments(payments.getOrDefault(row.id(), new ArrayList<>()));
+            response.setShares(shares.getOrDefault(row.id(), new ArrayList<>()));
+            responses.add(response);
+        }
+        return responses;
     }
     
     /**
      * 更新费用记录
+     * <p>
+     * 按付款人/分摊用户与现有记录逐条比对，仅写入有变化的行；请求携带版本号时做乐观锁校验。
      */
     @Transactional
     public ExpenseResponse updateExpense(Long id, ExpenseRequest request) {
         // 查找现有费用记录
-        Expense expense = expenseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("费用记录不存在: " + id));
+        // 锁住费用行后再读取分摊：并发的标记支付与批量结清同样先锁费用行，此后读到的分摊状态在提交前不会改变
+        Expense expense = expenseRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException(archivedExpenseRepository.existsById(id)
+                        ? "费用已结清并归档，不能修改: " + id
+                        : "费用记录不存在: " + id));
+        if (request.getVersion() != null && !request.getVersion().equals(expense.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Expense.class, id);
+        }
         
         // 验证付款人
         List<ExpenseRequest.PaymentRequest> paymentRequests = request.getPayments();
         if (paymentRequests == null || paymentRequests.isEmpty()) {
             throw new RuntimeException("付款人列表不能为空");
         }
+        requireDistinctUsers(request);
         
         // 验证所有付款人存在
         List<Long> payerIds = paymentRequests.stream()
@@ -201,10 +331,7 @@ public class ExpenseService {
         }
         
         // 验证付款总金额
-        BigDecimal totalPaymentAmount = paymentRequests.stream()
-                .map(ExpenseRequest.PaymentRequest::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        if (totalPaymentAmount.compareTo(request.getAmount()) != 0) {
+        if (totalPaymentCents(paymentRequests) != Money.toCents(request.getAmount())) {
             throw new RuntimeException("付款总金额与费用金额不匹配");
         }
         
@@ -221,82 +348,148 @@ public class ExpenseService {
                     .orElseThrow(() -> new RuntimeException("费用分类不存在: " + request.getCategoryId()));
         }
         
-        // 更新费用记录基本信息
+        // 先冲销修改前的月度汇总贡献（日期、分类、金额或参与者都可能变化），修改后再计入新值
+        MonthlyRollupService.Delta rollupDelta = new MonthlyRollupService.Delta();
+        rollupDelta.expense(expense, expense.getPayments(), expense.getShares(), -1);
+        
+        // 更新费用记录基本信息；始终刷新更新时间，保证每次修改都会递增版本号
         expense.setDescription(request.getDescription());
-        expense.setAmount(request.getAmount());
+        expense.setAmount(Money.of(request.getAmount()));
         expense.setCategory(category);
         expense.setSplitType(SplitType.valueOf(request.getSplitType()));
         expense.setExpenseDate(request.getExpenseDate() != null ? request.getExpenseDate() : expense.getExpenseDate());
+        expense.setUpdatedAt(LocalDateTime.now());
+        
+        BalanceLedgerService.Delta delta = new BalanceLedgerService.Delta();
+        reconcilePayments(expense, paymentRequests, payers, delta);
+        reconcileShares(expense, expenseAssembler.createShares(expense, request, shareUsers), delta);
+        ledgerService.apply(delta);
+        rollupDelta.expense(expense, expense.getPayments(), expense.getShares(), 1);
+        rollupService.record(rollupDelta);
+        
+        // 受影响用户：余额有变化的用户（含被移除的参与者）与当前参与者
+        Set<Long> affectedUserIds = new LinkedHashSet<>(delta.userIds());
+        affectedUserIds.addAll(payerIds);
+        affectedUserIds.addAll(request.getShareUserIds());
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.expense(ChangeType.EXPENSE_UPDATED, id, affectedUserIds));
+        
+        // 立即刷新，使返回的版本号为本次提交后的值
+        expenseRepository.flush();
+        return expenseAssembler.convertToResponse(expense);
+    }
+    
+    /**
+     * 按付款人比对付款记录：金额变化的原地更新，新增的插入，移除的批量删除
+     */
+    private void reconcilePayments(Expense expense, List<ExpenseRequest.PaymentRequest> paymentRequests,
+                                   List<User> payers, BalanceLedgerService.Delta delta) {
+        Map<Long, User> payerById = payers.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, ExpensePayment> existing = new HashMap<>();
+        for (ExpensePayment payment : expense.getPayments()) {
+            existing.put(payment.getPayer().getId(), payment);
+        }
         
-        // 删除现有的付款记录和分摊记录
-        expensePaymentRepository.deleteByExpenseId(id);
-        expenseShareRepository.deleteByExpenseId(id);
-        
-        // 创建新的付款记录
-        List<ExpensePayment> payments = new ArrayList<>();
+        List<ExpensePayment> added = new ArrayList<>();
         for (ExpenseRequest.PaymentRequest paymentRequest : paymentRequests) {
-            User payer = payers.stream()
-                    .filter(p -> p.getId().equals(paymentRequest.getPayerId()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("付款人不存在: " + paymentRequest.getPayerId()));
-            
-            ExpensePayment payment = new ExpensePayment();
-            payment.setExpense(expense);
-            payment.setPayer(payer);
-            payment.setAmount(paymentRequest.getAmount());
-            payments.add(payment);
+            Long payerId = paymentRequest.getPayerId();
+            Money amount = Money.of(paymentRequest.getAmount());
+            ExpensePayment payment = existing.remove(payerId);
+            if (payment == null) {
+                payment = new ExpensePayment();
+                payment.setExpense(expense);
+                payment.setPayer(payerById.get(payerId));
+                payment.setAmount(amount);
+                added.add(payment);
+                delta.paid(payerId, amount.cents());
+            } else if (!payment.getAmount().equals(amount)) {
+                delta.paid(payerId, amount.cents() - payment.getAmount().cents());
+                payment.setAmount(amount);
+            }
         }
-        expensePaymentRepository.saveAll(payments);
         
-        // 创建新的分摊记录
-        List<ExpenseShare> shares = new ArrayList<>();
+        List<ExpensePayment> removed = new ArrayList<>(existing.values());
+        for (ExpensePayment payment : removed) {
+            delta.paid(payment.getPayer().getId(), -payment.getAmount().cents());
+        }
+        if (!removed.isEmpty()) {
+            expensePaymentRepository.deleteAllInBatch(removed);
+            expense.getPayments().removeAll(removed);
+        }
+        if (!added.isEmpty()) {
+            expensePaymentRepository.saveAll(added);
+            expense.getPayments().addAll(added);
+        }
+    }
+    
+    /**
+     * 按分摊用户比对分摊记录：未变化的保留（含已支付状态），金额变化的原地更新并重置为未支付，
+     * 新增的插入，移除的批量删除
+     */
+    private void reconcileShares(Expense expense, List<ExpenseShare> targets, BalanceLedgerService.Delta delta) {
+        Map<Long, ExpenseShare> existing = new HashMap<>();
+        for (ExpenseShare share : expense.getShares()) {
+            existing.put(share.getUser().getId(), share);
+        }
         
-        if (SplitType.EQUAL.name().equals(request.getSplitType())) {
-            // 平均分摊
-            BigDecimal shareAmount = request.getAmount().divide(
-                    BigDecimal.valueOf(shareUsers.size()), 2, RoundingMode.HALF_UP);
-            
-            for (User user : shareUsers) {
-                ExpenseShare share = new ExpenseShare();
-                share.setExpense(expense);
-                share.setUser(user);
-                share.setAmount(shareAmount);
+        List<ExpenseShare> added = new ArrayList<>();
+        for (ExpenseShare target : targets) {
+            Long userId = target.getUser().getId();
+            ExpenseShare share = existing.remove(userId);
+            if (share == null) {
+                added.add(target);
+                delta.owed(userId, BalanceLedgerService.owedCents(target));
+            } else if (!share.getAmount().equals(target.getAmount())
+                    || !Objects.equals(share.getCustomAmount(), target.getCustomAmount())) {
+                long oldOwed = BalanceLedgerService.owedCents(share);
+                share.setAmount(target.getAmount());
+                share.setCustomAmount(target.getCustomAmount());
                 share.setIsPaid(false);
-                shares.add(share);
+                delta.owed(userId, BalanceLedgerService.owedCents(share) - oldOwed);
             }
-        } else {
-            // 自定义分摊
-            Map<Long, BigDecimal> customAmounts = new HashMap<>();
-            if (request.getCustomShares() != null) {
-                for (ExpenseRequest.CustomShareRequest customShare : request.getCustomShares()) {
-                    customAmounts.put(customShare.getUserId(), customShare.getAmount());
-                }
+        }
+        
+        List<ExpenseShare> removed = new ArrayList<>(existing.values());
+        for (ExpenseShare share : removed) {
+            delta.owed(share.getUser().getId(), -BalanceLedgerService.owedCents(share));
+        }
+        if (!removed.isEmpty()) {
+            expenseShareRepository.deleteAllInBatch(removed);
+            expense.getShares().removeAll(removed);
+        }
+        if (!added.isEmpty()) {
+            expenseShareRepository.saveAll(added);
+            expense.getShares().addAll(added);
+        }
+    }
+    
+    /**
+     * 付款人与分摊用户各自不能重复：同一用户的多笔付款无法按付款人对账，重复的分摊用户会得到多份分摊
+     */
+    static void requireDistinctUsers(ExpenseRequest request) {
+        Set<Long> payerIds = new HashSet<>();
+        for (ExpenseRequest.PaymentRequest paymentRequest : request.getPayments()) {
+            if (!payerIds.add(paymentRequest.getPayerId())) {
+                throw new RuntimeException("付款人重复: " + paymentRequest.getPayerId());
             }
-            
-            for (User user : shareUsers) {
-                ExpenseShare share = new ExpenseShare();
-                share.setExpense(expense);
-                share.setUser(user);
-                
-                BigDecimal customAmount = customAmounts.get(user.getId());
-                if (customAmount != null) {
-                    share.setAmount(customAmount);
-                    share.setCustomAmount(customAmount);
-                } else {
-                    // 如果没有自定义金额，使用平均分摊
-                    BigDecimal shareAmount = request.getAmount().divide(
-                            BigDecimal.valueOf(shareUsers.size()), 2, RoundingMode.HALF_UP);
-                    share.setAmount(shareAmount);
-                }
-                share.setIsPaid(false);
-                shares.add(share);
+        }
+        Set<Long> shareUserIds = new HashSet<>();
+        for (Long userId : request.getShareUserIds()) {
+            if (!shareUserIds.add(userId)) {
+                throw new RuntimeException("分摊用户重复: " + userId);
             }
         }
-        
-        expense = expenseRepository.save(expense);
-        expenseShareRepository.saveAll(shares);
-        
-        return convertToResponse(expense);
+    }
+    
+    /**
+     * 付款请求总金额（分）
+     */
+    static long totalPaymentCents(List<ExpenseRequest.PaymentRequest> paymentRequests) {
+        long total = 0;
+        for (ExpenseRequest.PaymentRequest paymentRequest : paymentRequests) {
+            total = Math.addExact(total, Money.toCents(paymentRequest.getAmount()));
+        }
+        return total;
     }
     
     /**
@@ -306,16 +499,43 @@ public class ExpenseService {
     public void markShareAsPaid(Long shareId) {
         ExpenseShare share = expenseShareRepository.findById(shareId)
                 .orElseThrow(() -> new RuntimeException("分摊记录不存在: " + shareId));
+        if (Boolean.TRUE.equals(share.getIsPaid())) {
+            return;
+        }
+        
+        // 先递增费用版本号并锁住费用行（与修改费用的加锁顺序一致），并发的修改不会用旧的分摊状态覆盖本次支付
+        expenseRepository.incrementVersion(List.of(share.getExpense().getId()));
+        
+        // 条件 UPDATE：并发标记同一分摊时只有一方更新成功，台账不会重复扣减
+        if (expenseShareRepository.markPaidIfUnpaid(shareId, LocalDateTime.now()) == 0) {
+            return;
+        }
         
-        share.setIsPaid(true);
-        expenseShareRepository.save(share);
+        // 加锁前读取的金额可能已被并发的修改改变，按当前金额扣减
+        ledgerService.applyShareSettled(share.getUser().getId(), expenseShareRepository.findAmountById(shareId));
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.expense(ChangeType.SHARE_PAID, share.getExpense().getId(),
+                List.of(share.getUser().getId())));
     }
     
     /**
      * 获取用户余额统计
+     * <p>
+     * 用户、台账、未支付付款与未支付分摊四个查询相互独立，虚拟线程模式下并发执行。
      */
     public List<UserBalanceResponse> getUserBalances() {
-        List<User> users = userRepository.findAll();
+        return parallelReads.run(scope -> {
+            Supplier<List<User>> users = scope.fork(userRepository::findAll);
+            Supplier<Map<Long, UserLedger>> ledgers = scope.fork(ledgerService::getLedgers);
+            Supplier<List<ExpensePayment>> payments = scope.fork(expensePaymentRepository::findWithPayerForUnpaidExpenses);
+            Supplier<List<ExpenseShare>> shares = scope.fork(expenseShareRepository::findAllUnpaidWithUser);
+            scope.join();
+            return buildBalances(users.get(), ledgers.get(), calculateBalanceDetails(payments.get(), shares.get()));
+        });
+    }
+    
+    private List<UserBalanceResponse> buildBalances(List<User> users, Map<Long, UserLedger> ledgers,
+                                                    Map<Long, List<UserBalanceResponse.BalanceDetail>> details) {
         List<UserBalanceResponse> balances = new ArrayList<>();
         
         for (User user : users) {
@@ -323,25 +543,17 @@ public class ExpenseService {
             balance.setUserId(user.getId());
             balance.setUserName(user.getName());
             
-            // 计算总支付金额
-            BigDecimal totalPaid = expensePaymentRepository.findByPayerId(user.getId())
-                    .stream()
-                    .map(ExpensePayment::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            balance.setTotalPaid(totalPaid);
-            
-            // 计算总欠款金额
-            BigDecimal totalOwed = expenseShareRepository.findUnpaidByUserId(user.getId())
-                    .stream()
-                    .map(ExpenseShare::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            balance.setTotalOwed(totalOwed);
+            // 总支付金额与总欠款金额取自台账
+            UserLedger ledger = ledgers.get(user.getId());
+            Money totalPaid = ledger != null ? ledger.getTotalPaid() : Money.ZERO;
+            Money totalOwed = ledger != null ? ledger.getTotalOwed() : Money.ZERO;
+            balance.setTotalPaid(totalPaid.toBigDecimal());
+            balance.setTotalOwed(totalOwed.toBigDecimal());
             
             // 计算余额
-            balance.setBalance(totalPaid.subtract(totalOwed));
+            balance.setBalance(totalPaid.minus(totalOwed).toBigDecimal());
             
-            // 计算详细信息
-            balance.setDetails(calculateBalanceDetails(user));
+            balance.setDetails(details.getOrDefault(user.getId(), new ArrayList<>()));
             
             balances.add(balance);
         }
@@ -350,106 +562,59 @@ public class ExpenseService {
     }
     
     /**
-     * 计算余额详细信息
+     * 重建余额台账
+     */
+    public int rebuildBalanceLedger() {
+        return ledgerService.rebuild();
+    }
+    
+    /**
+     * 计算所有用户的余额详细信息，按用户ID索引
+     * <p>
+     * 基于未支付分摊及其费用的付款记录，一次遍历同时生成应收与应付明细。
      */
-    private List<UserBalanceResponse.BalanceDetail> calculateBalanceDetails(User user) {
-        List<UserBalanceResponse.BalanceDetail> details = new ArrayList<>();
-        
-        // 别人欠我的钱 - 需要重新计算，因为现在没有直接的payer关系
-        // 这里需要根据费用记录和分摊记录来计算
-        List<Expense> allExpenses = expenseRepository.findAll();
-        for (Expense expense : allExpenses) {
-            // 检查这个用户是否为此费用付款
-            boolean isPayer = expense.getPayments() != null && 
-                    expense.getPayments().stream()
-                            .anyMatch(payment -> payment.getPayer().getId().equals(user.getId()));
+    private Map<Long, List<UserBalanceResponse.BalanceDetail>> calculateBalanceDetails(List<ExpensePayment> unpaidPayments,
+                                                                                       List<ExpenseShare> unpaidShares) {
+        Map<Long, List<ExpensePayment>> paymentsByExpense = unpaidPayments
+                .stream()
+                .collect(Collectors.groupingBy(payment -> payment.getExpense().getId()));
+        
+        Map<Long, List<UserBalanceResponse.BalanceDetail>> receivable = new HashMap<>();
+        Map<Long, List<UserBalanceResponse.BalanceDetail>> owed = new HashMap<>();
+        
+        for (ExpenseShare share : unpaidShares) {
+            List<ExpensePayment> payments = paymentsByExpense.getOrDefault(share.getExpense().getId(), List.of());
+            Long shareUserId = share.getUser().getId();
+            BigDecimal shareAmount = share.getAmount().toBigDecimal();
             
-            if (isPayer) {
-                // 检查是否有未支付的分摊
-                List<ExpenseShare> unpaidShares = expense.getShares().stream()
-                        .filter(share -> !share.getIsPaid() && !share.getUser().getId().equals(user.getId()))
-                        .collect(Collectors.toList());
-                
-                for (ExpenseShare share : unpaidShares) {
-                    UserBalanceResponse.BalanceDetail detail = new UserBalanceResponse.BalanceDetail();
-                    detail.setType("should_receive");
-                    detail.setDescription("应收款项");
-                    detail.setAmount(share.getAmount());
-                    detail.setRelatedUserName(share.getUser().getName());
-                    details.add(detail);
-                }
-            }
-        }
-        
-        // 我欠别人的钱
-        List<ExpenseShare> myUnpaidShares = expenseShareRepository.findUnpaidByUserId(user.getId());
-        for (ExpenseShare share : myUnpaidShares) {
+            // 别人欠我的钱：每位付款人对他人的未支付分摊各记一条应收
+            payments.stream()
+                    .map(ExpensePayment::getPayer)
+                    .filter(payer -> !payer.getId().equals(shareUserId))
+                    .map(User::getId)
+                    .distinct()
+                    .forEach(payerId -> {
+                        UserBalanceResponse.BalanceDetail detail = new UserBalanceResponse.BalanceDetail();
+                        detail.setType("should_receive");
+                        detail.setDescription("应收款项");
+                        detail.setAmount(shareAmount);
+                        detail.setRelatedUserName(share.getUser().getName());
+                        receivable.computeIfAbsent(payerId, k -> new ArrayList<>()).add(detail);
+                    });
+            
+            // 我欠别人的钱
             UserBalanceResponse.BalanceDetail detail = new UserBalanceResponse.BalanceDetail();
             detail.setType("owed");
             detail.setDescription("应付款项");
-            detail.setAmount(share.getAmount());
-            
-            // 找到这个费用的付款人
-            String payerNames = share.getExpense().getPayments() != null ? 
-                    share.getExpense().getPayments().stream()
-                            .map(payment -> payment.getPayer().getName())
-                            .collect(Collectors.joining(", ")) : "未知";
-            detail.setRelatedUserName(payerNames);
-            details.add(detail);
+            detail.setAmount(shareAmount);
+            detail.setRelatedUserName(payments.stream()
+                    .map(payment -> payment.getPayer().getName())
+                    .collect(Collectors.joining(", ")));
+            owed.computeIfAbsent(shareUserId, k -> new ArrayList<>()).add(detail);
         }
         
-        return details;
-    }
-    
-    /**
-     * 转换为响应DTO
-     */
-    private ExpenseResponse convertToResponse(Expense expense) {
-        ExpenseResponse response = new ExpenseResponse();
-        response.setId(expense.getId());
-        response.setDescription(expense.getDescription());
-        response.setAmount(expense.getAmount());
-        response.setCategoryName(expense.getCategory() != null ? expense.getCategory().getName() : null);
-        response.setSplitType(expense.getSplitType().getDescription());
-        response.setExpenseDate(expense.getExpenseDate());
-        response.setCreatedAt(expense.getCreatedAt());
-        
-        // 转换付款信息
-        List<ExpenseResponse.PaymentResponse> paymentResponses = new ArrayList<>();
-        if (expense.getPayments() != null && !expense.getPayments().isEmpty()) {
-            paymentResponses = expense.getPayments()
-                    .stream()
-                    .filter(payment -> payment != null && payment.getPayer() != null)
-                    .map(payment -> {
-                        ExpenseResponse.PaymentResponse paymentResponse = new ExpenseResponse.PaymentResponse();
-                        paymentResponse.setId(payment.getId());
-                        paymentResponse.setPayerName(payment.getPayer().getName());
-                        paymentResponse.setAmount(payment.getAmount());
-                        return paymentResponse;
-                    })
-                    .collect(Collectors.toList());
-        }
-        response.setPayments(paymentResponses);
-        
-        // 转换分摊信息
-        List<ExpenseResponse.ExpenseShareResponse> shareResponses = new ArrayList<>();
-        if (expense.getShares() != null && !expense.getShares().isEmpty()) {
-            shareResponses = expense.getShares()
-                    .stream()
-                    .filter(share -> share != null && share.getUser() != null)
-                    .map(share -> {
-                        ExpenseResponse.ExpenseShareResponse shareResponse = new ExpenseResponse.ExpenseShareResponse();
-                        shareResponse.setId(share.getId());
-                        shareResponse.setUserName(share.getUser().getName());
-                        shareResponse.setAmount(share.getAmount());
-                        shareResponse.setCustomAmount(share.getCustomAmount());
-                        shareResponse.setIsPaid(share.getIsPaid());
-                        return shareResponse;
-                    })
-                    .collect(Collectors.toList());
-        }
-        
-        response.setShares(shareResponses);
-        return response;
+        // 与原有顺序保持一致：先应收，后应付
+        owed.forEach((userId, list) -> receivable.computeIfAbsent(userId, k -> new ArrayList<>()).addAll(list));
+        return receivable;
     }
 }
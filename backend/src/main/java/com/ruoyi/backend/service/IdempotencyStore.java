@@ -0,0 +1,230 @@
+package com.ruoyi.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.entity.IdempotencyRecord;
+import com.ruoyi.backend.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等键存储：同一 Idempotency-Key 的重试直接重放首次响应，不再执行写操作
+ * <p>
+ * 内存中按最近访问顺序保留有限条目（超出上限淘汰最久未访问的键），未命中时查询数据库中的记录。
+ * 首次执行与记录的保存在同一事务中提交，事务回滚时不留下记录，客户端可用同一个键重试。
+ * 键过期后视为新键：残留的过期记录在新请求的事务中删除后再保存新记录。
+ * 同一进程内相同键的并发请求等待首个请求结束后再查询结果，不会并行执行。
+ * 键对应的接口与请求体不同时拒绝请求，不重放无关的响应。
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * 执行结果；replayed 为 true 表示响应来自已保存的记录
+     */
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    private record Entry(String fingerprint, String body, LocalDateTime expiresAt) {
+    }
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository recordRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Entry> entries;
+
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final Duration ttl;
+
+    private final Duration waitTimeout;
+
+    private final Counter replays;
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository, ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${publicpay.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${publicpay.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${publicpay.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        Gauge.builder("publicpay.idempotency.entries", this, store -> store.size())
+                .description("内存中保留的幂等键数")
+                .register(meterRegistry);
+        this.replays = Counter.builder("publicpay.idempotency.replays")
+                .description("按幂等键重放已保存响应的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 以幂等键执行写操作：键已有记录时重放响应，否则执行 action 并在同一事务中保存响应
+     *
+     * @param scope   接口标识，参与请求指纹计算
+     * @param request 请求体，参与请求指纹计算
+     */
+    public <T> Result<T> execute(String scope, String key, Object request, Class<T> type, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key 长度须为1到" + MAX_KEY_LENGTH + "个字符");
+        }
+        String fingerprint = fingerprint(scope, request);
+
+        while (true) {
+            Entry entry = lookup(key);
+            if (entry != null) {
+                return replay(entry, fingerprint, type);
+            }
+
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                // 等待首个请求结束后重新查询：成功则重放其响应，失败则由本请求重新执行
+                await(running);
+                continue;
+            }
+
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                IdempotencyRecord stored = recordRepository.findById(key).orElse(null);
+                if (stored != null && stored.getExpiresAt().isAfter(now)) {
+                    entry = new Entry(stored.getFingerprint(), stored.getResponseBody(), stored.getExpiresAt());
+                    remember(key, entry);
+                    return replay(entry, fingerprint, type);
+                }
+
+                // 过期但尚未清理的记录在同一事务中删除，否则保存新记录时主键冲突，使写操作整体回滚
+                boolean expired = stored != null;
+                LocalDateTime expiresAt = now.plus(ttl);
+                String[] body = new String[1];
+                T result = transactionTemplate.execute(status -> {
+                    if (expired) {
+                        recordRepository.deleteExpiredKey(key, now);
+                    }
+                    T value = action.get();
+                    body[0] = serialize(value);
+                    recordRepository.save(new IdempotencyRecord(key, fingerprint, body[0], expiresAt));
+                    return value;
+                });
+                remember(key, new Entry(fingerprint, body[0], expiresAt));
+                return new Result<>(result, false);
+            } finally {
+                inFlight.remove(key, mine);
+                mine.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 内存中保留的键数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 定期删除数据库中的过期记录；内存中的过期条目在访问时移除或随容量上限淘汰
+     */
+    @Scheduled(fixedDelayString = "${publicpay.idempotency.purge-interval:PT1H}", initialDelayString = "${publicpay.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        transactionTemplate.executeWithoutResult(status -> recordRepository.deleteExpired(LocalDateTime.now()));
+    }
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.expiresAt().isAfter(LocalDateTime.now())) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void remember(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private <T> Result<T> replay(Entry entry, String fingerprint, Class<T> type) {
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new RuntimeException("Idempotency-Key 已用于其他请求");
+        }
+        replays.increment();
+        try {
+            return new Result<>(objectMapper.readValue(entry.body(), type), true);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("幂等响应解析失败", e);
+        }
+    }
+
+    private void await(CompletableFuture<Void> running) {
+        try {
+            running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("相同 Idempotency-Key 的请求仍在处理中，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待相同 Idempotency-Key 的请求时被中断");
+        } catch (ExecutionException e) {
+            // 首个请求的 future 只会正常完成
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("幂等响应序列化失败", e);
+        }
+    }
+
+    private String fingerprint(String scope, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(scope.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new RuntimeException("请求指纹计算失败", e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ruoyi.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.enums.ResponseEncoding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 列表响应缓存
+ * <p>
+ * 用户、费用分类列表变化极少，按响应编码（JSON / CBOR / Smile）分别缓存序列化后的字节与版本号，
+ * 命中时不访问 JPA、不再序列化。
+ * 写操作调用 {@link #invalidate} 递增版本号（处于事务中时在提交后递增），
+ * 版本号与缓存条目不一致即视为失效，下次读取重新加载。
+ */
+@Component
+public class ListResponseCache {
+
+    /**
+     * 被缓存的列表
+     */
+    public enum CachedList {
+        USERS("users"),
+        CATEGORIES("categories");
+
+        private final String tag;
+
+        CachedList(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    private final Map<ResponseEncoding, ObjectMapper> mappers = new EnumMap<>(ResponseEncoding.class);
+
+    private final Map<CachedList, AtomicLong> versions = new EnumMap<>(CachedList.class);
+
+    private final Map<CachedList, Map<ResponseEncoding, AtomicReference<Entry>>> entries = new EnumMap<>(CachedList.class);
+
+    private final Map<CachedList, Counter> hits = new EnumMap<>(CachedList.class);
+
+    private final Map<CachedList, Counter> misses = new EnumMap<>(CachedList.class);
+
+    public ListResponseCache(ObjectMapper objectMapper,
+                             MappingJackson2CborHttpMessageConverter cborConverter,
+                             MappingJackson2SmileHttpMessageConverter smileConverter,
+                             MeterRegistry meterRegistry) {
+        mappers.put(ResponseEncoding.JSON, objectMapper);
+        mappers.put(ResponseEncoding.CBOR, cborConverter.getObjectMapper());
+        mappers.put(ResponseEncoding.SMILE, smileConverter.getObjectMapper());
+        for (CachedList list : CachedList.values()) {
+            versions.put(list, new AtomicLong());
+            Map<ResponseEncoding, AtomicReference<Entry>> byEncoding = new EnumMap<>(ResponseEncoding.class);
+            for (ResponseEncoding encoding : ResponseEncoding.values()) {
+                byEncoding.put(encoding, new AtomicReference<>());
+            }
+            entries.put(list, byEncoding);
+            hits.put(list, counter(meterRegistry, list, "hit"));
+            misses.put(list, counter(meterRegistry, list, "miss"));
+        }
+    }
+
+    /**
+     * 获取列表按指定编码序列化后的字节，未命中时调用 loader 加载并序列化
+     */
+    public byte[] get(CachedList list, ResponseEncoding encoding, Supplier<?> loader) {
+        long version = versions.get(list).get();
+        AtomicReference<Entry> slot = entries.get(list).get(encoding);
+        Entry entry = slot.get();
+        if (entry != null && entry.version() == version) {
+            hits.get(list).increment();
+            return entry.body();
+        }
+
+        misses.get(list).increment();
+        byte[] body = serialize(list, encoding, loader.get());
+        // 加载期间若发生写操作，版本号已变化，此条目在下次读取时自然失效
+        slot.set(new Entry(version, body));
+        return body;
+    }
+
+    /**
+     * 使列表缓存失效；当前线程处于事务中时推迟到提交之后，避免其他请求在提交前重新缓存旧数据
+     */
+    public void invalidate(CachedList list) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.get(list).incrementAndGet();
+                }
+            });
+        } else {
+            versions.get(list).incrementAndGet();
+        }
+    }
+
+    /**
+     * 当前版本号
+     */
+    public long version(CachedList list) {
+        return versions.get(list).get();
+    }
+
+    private byte[] serialize(CachedList list, ResponseEncoding encoding, Object value) {
+        try {
+            return mappers.get(encoding).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("列表序列化失败: " + list.tag, e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, CachedList list, String result) {
+        return Counter.builder("publicpay.response.cache")
+                .description("列表响应缓存命中/未命中次数")
+                .tag("list", list.tag)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,285 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.MonthlyRollupResponse;
+import com.ruoyi.backend.entity.Expense;
+import com.ruoyi.backend.entity.ExpenseCategory;
+import com.ruoyi.backend.entity.ExpensePayment;
+import com.ruoyi.backend.entity.ExpenseShare;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.entity.MonthlyRollup;
+import com.ruoyi.backend.entity.RollupDelta;
+import com.ruoyi.backend.entity.User;
+import com.ruoyi.backend.enums.RollupDimension;
+import com.ruoyi.backend.repository.ExpenseCategoryRepository;
+import com.ruoyi.backend.repository.MonthlyRollupRepository;
+import com.ruoyi.backend.repository.RollupDeltaRepository;
+import com.ruoyi.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 月度汇总服务
+ * <p>
+ * 费用写入方法在同一事务内把按（维度, 月份, 维度键）累计的带符号变化量追加到增量表；
+ * 定时任务按写入顺序把增量合并进汇总表并删除已合并的行。查询在一条语句中读取汇总表与尚未合并的增量，
+ * 结果与直接统计原始记录一致，耗时只与月份数和维度键数有关。
+ * <p>
+ * 增量在写入事务中产生，不依赖 updated_at：修改费用日期、分类或删除付款人/分摊用户时，
+ * 旧月份与旧维度键上的冲销同样会被记录；事务回滚时增量一并撤销。
+ */
+@Service
+public class MonthlyRollupService {
+
+    /** 分类维度下未分类费用的维度键 */
+    public static final long UNCATEGORIZED = 0L;
+
+    private static final String UNCATEGORIZED_NAME = "未分类";
+
+    @Autowired
+    private MonthlyRollupRepository rollupRepository;
+
+    @Autowired
+    private RollupDeltaRepository deltaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseCategoryRepository categoryRepository;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Value("${publicpay.rollup.fold-batch-size:5000}")
+    private int foldBatchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter folded;
+
+    public MonthlyRollupService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.folded = Counter.builder("publicpay.rollup.folded")
+                .description("合并到月度汇总表的增量行数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一笔费用对月度汇总的贡献，sign 为 1 表示计入，-1 表示冲销
+     */
+    @Transactional
+    public void applyExpense(Expense expense, List<ExpensePayment> payments, List<ExpenseShare> shares, int sign) {
+        Delta delta = new Delta();
+        delta.expense(expense, payments, shares, sign);
+        record(delta);
+    }
+
+    /**
+     * 将累计的增量追加到增量表（批量插入），变化量为零的键不写入
+     */
+    @Transactional
+    public void record(Delta delta) {
+        List<RollupDelta> rows = new ArrayList<>(delta.totals.size());
+        delta.totals.forEach((key, totals) -> {
+            if (totals[0] != 0 || totals[1] != 0) {
+                rows.add(new RollupDelta(key.dimension(), key.periodMonth(), key.keyId(),
+                        Money.ofCents(totals[0]), Math.toIntExact(totals[1])));
+            }
+        });
+        if (!rows.isEmpty()) {
+            deltaRepository.saveAll(rows);
+        }
+    }
+
+    /**
+     * 定时合并增量：每批在独立事务中按写入顺序读取、按键累加到汇总表并删除，返回合并的增量行数
+     * <p>
+     * 合并的行与删除的行是同一批，合并期间新提交的增量留到下一次；
+     * 删除行数与读取行数不一致说明另一实例已合并过这批增量，本批回滚。
+     */
+    @Scheduled(fixedDelayString = "${publicpay.rollup.fold-interval:PT1M}", initialDelayString = "${publicpay.rollup.fold-interval:PT1M}")
+    public int fold() {
+        int total = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> foldBatch());
+            total += count;
+            if (count < foldBatchSize) {
+                return total;
+            }
+        }
+    }
+
+    private int foldBatch() {
+        List<RollupDelta> pending = deltaRepository.findPending(PageRequest.of(0, foldBatchSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Delta delta = new Delta();
+        List<Long> ids = new ArrayList<>(pending.size());
+        for (RollupDelta row : pending) {
+            delta.add(row.getDimension(), row.getPeriodMonth(), row.getKeyId(), row.getAmount().cents(), row.getItemCount());
+            ids.add(row.getId());
+        }
+
+        delta.totals.forEach((key, totals) -> {
+            if (totals[0] == 0 && totals[1] == 0) {
+                return;
+            }
+            Money amount = Money.ofCents(totals[0]);
+            if (rollupRepository.applyDelta(key.dimension(), key.periodMonth(), key.keyId(), amount, totals[1]) == 0) {
+                rollupRepository.save(new MonthlyRollup(key.dimension(), key.periodMonth(), key.keyId(), amount, totals[1]));
+            }
+        });
+
+        if (deltaRepository.deleteByIdIn(ids) != ids.size()) {
+            throw new RuntimeException("月度汇总增量已被并发合并");
+        }
+        folded.increment(ids.size());
+        return ids.size();
+    }
+
+    /**
+     * 根据费用、付款与分摊记录（含已归档）重建月度汇总（用于数据修复），返回重建的汇总行数
+     * <p>
+     * 待合并的增量已包含在原始记录中，与旧汇总行一并删除。
+     */
+    @Transactional
+    public int rebuild() {
+        deltaRepository.deleteAllInBatch();
+        rollupRepository.deleteAllInBatch();
+        int rows = rollupRepository.insertCategoryTotals()
+                + rollupRepository.insertPayerTotals()
+                + rollupRepository.insertUserTotals();
+        dataVersion.bump();
+        return rows;
+    }
+
+    /**
+     * 月度汇总：from、to 为包含在内的月份
+     */
+    @Transactional(readOnly = true)
+    public MonthlyRollupResponse getMonthlyTotals(YearMonth from, YearMonth to, RollupDimension dimension) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("开始月份不能晚于结束月份");
+        }
+        List<Object[]> rows = rollupRepository.sumByMonthAndKey(dimension.name(), periodMonth(from), periodMonth(to));
+
+        Set<Long> keyIds = new LinkedHashSet<>();
+        for (Object[] row : rows) {
+            keyIds.add(((Number) row[1]).longValue());
+        }
+        Map<Long, String> names = names(dimension, keyIds);
+
+        long totalCents = 0;
+        long totalCount = 0;
+        List<MonthlyRollupResponse.Row> responseRows = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            int month = ((Number) row[0]).intValue();
+            long keyId = ((Number) row[1]).longValue();
+            long cents = Money.toCents((BigDecimal) row[2]);
+            long count = ((Number) row[3]).longValue();
+            totalCents += cents;
+            totalCount += count;
+
+            MonthlyRollupResponse.Row responseRow = new MonthlyRollupResponse.Row();
+            responseRow.setMonth(YearMonth.of(month / 100, month % 100));
+            boolean uncategorized = dimension == RollupDimension.CATEGORY && keyId == UNCATEGORIZED;
+            responseRow.setId(uncategorized ? null : keyId);
+            responseRow.setName(uncategorized ? UNCATEGORIZED_NAME : names.get(keyId));
+            responseRow.setCount(count);
+            responseRow.setTotalAmount(Money.ofCents(cents).toBigDecimal());
+            responseRows.add(responseRow);
+        }
+
+        MonthlyRollupResponse response = new MonthlyRollupResponse();
+        response.setDimension(dimension);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setCount(totalCount);
+        response.setTotalAmount(Money.ofCents(totalCents).toBigDecimal());
+        response.setRows(responseRows);
+        return response;
+    }
+
+    /**
+     * 维度键对应的名称（一次批量查询）
+     */
+    private Map<Long, String> names(RollupDimension dimension, Set<Long> keyIds) {
+        if (keyIds.isEmpty()) {
+            return Map.of();
+        }
+        if (dimension == RollupDimension.CATEGORY) {
+            return categoryRepository.findAllById(keyIds).stream()
+                    .collect(Collectors.toMap(ExpenseCategory::getId, ExpenseCategory::getName));
+        }
+        return userRepository.findAllById(keyIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getName));
+    }
+
+    /**
+     * 月份的整数表示（yyyyMM）
+     */
+    static int periodMonth(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    static int periodMonth(LocalDateTime date) {
+        return periodMonth(YearMonth.from(date));
+    }
+
+    /**
+     * 汇总增量：按（维度, 月份, 维度键）累计金额（分）与条数的变化量
+     */
+    public static final class Delta {
+
+        private record Key(RollupDimension dimension, int periodMonth, long keyId) {
+        }
+
+        /** 按键排序：合并时以固定顺序更新汇总行，并发的合并事务不会互相死锁 */
+        private final Map<Key, long[]> totals = new TreeMap<>(Comparator.comparing(Key::dimension)
+                .thenComparingInt(Key::periodMonth)
+                .thenComparingLong(Key::keyId));
+
+        /**
+         * 计入（sign 为 1）或冲销（sign 为 -1）一笔费用：分类维度计费用金额，付款人维度计各笔付款，用户维度计各份分摊
+         */
+        public void expense(Expense expense, List<ExpensePayment> payments, List<ExpenseShare> shares, int sign) {
+            int month = periodMonth(expense.getExpenseDate());
+            long categoryId = expense.getCategory() != null ? expense.getCategory().getId() : UNCATEGORIZED;
+            add(RollupDimension.CATEGORY, month, categoryId, sign * expense.getAmount().cents(), sign);
+            for (ExpensePayment payment : payments) {
+                add(RollupDimension.PAYER, month, payment.getPayer().getId(), sign * payment.getAmount().cents(), sign);
+            }
+            for (ExpenseShare share : shares) {
+                add(RollupDimension.USER, month, share.getUser().getId(), sign * share.getAmount().cents(), sign);
+            }
+        }
+
+        private void add(RollupDimension dimension, int periodMonth, long keyId, long cents, long count) {
+            long[] total = totals.computeIfAbsent(new Key(dimension, periodMonth, keyId), k -> new long[2]);
+            total[0] += cents;
+            total[1] += count;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.config.RequestStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 多个相互独立的只读查询的结构化并发执行
+ * <p>
+ * 虚拟线程模式（Java 21 且 spring.threads.virtual.enabled=true）下，{@link Scope#fork} 的每个查询
+ * 在各自的只读事务中并发执行；任一查询失败或调用线程被中断（客户端断开、请求超时）时，
+ * 其余查询被取消，{@link #run} 等待已开始的查询结束后才返回，不会留下仍在运行的查询。
+ * 其他情况下按顺序在同一个只读事务中执行，与原有行为一致。
+ * <p>
+ * 并发模式下各查询使用不同的连接与事务，结果不是同一时刻的快照；
+ * 执行的 SQL 仍计入调用线程的请求统计（{@link RequestStatistics}）。
+ */
+@Component
+public class ParallelReads {
+
+    private final boolean enabled;
+
+    private final AsyncTaskExecutor executor;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public ParallelReads(Environment environment,
+                         @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                         PlatformTransactionManager transactionManager) {
+        this(Threading.VIRTUAL.isActive(environment), executor, transactionManager);
+    }
+
+    ParallelReads(boolean enabled, AsyncTaskExecutor executor, PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 是否以并发方式执行
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 在作用域内执行 body，body 中 fork 的查询在 body 返回前必须已 {@link Scope#join()}
+     */
+    public <T> T run(Function<Scope, T> body) {
+        if (!enabled) {
+            return readOnlyTransaction.execute(status -> body.apply(new Scope(null)));
+        }
+        try (Scope scope = new Scope(new ExecutorCompletionService<>(executor))) {
+            return body.apply(scope);
+        }
+    }
+
+    /**
+     * 查询作用域
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final ExecutorCompletionService<Object> completion;
+
+        private final List<Forked> forked = new ArrayList<>();
+
+        private Scope(ExecutorCompletionService<Object> completion) {
+            this.completion = completion;
+        }
+
+        /**
+         * 提交一个查询，返回的 Supplier 在 {@link #join()} 之后可取得结果
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Supplier<T> fork(Supplier<T> query) {
+            if (completion == null) {
+                T result = query.get();
+                return () -> result;
+            }
+            Forked task = new Forked();
+            RequestStatistics.Counts counts = RequestStatistics.current();
+            Future<Object> future = completion.submit(() -> {
+                if (!task.claimed.compareAndSet(false, true)) {
+                    throw new CancellationException("查询已取消");
+                }
+                RequestStatistics.Counts previous = RequestStatistics.bind(counts);
+                try {
+                    return readOnlyTransaction.execute(status -> query.get());
+                } finally {
+                    RequestStatistics.bind(previous);
+                    task.finished.countDown();
+                }
+            });
+            task.future = future;
+            forked.add(task);
+            return () -> {
+                if (!future.isDone()) {
+                    throw new IllegalStateException("查询尚未完成，请先调用 join()");
+                }
+                try {
+                    return (T) future.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+
+        /**
+         * 等待全部查询完成；任一查询失败时取消其余查询并抛出其异常，调用线程被中断时取消全部查询
+         */
+        public void join() {
+            if (completion == null) {
+                return;
+            }
+            try {
+                for (int i = 0; i < forked.size(); i++) {
+                    completion.take().get();
+                }
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("请求已取消");
+            } catch (ExecutionException e) {
+                cancelAll();
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new RuntimeException("查询失败", e.getCause());
+            }
+        }
+
+        /**
+         * 取消全部查询并等待已开始的查询真正结束：cancel(true) 只发出中断，不响应中断的查询仍会继续运行
+         */
+        private void cancelAll() {
+            forked.forEach(task -> task.future.cancel(true));
+            boolean interrupted = false;
+            for (Forked task : forked) {
+                // 尚未开始的查询由此处认领，之后不会再执行
+                if (task.claimed.compareAndSet(false, true)) {
+                    continue;
+                }
+                while (true) {
+                    try {
+                        task.finished.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+    }
+
+    /**
+     * 已提交的查询：claimed 保证查询要么由执行线程开始、要么由取消方认领而不再执行，finished 在执行结束时打开
+     */
+    private static final class Forked {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private Future<Object> future;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ruoyi.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * 对数分桶分位数草图（DDSketch 思路）
+ * <p>
+ * 以分为单位的金额 v 落入第 ceil(log_γ v) 个桶，γ = (1 + α) / (1 - α)，取桶的代表值作为估计时相对误差不超过 α。
+ * 桶数只取决于金额的数量级（1 分到 1 亿元约 1300 个桶），与样本数无关；两个草图按桶相加即可合并。
+ * 分桶也可以在 SQL 中完成（CEIL(LN(amount * 100) / ln γ)，零值记为 {@link #ZERO_BUCKET}），数据库只返回每个桶的计数。
+ */
+public final class QuantileSketch {
+
+    /** 相对误差上限 */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+
+    /** ln γ，作为参数传给 SQL 中的分桶表达式 */
+    public static final double LN_GAMMA = Math.log(GAMMA);
+
+    /** 零值（及负值）所在的桶 */
+    public static final int ZERO_BUCKET = -1;
+
+    private long zeroCount;
+
+    private long[] counts = new long[0];
+
+    private long count;
+
+    /**
+     * 金额（分）所在的桶
+     */
+    public static int bucketOf(long cents) {
+        return cents <= 0 ? ZERO_BUCKET : (int) Math.ceil(Math.log(cents) / LN_GAMMA);
+    }
+
+    /**
+     * 记录一个金额（分）
+     */
+    public void add(long cents) {
+        addBucket(bucketOf(cents), 1);
+    }
+
+    /**
+     * 按桶累加计数
+     */
+    public void addBucket(int bucket, long n) {
+        if (n <= 0) {
+            return;
+        }
+        if (bucket < 0) {
+            zeroCount += n;
+        } else {
+            if (bucket >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+            }
+            counts[bucket] += n;
+        }
+        count += n;
+    }
+
+    /**
+     * 合并另一个草图
+     */
+    public void merge(QuantileSketch other) {
+        addBucket(ZERO_BUCKET, other.zeroCount);
+        for (int i = 0; i < other.counts.length; i++) {
+            addBucket(i, other.counts[i]);
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * 估计分位数 q（0 到 1），返回金额（分）；草图为空时返回 0
+     */
+    public long quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                // 桶 (γ^(i-1), γ^i] 的代表值，与桶内任意值的相对误差不超过 α
+                return Math.round(2 * Math.pow(GAMMA, i) / (GAMMA + 1));
+            }
+        }
+        return Math.round(2 * Math.pow(GAMMA, counts.length - 1) / (GAMMA + 1));
+    }
+}
@@ -0,0 +1,133 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.SpendingReportResponse;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.enums.ReportGroupBy;
+import com.ruoyi.backend.repository.ExpenseRepository;
+import com.ruoyi.backend.repository.ExpenseShareRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 报表服务
+ * <p>
+ * 求和、计数与分桶都在 SQL 的 GROUP BY 中完成，数据库只返回每个分组、每个金额桶一行；
+ * 分位数由各分组的 {@link QuantileSketch} 估计，总体分位数由分组草图合并得到（按用户分组时另按费用聚合）。
+ * 内存占用只与分组数和金额数量级有关，与时间范围内的记录数无关。
+ */
+@Service
+@Timed(value = "publicpay.service", description = "服务方法耗时", percentiles = {0.5, 0.95, 0.99}, histogram = true)
+public class ReportService {
+
+    private static final String UNCATEGORIZED = "未分类";
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+
+    private static final class GroupTotals {
+        private final Long id;
+        private final String name;
+        private final QuantileSketch sketch = new QuantileSketch();
+        private long cents;
+
+        private GroupTotals(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    /**
+     * 消费报表：from、to 均为包含在内的日期
+     */
+    @Transactional(readOnly = true)
+    public SpendingReportResponse getSpendingReport(LocalDate from, LocalDate to, ReportGroupBy groupBy) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("开始日期不能晚于结束日期");
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        List<Object[]> rows = switch (groupBy) {
+            case CATEGORY -> expenseRepository.aggregateByCategory(start, end, QuantileSketch.LN_GAMMA);
+            case USER -> expenseShareRepository.aggregateByUser(start, end, QuantileSketch.LN_GAMMA);
+            case MONTH -> expenseRepository.aggregateByMonth(start, end, QuantileSketch.LN_GAMMA);
+        };
+
+        // 每行为 [groupId, label, bucket, count, sum]，同一分组的各个桶合并到一个草图
+        Map<Long, GroupTotals> groups = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            Long id = row[0] != null ? ((Number) row[0]).longValue() : null;
+            GroupTotals totals = groups.computeIfAbsent(id, key -> new GroupTotals(key, groupName(groupBy, key, (String) row[1])));
+            totals.sketch.addBucket(((Number) row[2]).intValue(), ((Number) row[3]).longValue());
+            totals.cents += Money.toCents((BigDecimal) row[4]);
+        }
+
+        // 总体统计始终描述费用金额：按用户分组时各组是分摊金额，总体改由按月聚合的费用得到
+        QuantileSketch overall = new QuantileSketch();
+        long totalCents = 0;
+        if (groupBy == ReportGroupBy.USER) {
+            for (Object[] row : expenseRepository.aggregateByMonth(start, end, QuantileSketch.LN_GAMMA)) {
+                overall.addBucket(((Number) row[2]).intValue(), ((Number) row[3]).longValue());
+                totalCents += Money.toCents((BigDecimal) row[4]);
+            }
+        }
+        List<SpendingReportResponse.Group> groupResponses = new ArrayList<>(groups.size());
+        for (GroupTotals totals : groups.values()) {
+            if (groupBy != ReportGroupBy.USER) {
+                overall.merge(totals.sketch);
+                totalCents += totals.cents;
+            }
+
+            SpendingReportResponse.Group group = new SpendingReportResponse.Group();
+            group.setId(groupBy == ReportGroupBy.MONTH ? null : totals.id);
+            group.setName(totals.name);
+            group.setCount(totals.sketch.count());
+            group.setTotalAmount(Money.ofCents(totals.cents).toBigDecimal());
+            group.setP50(quantile(totals.sketch, 0.5));
+            group.setP90(quantile(totals.sketch, 0.9));
+            group.setP99(quantile(totals.sketch, 0.99));
+            groupResponses.add(group);
+        }
+        groupResponses.sort(groupBy == ReportGroupBy.MONTH
+                ? Comparator.comparing(SpendingReportResponse.Group::getName)
+                : Comparator.comparing(SpendingReportResponse.Group::getTotalAmount).reversed()
+                        .thenComparing(SpendingReportResponse.Group::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        SpendingReportResponse response = new SpendingReportResponse();
+        response.setGroupBy(groupBy);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setCount(overall.count());
+        response.setTotalAmount(Money.ofCents(totalCents).toBigDecimal());
+        response.setP50(quantile(overall, 0.5));
+        response.setP90(quantile(overall, 0.9));
+        response.setP99(quantile(overall, 0.99));
+        response.setGroups(groupResponses);
+        return response;
+    }
+
+    private static String groupName(ReportGroupBy groupBy, Long id, String label) {
+        if (groupBy == ReportGroupBy.MONTH) {
+            return String.format("%04d-%02d", id / 100, id % 100);
+        }
+        return Objects.requireNonNullElse(label, UNCATEGORIZED);
+    }
+
+    private static BigDecimal quantile(QuantileSketch sketch, double q) {
+        return Money.ofCents(sketch.quantile(q)).toBigDecimal();
+    }
+}
@@ -0,0 +1,253 @@
+package com.ruoyi.backend.service;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * 结算计算器（"谁付给谁"）
+ * <p>
+ * 所有金额均为整数分，用户以 0..userCount-1 的稠密下标表示，内部只使用基本类型数组：
+ * <ol>
+ *     <li>每笔未支付分摊按各付款人的付款金额比例拆分给付款人（最大余数法，保证拆分后总和不变），
+ *     累加得到每个用户的净额；</li>
+ *     <li>将债权人与债务人分别按金额从大到小排序，贪心配对生成转账，转账笔数不超过
+ *     债权人数 + 债务人数 - 1。</li>
+ * </ol>
+ * 付款记录采用 CSR 布局：第 e 笔费用的付款位于 [paymentOffsets[e], paymentOffsets[e + 1])。
+ */
+public final class SettlementCalculator {
+
+    /** 打包排序键时金额与下标各自可用的位数 */
+    private static final int INDEX_BITS = 22;
+    private static final long MAX_PACKED_AMOUNT = 1L << (Long.SIZE - 1 - INDEX_BITS);
+
+    private SettlementCalculator() {
+    }
+
+    /**
+     * 计算每个用户的净额（正数为应收，负数为应付）
+     *
+     * @param userCount      用户数
+     * @param paymentOffsets 每笔费用付款的起始下标，长度为费用数 + 1
+     * @param paymentUsers   付款人下标
+     * @param paymentCents   付款金额（分）
+     * @param shareExpenses  分摊所属费用下标，-1 表示该费用没有付款记录
+     * @param shareUsers     分摊用户下标
+     * @param shareCents     分摊金额（分）
+     * @param shareCount     有效分摊条数
+     */
+    public static long[] netBalances(int userCount,
+                                     int[] paymentOffsets, int[] paymentUsers, long[] paymentCents,
+                                     int[] shareExpenses, int[] shareUsers, long[] shareCents, int shareCount) {
+        int expenseCount = paymentOffsets.length - 1;
+        long[] expenseTotals = new long[expenseCount];
+        int maxPayers = 0;
+        for (int e = 0; e < expenseCount; e++) {
+            long total = 0;
+            for (int p = paymentOffsets[e]; p < paymentOffsets[e + 1]; p++) {
+                total += paymentCents[p];
+            }
+            expenseTotals[e] = total;
+            maxPayers = Math.max(maxPayers, paymentOffsets[e + 1] - paymentOffsets[e]);
+        }
+
+        long[] net = new long[userCount];
+        long[] portions = new long[maxPayers];
+        long[] remainders = new long[maxPayers];
+
+        for (int s = 0; s < shareCount; s++) {
+            int e = shareExpenses[s];
+            if (e < 0 || expenseTotals[e] <= 0) {
+                continue;
+            }
+            int debtor = shareUsers[s];
+            int from = paymentOffsets[e];
+            int payers = paymentOffsets[e + 1] - from;
+
+            if (payers == 1) {
+                transfer(net, debtor, paymentUsers[from], shareCents[s]);
+                continue;
+            }
+
+            allocate(shareCents[s], paymentCents, from, payers, expenseTotals[e], portions, remainders);
+            for (int i = 0; i < payers; i++) {
+                transfer(net, debtor, paymentUsers[from + i], portions[i]);
+            }
+        }
+        return net;
+    }
+
+    /**
+     * 根据净额生成最少化的转账方案
+     */
+    public static Transfers simplify(long[] net) {
+        int creditorCount = 0;
+        int debtorCount = 0;
+        for (long amount : net) {
+            if (amount > 0) {
+                creditorCount++;
+            } else if (amount < 0) {
+                debtorCount++;
+            }
+        }
+
+        int[] creditors = new int[creditorCount];
+        int[] debtors = new int[debtorCount];
+        long[] credit = new long[creditorCount];
+        long[] debt = new long[debtorCount];
+        int c = 0;
+        int d = 0;
+        for (int u = 0; u < net.length; u++) {
+            if (net[u] > 0) {
+                creditors[c++] = u;
+            } else if (net[u] < 0) {
+                debtors[d++] = u;
+            }
+        }
+        sortByAmountDesc(creditors, net, false);
+        sortByAmountDesc(debtors, net, true);
+        for (int i = 0; i < creditorCount; i++) {
+            credit[i] = net[creditors[i]];
+        }
+        for (int i = 0; i < debtorCount; i++) {
+            debt[i] = -net[debtors[i]];
+        }
+
+        Transfers transfers = new Transfers(Math.max(0, creditorCount + debtorCount - 1));
+        c = 0;
+        d = 0;
+        while (c < creditorCount && d < debtorCount) {
+            long amount = Math.min(credit[c], debt[d]);
+            transfers.add(debtors[d], creditors[c], amount);
+            credit[c] -= amount;
+            debt[d] -= amount;
+            if (credit[c] == 0) {
+                c++;
+            }
+            if (debt[d] == 0) {
+                d++;
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * 按付款比例拆分一笔分摊，结果写入 portions 的前 payers 个元素
+     */
+    private static void allocate(long cents, long[] paymentCents, int from, int payers, long total,
+                                 long[] portions, long[] remainders) {
+        long allocated = 0;
+        for (int i = 0; i < payers; i++) {
+            long paid = paymentCents[from + i];
+            long high = Math.multiplyHigh(cents, paid);
+            long low = cents * paid;
+            if (high == 0 && low >= 0) {
+                portions[i] = low / total;
+                remainders[i] = low % total;
+            } else {
+                BigInteger[] qr = BigInteger.valueOf(cents).multiply(BigInteger.valueOf(paid))
+                        .divideAndRemainder(BigInteger.valueOf(total));
+                portions[i] = qr[0].longValue();
+                remainders[i] = qr[1].longValue();
+            }
+            allocated += portions[i];
+        }
+
+        // 剩余的分按余数从大到小逐个补足，余数相同时先到先得
+        for (long left = cents - allocated; left > 0; left--) {
+            int best = 0;
+            for (int i = 1; i < payers; i++) {
+                if (remainders[i] > remainders[best]) {
+                    best = i;
+                }
+            }
+            portions[best]++;
+            remainders[best] = -1;
+        }
+    }
+
+    private static void transfer(long[] net, int debtor, int creditor, long cents) {
+        if (debtor != creditor && cents != 0) {
+            net[creditor] += cents;
+            net[debtor] -= cents;
+        }
+    }
+
+    /**
+     * 按金额绝对值从大到小排序用户下标；金额和下标可打包时使用 long 数组排序避免装箱
+     */
+    private static void sortByAmountDesc(int[] users, long[] net, boolean negate) {
+        if (users.length < 2) {
+            return;
+        }
+        long max = 0;
+        for (int u : users) {
+            max = Math.max(max, negate ? -net[u] : net[u]);
+        }
+        if (max < MAX_PACKED_AMOUNT && net.length <= (1 << INDEX_BITS)) {
+            long[] keys = new long[users.length];
+            for (int i = 0; i < users.length; i++) {
+                long amount = negate ? -net[users[i]] : net[users[i]];
+                keys[i] = (amount << INDEX_BITS) | users[i];
+            }
+            Arrays.sort(keys);
+            long mask = (1L << INDEX_BITS) - 1;
+            for (int i = 0; i < users.length; i++) {
+                users[i] = (int) (keys[users.length - 1 - i] & mask);
+            }
+            return;
+        }
+        int[] sorted = IntStream.of(users).boxed()
+                .sorted(Comparator.comparingLong((Integer u) -> negate ? -net[u] : net[u]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        System.arraycopy(sorted, 0, users, 0, users.length);
+    }
+
+    /**
+     * 转账结果（债务人下标 → 债权人下标，金额为分）
+     */
+    public static final class Transfers {
+
+        private int[] from;
+        private int[] to;
+        private long[] cents;
+        private int size;
+
+        Transfers(int capacity) {
+            from = new int[Math.max(capacity, 1)];
+            to = new int[from.length];
+            cents = new long[from.length];
+        }
+
+        void add(int debtor, int creditor, long amount) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                cents = Arrays.copyOf(cents, size * 2);
+            }
+            from[size] = debtor;
+            to[size] = creditor;
+            cents[size] = amount;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int from(int i) {
+            return from[i];
+        }
+
+        public int to(int i) {
+            return to[i];
+        }
+
+        public long cents(int i) {
+            return cents[i];
+        }
+    }
+}
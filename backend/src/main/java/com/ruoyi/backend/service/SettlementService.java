@@ -0,0 +1,202 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ChangeEvent;
+import com.ruoyi.backend.dto.SettleRequest;
+import com.ruoyi.backend.dto.SettlementPlanResponse;
+import com.ruoyi.backend.dto.SettlementResponse;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.entity.Settlement;
+import com.ruoyi.backend.entity.User;
+import com.ruoyi.backend.repository.ExpensePaymentRepository;
+import com.ruoyi.backend.repository.ExpenseRepository;
+import com.ruoyi.backend.repository.ExpenseShareRepository;
+import com.ruoyi.backend.repository.SettlementRepository;
+import com.ruoyi.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 结算服务：根据未支付分摊生成"谁付给谁"的最少转账方案，并批量结清分摊
+ */
+@Service
+public class SettlementService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpensePaymentRepository expensePaymentRepository;
+
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private BalanceLedgerService ledgerService;
+
+    @Autowired
+    private ParallelReads parallelReads;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 生成结算方案
+     * <p>
+     * 用户、未支付付款与未支付分摊三个查询相互独立，虚拟线程模式下并发执行。
+     */
+    public SettlementPlanResponse getSettlementPlan() {
+        return parallelReads.run(scope -> {
+            Supplier<List<User>> users = scope.fork(userRepository::findAll);
+            Supplier<List<Object[]>> paymentRows = scope.fork(expensePaymentRepository::findAmountsForUnpaidExpenses);
+            Supplier<List<Object[]>> shareRows = scope.fork(expenseShareRepository::findUnpaidAmounts);
+            scope.join();
+            return buildPlan(users.get(), paymentRows.get(), shareRows.get());
+        });
+    }
+
+    /**
+     * 批量结清：以一条条件 UPDATE 将匹配的未支付分摊标记为已支付，并生成结算记录
+     * <p>
+     * UPDATE 只匹配 is_paid = false 的行并写入本次的结算记录ID。并发的两次结清在行锁上串行化，
+     * 后执行的一方重新判断条件时看不到已被结清的行；台账增量只按带有本次结算记录ID的行计算，
+     * 因此同一分摊不会被重复扣减。
+     */
+    @Transactional
+    public SettlementResponse settle(SettleRequest request) {
+        List<Long> shareIds = request.getShareIds() == null ? List.of() : request.getShareIds();
+        if (request.getDebtorId() == null && request.getCreditorId() == null && shareIds.isEmpty()) {
+            throw new RuntimeException("请指定债务人、债权人或分摊ID");
+        }
+        if (request.getDebtorId() != null && request.getDebtorId().equals(request.getCreditorId())) {
+            throw new RuntimeException("债务人与债权人不能相同");
+        }
+
+        // 先递增所涉费用的版本号并锁住费用行，再结清其中的分摊：与修改费用的加锁顺序一致，
+        // 持有旧版本号或已读取分摊的并发修改不会把已结清的分摊改回未支付
+        List<Long> filterIds = shareIds.isEmpty() ? List.of(0L) : shareIds;
+        List<Long> expenseIds = expenseShareRepository.findUnpaidExpenseIds(request.getDebtorId(), request.getCreditorId(),
+                !shareIds.isEmpty(), filterIds);
+        if (!expenseIds.isEmpty()) {
+            expenseRepository.incrementVersion(expenseIds);
+        }
+
+        // 池化序列分配ID时不立即 INSERT，条数与金额在 UPDATE 后回填，提交时一次写入
+        Settlement settlement = new Settlement();
+        settlement.setDebtorId(request.getDebtorId());
+        settlement.setCreditorId(request.getCreditorId());
+        settlementRepository.save(settlement);
+
+        int settled = expenseIds.isEmpty() ? 0 : expenseShareRepository.settleUnpaid(settlement.getId(), expenseIds,
+                request.getDebtorId(), request.getCreditorId(), !shareIds.isEmpty(), filterIds, LocalDateTime.now());
+        if (settled == 0) {
+            settlementRepository.delete(settlement);
+            return toResponse(settlement, null);
+        }
+
+        BalanceLedgerService.Delta delta = new BalanceLedgerService.Delta();
+        Set<Long> userIds = new LinkedHashSet<>();
+        long totalCents = 0;
+        for (Object[] row : expenseShareRepository.findAmountsBySettlementId(settlement.getId())) {
+            long cents = ((Money) row[1]).cents();
+            delta.owed((Long) row[0], -cents);
+            userIds.add((Long) row[0]);
+            totalCents += cents;
+        }
+        ledgerService.apply(delta);
+
+        settlement.setShareCount(settled);
+        settlement.setAmount(Money.ofCents(totalCents));
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.settlement(settlement.getId(), userIds));
+        return toResponse(settlement, settlement.getId());
+    }
+
+    private SettlementResponse toResponse(Settlement settlement, Long id) {
+        SettlementResponse response = new SettlementResponse();
+        response.setId(id);
+        response.setDebtorId(settlement.getDebtorId());
+        response.setCreditorId(settlement.getCreditorId());
+        response.setSettledShares(settlement.getShareCount());
+        response.setAmount(settlement.getAmount().toBigDecimal());
+        response.setCreatedAt(settlement.getCreatedAt());
+        return response;
+    }
+
+    private SettlementPlanResponse buildPlan(List<User> users, List<Object[]> paymentRows, List<Object[]> shareRows) {
+        Map<Long, Integer> userIndex = new HashMap<>(users.size() * 2);
+        for (int i = 0; i < users.size(); i++) {
+            userIndex.put(users.get(i).getId(), i);
+        }
+
+        // 付款记录按费用ID有序，直接构建 CSR 布局
+        Map<Long, Integer> expenseIndex = new HashMap<>();
+        int[] paymentOffsets = new int[paymentRows.size() + 1];
+        int[] paymentUsers = new int[paymentRows.size()];
+        long[] paymentCents = new long[paymentRows.size()];
+        int expenseCount = 0;
+        for (int p = 0; p < paymentRows.size(); p++) {
+            Object[] row = paymentRows.get(p);
+            if (expenseIndex.putIfAbsent((Long) row[0], expenseCount) == null) {
+                paymentOffsets[expenseCount++] = p;
+            }
+            paymentUsers[p] = userIndex.get((Long) row[1]);
+            paymentCents[p] = ((Money) row[2]).cents();
+        }
+        paymentOffsets[expenseCount] = paymentRows.size();
+
+        int[] shareExpenses = new int[shareRows.size()];
+        int[] shareUsers = new int[shareRows.size()];
+        long[] shareCents = new long[shareRows.size()];
+        for (int s = 0; s < shareRows.size(); s++) {
+            Object[] row = shareRows.get(s);
+            shareExpenses[s] = expenseIndex.getOrDefault((Long) row[0], -1);
+            shareUsers[s] = userIndex.get((Long) row[1]);
+            shareCents[s] = ((Money) row[2]).cents();
+        }
+
+        long[] net = SettlementCalculator.netBalances(users.size(),
+                Arrays.copyOf(paymentOffsets, expenseCount + 1), paymentUsers, paymentCents,
+                shareExpenses, shareUsers, shareCents, shareRows.size());
+        SettlementCalculator.Transfers transfers = SettlementCalculator.simplify(net);
+
+        SettlementPlanResponse response = new SettlementPlanResponse();
+        List<SettlementPlanResponse.Transfer> transferResponses = new ArrayList<>(transfers.size());
+        long totalCents = 0;
+        for (int i = 0; i < transfers.size(); i++) {
+            User from = users.get(transfers.from(i));
+            User to = users.get(transfers.to(i));
+            SettlementPlanResponse.Transfer transfer = new SettlementPlanResponse.Transfer();
+            transfer.setFromUserId(from.getId());
+            transfer.setFromUserName(from.getName());
+            transfer.setToUserId(to.getId());
+            transfer.setToUserName(to.getName());
+            transfer.setAmount(Money.ofCents(transfers.cents(i)).toBigDecimal());
+            transferResponses.add(transfer);
+            totalCents += transfers.cents(i);
+        }
+        response.setTransfers(transferResponses);
+        response.setTotalAmount(Money.ofCents(totalCents).toBigDecimal());
+        return response;
+    }
+}
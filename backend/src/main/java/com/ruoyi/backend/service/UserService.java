@@ -1,9 +1,16 @@
 package com.ruoyi.backend.service;
 
+import com.ruoyi.backend.dto.ChangeEvent;
 import com.ruoyi.backend.entity.User;
+import com.ruoyi.backend.enums.ChangeType;
+import com.ruoyi.backend.enums.ResponseEncoding;
 import com.ruoyi.backend.repository.UserRepository;
+import com.ruoyi.backend.service.ListResponseCache.CachedList;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,11 +19,24 @@ import java.util.Optional;
  * 用户服务类
  */
 @Service
+@Timed(value = "publicpay.service", description = "服务方法耗时", percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class UserService {
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private BalanceLedgerService ledgerService;
+    
+    @Autowired
+    private ListResponseCache responseCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private DataVersion dataVersion;
+    
     /**
      * 创建用户
      */
@@ -27,7 +47,11 @@ public class UserService {
         
         User user = new User();
         user.setName(name);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        responseCache.invalidate(CachedList.USERS);
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.user(ChangeType.USER_CREATED, savedUser.getId()));
+        return savedUser;
     }
     
     /**
@@ -37,6 +61,13 @@ public class UserService {
         return userRepository.findAll();
     }
     
+    /**
+     * 获取所有用户（按指定编码序列化后的字节，优先读缓存）
+     */
+    public byte[] getAllUsersEncoded(ResponseEncoding encoding) {
+        return responseCache.get(CachedList.USERS, encoding, this::getAllUsers);
+    }
+    
     /**
      * 根据ID获取用户
      */
@@ -63,16 +94,25 @@ public class UserService {
         }
         
         user.setName(name);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        responseCache.invalidate(CachedList.USERS);
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.user(ChangeType.USER_UPDATED, id));
+        return savedUser;
     }
     
     /**
      * 删除用户
      */
+    @Transactional
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new RuntimeException("用户不存在: " + id);
         }
         userRepository.deleteById(id);
+        ledgerService.removeUser(id);
+        responseCache.invalidate(CachedList.USERS);
+        dataVersion.bump();
+        eventPublisher.publishEvent(ChangeEvent.user(ChangeType.USER_DELETED, id));
     }
 }
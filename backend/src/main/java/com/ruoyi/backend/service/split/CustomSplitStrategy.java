@@ -0,0 +1,70 @@
+package com.ruoyi.backend.service.split;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.entity.Money;
+import com.ruoyi.backend.enums.SplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自定义分摊：指定了金额的参与者按指定金额分摊，其余参与者平均分摊剩余金额
+ * <p>
+ * 指定金额合计超过费用金额，或所有参与者都指定了金额但合计与费用金额不一致时拒绝。
+ */
+@Component
+public class CustomSplitStrategy implements SplitStrategy {
+
+    @Override
+    public SplitType type() {
+        return SplitType.CUSTOM;
+    }
+
+    @Override
+    public BigDecimal parameter(ExpenseRequest.CustomShareRequest customShare) {
+        return customShare.getAmount();
+    }
+
+    @Override
+    public long[] split(long totalCents, List<Long> userIds, Map<Long, BigDecimal> parameters) {
+        long[] shares = new long[userIds.size()];
+        long specified = 0;
+        int unspecified = 0;
+        for (int i = 0; i < shares.length; i++) {
+            BigDecimal amount = parameters.get(userIds.get(i));
+            if (amount == null) {
+                shares[i] = -1;
+                unspecified++;
+                continue;
+            }
+            if (amount.signum() < 0) {
+                throw new RuntimeException("分摊金额不能为负数: 用户 " + userIds.get(i));
+            }
+            shares[i] = Money.toCents(amount);
+            specified = Math.addExact(specified, shares[i]);
+        }
+
+        long rest = totalCents - specified;
+        if (rest < 0) {
+            throw new RuntimeException("自定义分摊金额合计超过费用金额");
+        }
+        if (unspecified == 0) {
+            if (rest != 0) {
+                throw new RuntimeException("自定义分摊金额合计与费用金额不一致");
+            }
+            return shares;
+        }
+
+        // 未指定金额的参与者平均分摊剩余金额，多出的分依次给排在前面的参与者
+        long base = rest / unspecified;
+        long extra = rest % unspecified;
+        for (int i = 0; i < shares.length; i++) {
+            if (shares[i] < 0) {
+                shares[i] = extra-- > 0 ? base + 1 : base;
+            }
+        }
+        return shares;
+    }
+}
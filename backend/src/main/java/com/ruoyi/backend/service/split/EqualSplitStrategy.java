@@ -0,0 +1,25 @@
+package com.ruoyi.backend.service.split;
+
+import com.ruoyi.backend.enums.SplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 平均分摊：各参与者金额相差不超过 1 分，多出的分依次给排在前面的参与者
+ */
+@Component
+public class EqualSplitStrategy implements SplitStrategy {
+
+    @Override
+    public SplitType type() {
+        return SplitType.EQUAL;
+    }
+
+    @Override
+    public long[] split(long totalCents, List<Long> userIds, Map<Long, BigDecimal> parameters) {
+        return LargestRemainder.equal(totalCents, userIds.size());
+    }
+}
@@ -0,0 +1,155 @@
+package com.ruoyi.backend.service.split;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * 最大余数法（Hamilton 法）分配整数分
+ * <p>
+ * 每人先得 floor(总额 × 权重 / 权重合计)，剩余的 k 分（k 小于人数）给余数最大的 k 个人，余数相同时先到先得。
+ * 结果合计恰好等于总额，且每人与精确份额相差不足 1 分。
+ * <p>
+ * 第 k 大的余数用三路划分的快速选择求出，整体 O(n)，只分配结果与余数两个 long 数组；
+ * 总额 × 权重超出 long 范围时退回 BigInteger 计算。
+ */
+final class LargestRemainder {
+
+    private LargestRemainder() {
+    }
+
+    /**
+     * 平均分配：每人 totalCents / count，前 totalCents % count 人各多 1 分
+     */
+    static long[] equal(long totalCents, int count) {
+        long[] shares = new long[count];
+        if (count == 0) {
+            return shares;
+        }
+        long base = totalCents / count;
+        long extra = totalCents % count;
+        for (int i = 0; i < count; i++) {
+            shares[i] = i < extra ? base + 1 : base;
+        }
+        return shares;
+    }
+
+    /**
+     * 按权重比例分配
+     *
+     * @param totalCents 非负的总额（分）
+     * @param weights    非负权重，合计必须大于 0
+     */
+    static long[] proportional(long totalCents, long[] weights) {
+        int n = weights.length;
+        long weightSum = 0;
+        for (long weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("权重不能为负数");
+            }
+            weightSum = Math.addExact(weightSum, weight);
+        }
+        if (weightSum == 0) {
+            throw new IllegalArgumentException("权重合计必须大于0");
+        }
+
+        long[] shares = new long[n];
+        long[] remainders = new long[n];
+        long allocated = 0;
+        for (int i = 0; i < n; i++) {
+            long high = Math.multiplyHigh(totalCents, weights[i]);
+            long low = totalCents * weights[i];
+            if (high == 0 && low >= 0) {
+                shares[i] = low / weightSum;
+                remainders[i] = low % weightSum;
+            } else {
+                BigInteger[] qr = BigInteger.valueOf(totalCents).multiply(BigInteger.valueOf(weights[i]))
+                        .divideAndRemainder(BigInteger.valueOf(weightSum));
+                shares[i] = qr[0].longValueExact();
+                remainders[i] = qr[1].longValue();
+            }
+            allocated += shares[i];
+        }
+
+        int left = (int) (totalCents - allocated);
+        if (left == 0) {
+            return shares;
+        }
+
+        // 选出第 left 大的余数作为门槛（remainders 被重排），大于门槛的都补 1 分，等于门槛的按顺序补足剩余名额
+        long threshold = select(remainders, n - left);
+        int ties = left;
+        for (long remainder : remainders) {
+            if (remainder > threshold) {
+                ties--;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            long remainder = remainder(totalCents, weights[i], weightSum);
+            if (remainder > threshold) {
+                shares[i]++;
+            } else if (remainder == threshold && ties > 0) {
+                shares[i]++;
+                ties--;
+            }
+        }
+        return shares;
+    }
+
+    private static long remainder(long totalCents, long weight, long weightSum) {
+        long high = Math.multiplyHigh(totalCents, weight);
+        long low = totalCents * weight;
+        if (high == 0 && low >= 0) {
+            return low % weightSum;
+        }
+        return BigInteger.valueOf(totalCents).multiply(BigInteger.valueOf(weight))
+                .mod(BigInteger.valueOf(weightSum)).longValue();
+    }
+
+    /**
+     * 返回升序排列后下标为 k 的元素，会重排 values
+     * <p>
+     * 三路划分使大量相同余数（例如权重全部相等）时也是线性；划分轮数超过 2·log₂n 时退化为排序剩余区间。
+     */
+    static long select(long[] values, int k) {
+        int lo = 0;
+        int hi = values.length - 1;
+        int budget = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(values.length));
+        while (lo < hi) {
+            if (budget-- == 0) {
+                Arrays.sort(values, lo, hi + 1);
+                return values[k];
+            }
+            long pivot = median(values[lo], values[(lo + hi) >>> 1], values[hi]);
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                if (values[i] < pivot) {
+                    swap(values, lt++, i++);
+                } else if (values[i] > pivot) {
+                    swap(values, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return pivot;
+            }
+        }
+        return values[k];
+    }
+
+    private static long median(long a, long b, long c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(long[] values, int i, int j) {
+        long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ruoyi.backend.service.split;
+
+import com.ruoyi.backend.enums.SplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+
+/**
+ * 按比例分摊：每位参与者给出百分比（最多 6 位小数），合计必须恰好为 100
+ */
+@Component
+public class PercentageSplitStrategy extends ProportionalSplitStrategy {
+
+    @Override
+    public SplitType type() {
+        return SplitType.PERCENTAGE;
+    }
+
+    @Override
+    String label() {
+        return "分摊比例";
+    }
+
+    @Override
+    void checkTotal(long scaledTotal, int scale) {
+        if (scaledTotal != 100 * BigInteger.TEN.pow(scale).longValue()) {
+            throw new RuntimeException("分摊比例合计必须为 100%");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ruoyi.backend.service.split;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按比例分配的分摊策略基类：把各参与者的小数参数放大为同一精度的整数权重，再按最大余数法分配
+ */
+abstract class ProportionalSplitStrategy implements SplitStrategy {
+
+    /** 参数最多保留的小数位数 */
+    static final int MAX_SCALE = 6;
+
+    /**
+     * 参数名称，用于错误信息
+     */
+    abstract String label();
+
+    /**
+     * 校验放大后的参数合计（实际合计 × 10^scale）
+     */
+    abstract void checkTotal(long scaledTotal, int scale);
+
+    @Override
+    public long[] split(long totalCents, List<Long> userIds, Map<Long, BigDecimal> parameters) {
+        int scale = 0;
+        for (Long userId : userIds) {
+            BigDecimal value = parameters.get(userId);
+            if (value == null) {
+                throw new RuntimeException("缺少" + label() + ": 用户 " + userId);
+            }
+            if (value.signum() < 0) {
+                throw new RuntimeException(label() + "不能为负数: 用户 " + userId);
+            }
+            int valueScale = value.scale() > MAX_SCALE ? value.stripTrailingZeros().scale() : value.scale();
+            if (valueScale > MAX_SCALE) {
+                throw new RuntimeException(label() + "最多保留 " + MAX_SCALE + " 位小数: 用户 " + userId);
+            }
+            scale = Math.max(scale, valueScale);
+        }
+
+        long[] weights = new long[userIds.size()];
+        long scaledTotal = 0;
+        try {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = parameters.get(userIds.get(i)).movePointRight(scale).longValueExact();
+                scaledTotal = Math.addExact(scaledTotal, weights[i]);
+            }
+        } catch (ArithmeticException e) {
+            throw new RuntimeException(label() + "过大");
+        }
+        checkTotal(scaledTotal, scale);
+        return LargestRemainder.proportional(totalCents, weights);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ruoyi.backend.service.split;
+
+import com.ruoyi.backend.enums.SplitType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按分摊类型查找分摊策略；启动时校验每种类型恰好有一个实现
+ */
+@Component
+public class SplitStrategies {
+
+    private final Map<SplitType, SplitStrategy> strategies = new EnumMap<>(SplitType.class);
+
+    public SplitStrategies(List<SplitStrategy> strategies) {
+        for (SplitStrategy strategy : strategies) {
+            SplitStrategy previous = this.strategies.put(strategy.type(), strategy);
+            if (previous != null) {
+                throw new IllegalStateException("分摊类型 " + strategy.type() + " 存在多个策略: "
+                        + previous.getClass().getSimpleName() + ", " + strategy.getClass().getSimpleName());
+            }
+        }
+        for (SplitType type : SplitType.values()) {
+            if (!this.strategies.containsKey(type)) {
+                throw new IllegalStateException("分摊类型 " + type + " 缺少策略");
+            }
+        }
+    }
+
+    /**
+     * 不依赖 Spring 容器时使用的默认策略集合
+     */
+    public static SplitStrategies defaults() {
+        return new SplitStrategies(List.of(new EqualSplitStrategy(), new CustomSplitStrategy(),
+                new PercentageSplitStrategy(), new WeightedSplitStrategy()));
+    }
+
+    public SplitStrategy get(SplitType type) {
+        return strategies.get(type);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ruoyi.backend.service.split;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.enums.SplitType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分摊策略：把费用金额（分）分配给参与者
+ * <p>
+ * 每种 {@link SplitType} 对应一个实现，由 {@link SplitStrategies} 按类型查找。
+ * 实现必须无状态、线程安全，结果合计恰好等于费用金额，不足 1 分的部分按最大余数法分配（见 {@link LargestRemainder}）。
+ */
+public interface SplitStrategy {
+
+    /**
+     * 对应的分摊类型
+     */
+    SplitType type();
+
+    /**
+     * 从自定义分摊请求中取出本策略使用的参数，默认为比例或权重
+     */
+    default BigDecimal parameter(ExpenseRequest.CustomShareRequest customShare) {
+        return customShare.getWeight();
+    }
+
+    /**
+     * 计算各参与者的分摊金额
+     *
+     * @param totalCents 费用金额（分）
+     * @param userIds    参与者，顺序即余数相同时的分配顺序
+     * @param parameters 各参与者的分摊参数（见 {@link #parameter}），未提供的参与者不在其中
+     * @return 与 userIds 顺序一致的分摊金额（分），合计等于 totalCents
+     */
+    long[] split(long totalCents, List<Long> userIds, Map<Long, BigDecimal> parameters);
+}
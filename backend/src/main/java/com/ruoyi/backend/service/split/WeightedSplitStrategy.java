@@ -0,0 +1,28 @@
+package com.ruoyi.backend.service.split;
+
+import com.ruoyi.backend.enums.SplitType;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按权重分摊：每位参与者给出非负权重（例如人数、天数），按权重占合计的比例分摊
+ */
+@Component
+public class WeightedSplitStrategy extends ProportionalSplitStrategy {
+
+    @Override
+    public SplitType type() {
+        return SplitType.WEIGHTED;
+    }
+
+    @Override
+    String label() {
+        return "分摊权重";
+    }
+
+    @Override
+    void checkTotal(long scaledTotal, int scale) {
+        if (scaledTotal == 0) {
+            throw new RuntimeException("分摊权重合计必须大于0");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+-- 基线表结构（H2，测试环境使用；与 mysql/V1 保持同步）
+
+create sequence users_seq start with 1 increment by 50;
+create sequence expense_categories_seq start with 1 increment by 50;
+create sequence expenses_seq start with 1 increment by 50;
+create sequence expense_payments_seq start with 1 increment by 50;
+create sequence expense_shares_seq start with 1 increment by 50;
+create sequence settlements_seq start with 1 increment by 50;
+
+create table users (
+    id bigint not null,
+    name varchar(255) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_users_name unique (name)
+);
+
+create table expense_categories (
+    id bigint not null,
+    name varchar(255) not null,
+    description varchar(500),
+    is_default boolean,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_expense_categories_name unique (name)
+);
+
+create table expenses (
+    id bigint not null,
+    description varchar(255) not null,
+    amount numeric(10,2) not null,
+    category_id bigint,
+    split_type enum ('CUSTOM','EQUAL') not null,
+    expense_date timestamp(6),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    version bigint not null,
+    primary key (id),
+    constraint fk_expenses_category foreign key (category_id) references expense_categories (id)
+);
+
+create table expense_payments (
+    id bigint not null,
+    expense_id bigint not null,
+    payer_id bigint not null,
+    amount numeric(10,2) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_expense_payments_expense foreign key (expense_id) references expenses (id),
+    constraint fk_expense_payments_payer foreign key (payer_id) references users (id)
+);
+
+create table expense_shares (
+    id bigint not null,
+    expense_id bigint not null,
+    user_id bigint not null,
+    amount numeric(10,2) not null,
+    custom_amount numeric(10,2),
+    is_paid boolean,
+    settlement_id bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_expense_shares_expense foreign key (expense_id) references expenses (id),
+    constraint fk_expense_shares_user foreign key (user_id) references users (id)
+);
+
+create table user_ledgers (
+    user_id bigint not null,
+    total_paid numeric(14,2) not null,
+    total_owed numeric(14,2) not null,
+    updated_at timestamp(6),
+    primary key (user_id)
+);
+
+create table settlements (
+    id bigint not null,
+    debtor_id bigint,
+    creditor_id bigint,
+    share_count integer not null,
+    amount numeric(14,2) not null,
+    created_at timestamp(6),
+    primary key (id)
+);
+
+create table idempotency_keys (
+    idempotency_key varchar(100) not null,
+    fingerprint varchar(64) not null,
+    response_body clob not null,
+    created_at timestamp(6),
+    expires_at timestamp(6) not null,
+    primary key (idempotency_key)
+);
@@ -0,0 +1,29 @@
+-- 按仓库查询建立的索引；每个索引注明服务的查询（与 mysql/V2 保持同步）
+
+-- 游标分页 ORDER BY expense_date DESC, id DESC（按降序建立，顺序读取即为分页顺序）；
+-- 按日期范围的报表聚合（含 category_id、amount，覆盖索引）
+create index idx_expenses_date_id on expenses (expense_date desc, id desc, category_id, amount);
+-- 外键
+create index idx_expenses_category on expenses (category_id);
+
+-- findByExpenseId / deleteByExpenseId / findRowsByExpenseIdIn；按用户报表中与费用的连接（覆盖 user_id、amount）
+create index idx_expense_shares_expense on expense_shares (expense_id, user_id, amount);
+-- findByUserId / findUnpaidByUserId（user_id + is_paid）
+create index idx_expense_shares_user_paid on expense_shares (user_id, is_paid);
+-- 全部未支付分摊：按用户汇总、未支付金额、未支付费用子查询、批量结清（覆盖索引）
+create index idx_expense_shares_unpaid on expense_shares (is_paid, user_id, expense_id, amount);
+-- findAmountsBySettlementId
+create index idx_expense_shares_settlement on expense_shares (settlement_id);
+
+-- findByExpenseId / deleteByExpenseId / findRowsByExpenseIdIn；未支付费用的付款（覆盖 payer_id、amount）
+create index idx_expense_payments_expense on expense_payments (expense_id, payer_id, amount);
+-- findByPayerId；按付款人汇总（覆盖 amount）；批量结清的债权人条件
+create index idx_expense_payments_payer on expense_payments (payer_id, amount);
+
+-- findByIsDefaultTrue
+create index idx_expense_categories_default on expense_categories (is_default);
+-- findAllByOrderByCreatedAtAsc
+create index idx_expense_categories_created on expense_categories (created_at);
+
+-- 过期记录清理
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
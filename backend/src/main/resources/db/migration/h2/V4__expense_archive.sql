@@ -0,0 +1,58 @@
+-- 已结清费用的归档表（列与热表一致，另记录归档时间；与 mysql/V4 保持同步）
+
+create table expenses_archive (
+    id bigint not null,
+    description varchar(255) not null,
+    amount decimal(10,2) not null,
+    category_id bigint,
+    split_type enum ('CUSTOM','EQUAL') not null,
+    expense_date timestamp(6),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    version bigint not null,
+    archived_at timestamp(6) not null,
+    primary key (id),
+    constraint fk_expenses_archive_category foreign key (category_id) references expense_categories (id)
+);
+
+create table expense_payments_archive (
+    id bigint not null,
+    expense_id bigint not null,
+    payer_id bigint not null,
+    amount decimal(10,2) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_expense_payments_archive_expense foreign key (expense_id) references expenses_archive (id),
+    constraint fk_expense_payments_archive_payer foreign key (payer_id) references users (id)
+);
+
+create table expense_shares_archive (
+    id bigint not null,
+    expense_id bigint not null,
+    user_id bigint not null,
+    amount decimal(10,2) not null,
+    custom_amount decimal(10,2),
+    is_paid boolean,
+    settlement_id bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_expense_shares_archive_expense foreign key (expense_id) references expenses_archive (id),
+    constraint fk_expense_shares_archive_user foreign key (user_id) references users (id)
+);
+
+-- 消费报表按日期范围聚合（覆盖 category_id、amount）
+create index idx_expenses_archive_date on expenses_archive (expense_date, category_id, amount);
+-- 外键
+create index idx_expenses_archive_category on expenses_archive (category_id);
+
+-- 详情回查；按用户报表中与费用的连接（覆盖 user_id、amount）
+create index idx_expense_shares_archive_expense on expense_shares_archive (expense_id, user_id, amount);
+-- 外键
+create index idx_expense_shares_archive_user on expense_shares_archive (user_id);
+
+-- 详情回查
+create index idx_expense_payments_archive_expense on expense_payments_archive (expense_id);
+-- 重建台账时按付款人汇总（覆盖 amount）；外键
+create index idx_expense_payments_archive_payer on expense_payments_archive (payer_id, amount);
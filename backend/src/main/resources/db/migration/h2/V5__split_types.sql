@@ -0,0 +1,7 @@
+-- 新增按比例、按权重两种分摊类型（与 mysql/V5 保持同步）
+
+alter table expenses
+    alter column split_type enum ('CUSTOM','EQUAL','PERCENTAGE','WEIGHTED') not null;
+
+alter table expenses_archive
+    alter column split_type enum ('CUSTOM','EQUAL','PERCENTAGE','WEIGHTED') not null;
@@ -0,0 +1,4 @@
+-- 幂等响应体放宽到 mediumtext（16 MB）；H2 的 clob 本身不限长度，此处只保持版本与 mysql/V6 同步
+
+alter table idempotency_keys
+    alter column response_body clob not null;
@@ -0,0 +1,108 @@
+-- 基线表结构（与实体映射一致，启动时由 Hibernate 校验）
+-- 序列由 Hibernate 以单行表模拟，池化分配每次取 50 个号
+
+create table users (
+    id bigint not null,
+    name varchar(255) not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_users_name unique (name)
+) engine=InnoDB;
+
+create table expense_categories (
+    id bigint not null,
+    name varchar(255) not null,
+    description varchar(500),
+    is_default bit,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_expense_categories_name unique (name)
+) engine=InnoDB;
+
+create table expenses (
+    id bigint not null,
+    description varchar(255) not null,
+    amount decimal(10,2) not null,
+    category_id bigint,
+    split_type enum ('CUSTOM','EQUAL') not null,
+    expense_date datetime(6),
+    created_at datetime(6),
+    updated_at datetime(6),
+    version bigint not null,
+    primary key (id),
+    constraint fk_expenses_category foreign key (category_id) references expense_categories (id)
+) engine=InnoDB;
+
+create table expense_payments (
+    id bigint not null,
+    expense_id bigint not null,
+    payer_id bigint not null,
+    amount decimal(10,2) not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint fk_expense_payments_expense foreign key (expense_id) references expenses (id),
+    constraint fk_expense_payments_payer foreign key (payer_id) references users (id)
+) engine=InnoDB;
+
+create table expense_shares (
+    id bigint not null,
+    expense_id bigint not null,
+    user_id bigint not null,
+    amount decimal(10,2) not null,
+    custom_amount decimal(10,2),
+    is_paid bit,
+    settlement_id bigint,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint fk_expense_shares_expense foreign key (expense_id) references expenses (id),
+    constraint fk_expense_shares_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create table user_ledgers (
+    user_id bigint not null,
+    total_paid decimal(14,2) not null,
+    total_owed decimal(14,2) not null,
+    updated_at datetime(6),
+    primary key (user_id)
+) engine=InnoDB;
+
+create table settlements (
+    id bigint not null,
+    debtor_id bigint,
+    creditor_id bigint,
+    share_count integer not null,
+    amount decimal(14,2) not null,
+    created_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table idempotency_keys (
+    idempotency_key varchar(100) not null,
+    fingerprint varchar(64) not null,
+    response_body text not null,
+    created_at datetime(6),
+    expires_at datetime(6) not null,
+    primary key (idempotency_key)
+) engine=InnoDB;
+
+create table users_seq (next_val bigint) engine=InnoDB;
+insert into users_seq values (1);
+
+create table expense_categories_seq (next_val bigint) engine=InnoDB;
+insert into expense_categories_seq values (1);
+
+create table expenses_seq (next_val bigint) engine=InnoDB;
+insert into expenses_seq values (1);
+
+create table expense_payments_seq (next_val bigint) engine=InnoDB;
+insert into expense_payments_seq values (1);
+
+create table expense_shares_seq (next_val bigint) engine=InnoDB;
+insert into expense_shares_seq values (1);
+
+create table settlements_seq (next_val bigint) engine=InnoDB;
+insert into settlements_seq values (1);
@@ -0,0 +1,49 @@
+-- 月度汇总表与待合并的增量表（与 h2/V3 保持同步）
+
+create table monthly_rollups (
+    dimension enum ('CATEGORY','PAYER','USER') not null,
+    period_month integer not null,
+    key_id bigint not null,
+    amount decimal(14,2) not null,
+    item_count bigint not null,
+    updated_at datetime(6),
+    primary key (dimension, period_month, key_id)
+) engine=InnoDB;
+
+create table rollup_deltas (
+    id bigint not null,
+    dimension enum ('CATEGORY','PAYER','USER') not null,
+    period_month integer not null,
+    key_id bigint not null,
+    amount decimal(14,2) not null,
+    item_count integer not null,
+    created_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- 查询时与汇总表相加的未合并增量（按维度与月份范围）
+create index idx_rollup_deltas_period on rollup_deltas (dimension, period_month, key_id);
+
+create table rollup_deltas_seq (next_val bigint) engine=InnoDB;
+insert into rollup_deltas_seq values (1);
+
+-- 由已有数据生成初始汇总（月份为 yyyyMM，未分类费用的维度键为 0）
+insert into monthly_rollups (dimension, period_month, key_id, amount, item_count, updated_at)
+select 'CATEGORY', year(e.expense_date) * 100 + month(e.expense_date), coalesce(e.category_id, 0),
+       sum(e.amount), count(*), current_timestamp
+from expenses e
+group by year(e.expense_date) * 100 + month(e.expense_date), coalesce(e.category_id, 0);
+
+insert into monthly_rollups (dimension, period_month, key_id, amount, item_count, updated_at)
+select 'PAYER', year(e.expense_date) * 100 + month(e.expense_date), p.payer_id,
+       sum(p.amount), count(*), current_timestamp
+from expense_payments p
+join expenses e on e.id = p.expense_id
+group by year(e.expense_date) * 100 + month(e.expense_date), p.payer_id;
+
+insert into monthly_rollups (dimension, period_month, key_id, amount, item_count, updated_at)
+select 'USER', year(e.expense_date) * 100 + month(e.expense_date), s.user_id,
+       sum(s.amount), count(*), current_timestamp
+from expense_shares s
+join expenses e on e.id = s.expense_id
+group by year(e.expense_date) * 100 + month(e.expense_date), s.user_id;
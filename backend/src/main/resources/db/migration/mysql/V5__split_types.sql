@@ -0,0 +1,7 @@
+-- 新增按比例、按权重两种分摊类型（与 h2/V5 保持同步）
+
+alter table expenses
+    modify column split_type enum ('CUSTOM','EQUAL','PERCENTAGE','WEIGHTED') not null;
+
+alter table expenses_archive
+    modify column split_type enum ('CUSTOM','EQUAL','PERCENTAGE','WEIGHTED') not null;
@@ -0,0 +1,4 @@
+-- 幂等响应体放宽到 mediumtext（16 MB）：text 仅 64 KB，分摊人数多的费用响应会超出（与 h2/V6 保持同步）
+
+alter table idempotency_keys
+    modify column response_body mediumtext not null;
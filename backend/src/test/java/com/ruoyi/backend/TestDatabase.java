@@ -0,0 +1,33 @@
+package com.ruoyi.backend;
+
+import com.ruoyi.backend.service.ListResponseCache;
+import com.ruoyi.backend.service.ListResponseCache.CachedList;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 测试数据库清理：按外键依赖顺序删除全部业务数据，保留默认费用分类
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    public static void reset(JdbcTemplate jdbcTemplate, ListResponseCache responseCache) {
+        jdbcTemplate.update("DELETE FROM expense_shares_archive");
+        jdbcTemplate.update("DELETE FROM expense_payments_archive");
+        jdbcTemplate.update("DELETE FROM expenses_archive");
+        jdbcTemplate.update("DELETE FROM expense_shares");
+        jdbcTemplate.update("DELETE FROM settlements");
+        jdbcTemplate.update("DELETE FROM idempotency_keys");
+        jdbcTemplate.update("DELETE FROM expense_payments");
+        jdbcTemplate.update("DELETE FROM expenses");
+        jdbcTemplate.update("DELETE FROM user_ledgers");
+        jdbcTemplate.update("DELETE FROM rollup_deltas");
+        jdbcTemplate.update("DELETE FROM monthly_rollups");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM expense_categories WHERE is_default = FALSE");
+        // 绕过服务层删除的数据不会触发缓存失效
+        responseCache.invalidate(CachedList.USERS);
+        responseCache.invalidate(CachedList.CATEGORIES);
+    }
+}
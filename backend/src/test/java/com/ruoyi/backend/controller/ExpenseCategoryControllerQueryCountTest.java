@@ -0,0 +1,46 @@
+package com.ruoyi.backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * 费用分类接口 SQL 语句数回归测试
+ */
+class ExpenseCategoryControllerQueryCountTest extends QueryCountTestSupport {
+
+    @Test
+    void createCategory() throws Exception {
+        assertConstantQueries("POST /api/categories", dataset -> post("/api/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"新分类\", \"description\": \"测试\"}"));
+    }
+
+    @Test
+    void getAllCategories() throws Exception {
+        assertConstantQueries("GET /api/categories", dataset -> get("/api/categories"));
+    }
+
+    @Test
+    void getAllCategoriesNotModified() throws Exception {
+        assertNotModifiedWithoutQueries("GET /api/categories", dataset -> get("/api/categories"));
+    }
+
+    @Test
+    void updateCategory() throws Exception {
+        assertConstantQueries("PUT /api/categories/{id}", dataset -> put("/api/categories/{id}", dataset.spareCategoryId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"改名分类\", \"description\": \"测试\"}"));
+    }
+
+    @Test
+    void deleteCategory() throws Exception {
+        assertConstantQueries("DELETE /api/categories/{id}", dataset -> delete("/api/categories/{id}", dataset.spareCategoryId()));
+    }
+
+    @Test
+    void initDefaultCategories() throws Exception {
+        assertConstantQueries("POST /api/categories/init", dataset -> post("/api/categories/init"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.ruoyi.backend.controller;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.SettleRequest;
+import com.ruoyi.backend.service.ExpenseArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * 费用接口 SQL 语句数回归测试
+ * <p>
+ * 写接口的请求体规模固定（3 人分摊），只有库中已有数据的规模变化。
+ */
+class ExpenseControllerQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private ExpenseArchiveService archiveService;
+
+    @Test
+    void addExpense() throws Exception {
+        assertConstantQueries("POST /api/expenses", dataset -> post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(equalExpense("新费用", "90.00", dataset.userIds().subList(0, 3)))));
+    }
+
+    @Test
+    void addExpenseWithIdempotencyKey() throws Exception {
+        assertConstantQueries("POST /api/expenses (Idempotency-Key)", dataset -> post("/api/expenses")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(equalExpense("新费用", "90.00", dataset.userIds().subList(0, 3)))));
+    }
+
+    @Test
+    void addExpenseReplayed() throws Exception {
+        assertReplayedWithoutQueries("POST /api/expenses", dataset -> post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(equalExpense("新费用", "90.00", dataset.userIds().subList(0, 3)))));
+    }
+
+    @Test
+    void importExpenses() throws Exception {
+        assertConstantQueries("POST /api/expenses/import", dataset -> post("/api/expenses/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(List.of(
+                        equalExpense("导入费用1", "60.00", dataset.userIds().subList(0, 3)),
+                        equalExpense("导入费用2", "45.00", dataset.userIds().subList(1, 4))))));
+    }
+
+    @Test
+    void getExpensePage() throws Exception {
+        assertConstantQueries("GET /api/expenses", dataset -> get("/api/expenses").param("limit", "5"));
+    }
+
+    @Test
+    void getExpensePageNotModified() throws Exception {
+        assertNotModifiedWithoutQueries("GET /api/expenses", dataset -> get("/api/expenses").param("limit", "5"));
+    }
+
+    @Test
+    void getExpenseSecondPage() throws Exception {
+        assertConstantQueries("GET /api/expenses?cursor=", dataset -> get("/api/expenses")
+                .param("limit", "5")
+                .param("cursor", dataset.secondPageCursor()));
+    }
+
+    @Test
+    void getAllExpensesUnpaged() throws Exception {
+        assertConstantQueries("GET /api/expenses?unpaged=true", dataset -> get("/api/expenses").param("unpaged", "true"));
+    }
+
+    /**
+     * 导出按 500 条分块读取，两个数据集都在一个分块内
+     */
+    @Test
+    void exportExpenses() throws Exception {
+        assertConstantQueries("GET /api/expenses/export", dataset -> get("/api/expenses/export").param("format", "csv"));
+    }
+
+    @Test
+    void getExpenseById() throws Exception {
+        assertConstantQueries("GET /api/expenses/{id}", dataset -> get("/api/expenses/{id}", dataset.expenseIds().get(0)));
+    }
+
+    @Test
+    void getArchivedExpenseById() throws Exception {
+        assertConstantQueries("GET /api/expenses/{id} (归档)", dataset -> {
+            settleAllShares(dataset);
+            archiveService.archive(Duration.ZERO);
+            return get("/api/expenses/{id}", dataset.expenseIds().get(0));
+        });
+    }
+
+    @Test
+    void updateExpense() throws Exception {
+        assertConstantQueries("PUT /api/expenses/{id}", dataset -> {
+            ExpenseRequest request = equalExpense("修改费用", "80.00", dataset.userIds().subList(1, 4));
+            return put("/api/expenses/{id}", dataset.expenseIds().get(1))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(json(request));
+        });
+    }
+
+    @Test
+    void markShareAsPaid() throws Exception {
+        assertConstantQueries("PUT /api/expenses/shares/{shareId}/pay",
+                dataset -> put("/api/expenses/shares/{shareId}/pay", dataset.unpaidShareIds().get(0)));
+    }
+
+    /**
+     * 结清的分摊数随数据规模增长，语句数不变
+     */
+    @Test
+    void settleSharesByDebtorAndCreditor() throws Exception {
+        assertConstantQueries("POST /api/expenses/settlements", dataset -> {
+            SettleRequest request = new SettleRequest();
+            request.setDebtorId(dataset.userIds().get(1));
+            request.setCreditorId(dataset.userIds().get(0));
+            return post("/api/expenses/settlements")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(json(request));
+        });
+    }
+
+    @Test
+    void settleSharesById() throws Exception {
+        assertConstantQueries("POST /api/expenses/settlements (shareIds)", dataset -> {
+            SettleRequest request = new SettleRequest();
+            request.setShareIds(dataset.unpaidShareIds().subList(0, 2));
+            return post("/api/expenses/settlements")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(json(request));
+        });
+    }
+
+    @Test
+    void getUserBalances() throws Exception {
+        assertConstantQueries("GET /api/expenses/balances", dataset -> get("/api/expenses/balances"));
+    }
+
+    @Test
+    void getUserBalancesNotModified() throws Exception {
+        assertNotModifiedWithoutQueries("GET /api/expenses/balances", dataset -> get("/api/expenses/balances"));
+    }
+
+    @Test
+    void rebuildBalanceLedger() throws Exception {
+        assertConstantQueries("POST /api/expenses/balances/rebuild", dataset -> post("/api/expenses/balances/rebuild"));
+    }
+
+    @Test
+    void getSettlementPlan() throws Exception {
+        assertConstantQueries("GET /api/expenses/settlement-plan", dataset -> get("/api/expenses/settlement-plan"));
+    }
+
+    @Test
+    void getSettlementPlanNotModified() throws Exception {
+        assertNotModifiedWithoutQueries("GET /api/expenses/settlement-plan", dataset -> get("/api/expenses/settlement-plan"));
+    }
+
+    /**
+     * 归档的费用数随数据规模增长（都在一批内），语句数不变
+     */
+    @Test
+    void archiveSettledExpenses() throws Exception {
+        assertConstantQueries("POST /api/expenses/archive", dataset -> {
+            settleAllShares(dataset);
+            return post("/api/expenses/archive").param("minAgeDays", "0");
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.ruoyi.backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 分组提交模式下添加费用的 SQL 语句数回归测试
+ */
+@TestPropertySource(properties = {"publicpay.ingest.enabled=true", "publicpay.ingest.linger=0ms"})
+class ExpenseIngestQueryCountTest extends QueryCountTestSupport {
+
+    @Test
+    void addExpenseQueued() throws Exception {
+        assertConstantQueries("POST /api/expenses (分组提交)", dataset -> post("/api/expenses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(equalExpense("新费用", "90.00", dataset.userIds().subList(0, 3)))));
+    }
+
+    /**
+     * 引用校验在写入线程中进行，失败原因经 Future 返回给调用方
+     */
+    @Test
+    void addExpenseQueuedWithUnknownUser() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/expenses")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(equalExpense("新费用", "90.00", List.of(-1L)))))
+                .andReturn();
+        assertTrue(started.getRequest().isAsyncStarted(), "分组提交应以异步请求返回");
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+        assertEquals(400, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentAsString().contains("部分分摊用户不存在"),
+                result.getResponse().getContentAsString());
+    }
+}
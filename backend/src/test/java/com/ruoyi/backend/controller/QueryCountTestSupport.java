@@ -0,0 +1,304 @@
+package com.ruoyi.backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.TestDatabase;
+import com.ruoyi.backend.dto.ExpenseCategoryResponse;
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.service.ExpenseCategoryService;
+import com.ruoyi.backend.service.ExpenseService;
+import com.ruoyi.backend.service.ListResponseCache;
+import com.ruoyi.backend.service.UserService;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * SQL 语句数回归测试基类
+ * <p>
+ * 在内存 H2（MySQL 兼容模式）上启动完整上下文，DataSource 外包一层计数代理。
+ * 每个接口分别在小、大两个数据集上各请求一次，要求执行的语句数相同，
+ * 即语句数与数据量无关；重新引入逐行查询（N+1）的改动会使测试失败。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCountTestSupport.CountingDataSourceConfig.class)
+abstract class QueryCountTestSupport {
+
+    static final int SMALL_USERS = 4;
+    static final int SMALL_EXPENSES = 10;
+    static final int LARGE_USERS = 24;
+    static final int LARGE_EXPENSES = 120;
+
+    /** 已执行的 JDBC 语句数（批处理整体计一次，不含序列号预取） */
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseCategoryService categoryService;
+
+    @Autowired
+    private ListResponseCache responseCache;
+
+    /**
+     * 测试数据集
+     *
+     * @param userIds          参与费用的用户
+     * @param expenseIds       费用记录（按创建顺序）
+     * @param unpaidShareIds   未支付的分摊
+     * @param categoryIds      默认费用分类
+     * @param spareUserId      未参与任何费用的用户，可安全修改或删除
+     * @param spareCategoryId  未被引用的分类，可安全修改或删除
+     * @param secondPageCursor 第一页（5 条）之后的游标
+     */
+    record Dataset(List<Long> userIds, List<Long> expenseIds, List<Long> unpaidShareIds, List<Long> categoryIds,
+                   Long spareUserId, Long spareCategoryId, String secondPageCursor) {
+    }
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name("statement-counting")
+                                .listener(new QueryExecutionListener() {
+                                    @Override
+                                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                    }
+
+                                    @Override
+                                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                        // 序列号按块（allocationSize）预取，何时取下一块取决于之前测试消耗的ID数，不计入
+                                        if (!queryInfoList.get(0).getQuery().toLowerCase().contains("next value for")) {
+                                            STATEMENTS.incrementAndGet();
+                                        }
+                                    }
+                                })
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * 断言接口在小、大数据集上执行的语句数相同
+     */
+    protected void assertConstantQueries(String endpoint, Function<Dataset, RequestBuilder> request) throws Exception {
+        long small = statementsFor(request, SMALL_USERS, SMALL_EXPENSES);
+        long large = statementsFor(request, LARGE_USERS, LARGE_EXPENSES);
+        assertEquals(small, large, endpoint + " 的 SQL 语句数随数据量增长：小数据集 " + small + " 条，大数据集 " + large + " 条");
+    }
+
+    /**
+     * 重置数据、按给定规模生成数据集后请求一次接口，返回请求期间执行的语句数
+     */
+    protected long statementsFor(Function<Dataset, RequestBuilder> request, int users, int expenses) throws Exception {
+        resetData();
+        Dataset dataset = seed(users, expenses);
+        RequestBuilder builder = request.apply(dataset);
+
+        STATEMENTS.set(0);
+        MvcResult result = perform(builder);
+        long statements = STATEMENTS.get();
+
+        int status = result.getResponse().getStatus();
+        assertTrue(status >= 200 && status < 300, "请求失败，状态码 " + status + "：" + result.getResponse().getContentAsString());
+        return statements;
+    }
+
+    /**
+     * 断言条件请求：携带上次响应的 ETag 再次请求时返回 304 且不执行任何 SQL；写操作之后 ETag 变化，重新返回 200
+     */
+    protected void assertNotModifiedWithoutQueries(String endpoint, Function<Dataset, MockHttpServletRequestBuilder> request)
+            throws Exception {
+        resetData();
+        Dataset dataset = seed(SMALL_USERS, SMALL_EXPENSES);
+        String etag = perform(request.apply(dataset)).getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, endpoint + " 未返回 ETag");
+
+        STATEMENTS.set(0);
+        MvcResult notModified = perform(request.apply(dataset).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), notModified.getResponse().getStatus(), endpoint + " 数据未变化时应返回 304");
+        assertEquals(0, STATEMENTS.get(), endpoint + " 返回 304 时不应执行 SQL");
+
+        userService.createUser("变更后新增的用户");
+        MvcResult modified = perform(request.apply(dataset).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertEquals(HttpStatus.OK.value(), modified.getResponse().getStatus(), endpoint + " 数据变化后应返回 200");
+        assertNotEquals(etag, modified.getResponse().getHeader(HttpHeaders.ETAG), endpoint + " 数据变化后 ETag 应改变");
+    }
+
+    /**
+     * 断言幂等重放：以同一 Idempotency-Key 重复请求时返回首次的响应且不执行任何 SQL，不产生新数据
+     */
+    protected void assertReplayedWithoutQueries(String endpoint, Function<Dataset, MockHttpServletRequestBuilder> request)
+            throws Exception {
+        resetData();
+        Dataset dataset = seed(SMALL_USERS, SMALL_EXPENSES);
+        String key = UUID.randomUUID().toString();
+        MvcResult first = perform(request.apply(dataset).header("Idempotency-Key", key));
+        assertEquals(HttpStatus.OK.value(), first.getResponse().getStatus(), endpoint + " 首次请求失败：" + first.getResponse().getContentAsString());
+        Integer expenses = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class);
+
+        STATEMENTS.set(0);
+        MvcResult replayed = perform(request.apply(dataset).header("Idempotency-Key", key));
+        assertEquals(0, STATEMENTS.get(), endpoint + " 重放时不应执行 SQL");
+        assertEquals("true", replayed.getResponse().getHeader("Idempotent-Replayed"), endpoint + " 应标记为重放");
+        assertEquals(first.getResponse().getContentAsString(), replayed.getResponse().getContentAsString(), endpoint + " 重放的响应应与首次相同");
+        assertEquals(expenses, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class), endpoint + " 重放不应产生新数据");
+    }
+
+    private MvcResult perform(RequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+
+    protected String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 构造平均分摊的费用请求：第一位用户付款，所有用户分摊
+     */
+    protected static ExpenseRequest equalExpense(String description, String amount, List<Long> userIds) {
+        ExpenseRequest.PaymentRequest payment = new ExpenseRequest.PaymentRequest();
+        payment.setPayerId(userIds.get(0));
+        payment.setAmount(new BigDecimal(amount));
+
+        ExpenseRequest request = new ExpenseRequest();
+        request.setDescription(description);
+        request.setAmount(new BigDecimal(amount));
+        request.setSplitType("EQUAL");
+        request.setPayments(List.of(payment));
+        request.setShareUserIds(userIds);
+        return request;
+    }
+
+    private void resetData() {
+        TestDatabase.reset(jdbcTemplate, responseCache);
+    }
+
+    /**
+     * 将数据集中所有未支付的分摊标记为已支付，使全部费用可以归档
+     */
+    protected void settleAllShares(Dataset dataset) {
+        dataset.unpaidShareIds().forEach(expenseService::markShareAsPaid);
+    }
+
+    /**
+     * 生成数据集：每笔费用 3 人分摊，轮换付款人与分类，每 4 笔有两位付款人，每 5 笔为自定义分摊，
+     * 每 3 笔将第一份分摊标记为已支付
+     */
+    private Dataset seed(int users, int expenses) {
+        List<Long> categoryIds = categoryService.getAllCategories().stream()
+                .map(ExpenseCategoryResponse::getId)
+                .toList();
+
+        List<Long> userIds = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userIds.add(userService.createUser("用户" + i).getId());
+        }
+
+        List<Long> expenseIds = new ArrayList<>(expenses);
+        List<Long> unpaidShareIds = new ArrayList<>();
+        for (int i = 0; i < expenses; i++) {
+            List<Long> participants = List.of(userIds.get(i % users), userIds.get((i + 1) % users), userIds.get((i + 2) % users));
+            ExpenseRequest request = equalExpense("费用" + i, (30 + i) + ".00", participants);
+            request.setCategoryId(categoryIds.get(i % categoryIds.size()));
+            if (i % 4 == 0) {
+                request.getPayments().get(0).setAmount(new BigDecimal(20 + i));
+                ExpenseRequest.PaymentRequest second = new ExpenseRequest.PaymentRequest();
+                second.setPayerId(participants.get(1));
+                second.setAmount(new BigDecimal(10));
+                request.setPayments(List.of(request.getPayments().get(0), second));
+            }
+            if (i % 5 == 0) {
+                request.setSplitType("CUSTOM");
+                List<ExpenseRequest.CustomShareRequest> customShares = new ArrayList<>();
+                for (int j = 0; j < participants.size(); j++) {
+                    ExpenseRequest.CustomShareRequest share = new ExpenseRequest.CustomShareRequest();
+                    share.setUserId(participants.get(j));
+                    share.setAmount(new BigDecimal(j == 0 ? 10 + i : 10));
+                    customShares.add(share);
+                }
+                request.setCustomShares(customShares);
+            }
+
+            ExpenseResponse response = expenseService.addExpense(request);
+            expenseIds.add(response.getId());
+            for (int j = 0; j < response.getShares().size(); j++) {
+                Long shareId = response.getShares().get(j).getId();
+                if (j == 0 && i % 3 == 0) {
+                    expenseService.markShareAsPaid(shareId);
+                } else {
+                    unpaidShareIds.add(shareId);
+                }
+            }
+        }
+
+        Long spareUserId = userService.createUser("空闲用户").getId();
+        Long spareCategoryId = categoryService.createCategory("临时分类", "未被引用的分类", false).getId();
+        String secondPageCursor = expenseService.getExpensePage(null, 5).getNextCursor();
+        return new Dataset(userIds, expenseIds, unpaidShareIds, categoryIds, spareUserId, spareCategoryId, secondPageCursor);
+    }
+}
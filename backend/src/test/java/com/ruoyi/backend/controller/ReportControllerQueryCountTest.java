@@ -0,0 +1,59 @@
+package com.ruoyi.backend.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * 报表接口 SQL 语句数回归测试
+ */
+class ReportControllerQueryCountTest extends QueryCountTestSupport {
+
+    @Test
+    void getSpendingReportByCategory() throws Exception {
+        assertConstantQueries("GET /api/reports/spending?groupBy=category",
+                dataset -> get("/api/reports/spending").param("groupBy", "category"));
+    }
+
+    @Test
+    void getSpendingReportByUser() throws Exception {
+        assertConstantQueries("GET /api/reports/spending?groupBy=user",
+                dataset -> get("/api/reports/spending").param("groupBy", "user"));
+    }
+
+    @Test
+    void getSpendingReportByMonth() throws Exception {
+        assertConstantQueries("GET /api/reports/spending?groupBy=month",
+                dataset -> get("/api/reports/spending").param("groupBy", "month"));
+    }
+
+    @Test
+    void getSpendingReportNotModified() throws Exception {
+        assertNotModifiedWithoutQueries("GET /api/reports/spending",
+                dataset -> get("/api/reports/spending").param("groupBy", "category"));
+    }
+
+    @Test
+    void getMonthlyTotalsByUser() throws Exception {
+        assertConstantQueries("GET /api/reports/monthly?groupBy=user",
+                dataset -> get("/api/reports/monthly").param("groupBy", "user"));
+    }
+
+    @Test
+    void getMonthlyTotalsByCategory() throws Exception {
+        assertConstantQueries("GET /api/reports/monthly?groupBy=category",
+                dataset -> get("/api/reports/monthly").param("groupBy", "category"));
+    }
+
+    @Test
+    void getMonthlyTotalsByPayer() throws Exception {
+        assertConstantQueries("GET /api/reports/monthly?groupBy=payer",
+                dataset -> get("/api/reports/monthly").param("groupBy", "payer"));
+    }
+
+    @Test
+    void getMonthlyTotalsNotModified() throws Exception {
+        assertNotModifiedWithoutQueries("GET /api/reports/monthly",
+                dataset -> get("/api/reports/monthly").param("groupBy", "user"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.ruoyi.backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * 用户接口 SQL 语句数回归测试
+ */
+class UserControllerQueryCountTest extends QueryCountTestSupport {
+
+    @Test
+    void createUser() throws Exception {
+        assertConstantQueries("POST /api/users", dataset -> post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"新用户\"}"));
+    }
+
+    @Test
+    void getAllUsers() throws Exception {
+        assertConstantQueries("GET /api/users", dataset -> get("/api/users"));
+    }
+
+    @Test
+    void getAllUsersNotModified() throws Exception {
+        assertNotModifiedWithoutQueries("GET /api/users", dataset -> get("/api/users"));
+    }
+
+    @Test
+    void getUserById() throws Exception {
+        assertConstantQueries("GET /api/users/{id}", dataset -> get("/api/users/{id}", dataset.userIds().get(0)));
+    }
+
+    @Test
+    void updateUser() throws Exception {
+        assertConstantQueries("PUT /api/users/{id}", dataset -> put("/api/users/{id}", dataset.userIds().get(0))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"改名用户\"}"));
+    }
+
+    @Test
+    void deleteUser() throws Exception {
+        assertConstantQueries("DELETE /api/users/{id}", dataset -> delete("/api/users/{id}", dataset.spareUserId()));
+    }
+}
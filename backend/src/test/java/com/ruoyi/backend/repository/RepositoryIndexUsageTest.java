@@ -0,0 +1,256 @@
+package com.ruoyi.backend.repository;
+
+import com.ruoyi.backend.entity.Money;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 仓库查询索引回归测试
+ * <p>
+ * 在由 Flyway 迁移建表的内存 H2 上逐个调用每个仓库接口声明的方法（写操作在回滚的事务中执行），
+ * 记录其执行的 SQL 并以相同参数执行 EXPLAIN；执行计划中出现全表扫描（tableScan）
+ * 或不带条件的整个索引扫描（带行数限制的按索引顺序读取除外）即失败。按设计读取整张表的方法列在 {@link #FULL_READS} 中并注明原因。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(RepositoryIndexUsageTest.CapturingDataSourceConfig.class)
+class RepositoryIndexUsageTest {
+
+    /** 按设计读取整张表的方法（接口名.方法名 → 原因） */
+    private static final Map<String, String> FULL_READS = Map.of(
+            "ExpenseRepository.findAllRows", "不分页的费用列表读取全部费用",
+            "ExpenseRepository.streamAllIds", "导出按主键顺序遍历全部费用",
+            "ArchivedExpenseRepository.streamAllIds", "导出按主键顺序遍历全部归档费用",
+            "ExpenseShareRepository.findAllRows", "不分页的费用列表读取全部分摊",
+            "ExpensePaymentRepository.findAllRows", "不分页的费用列表读取全部付款",
+            "ExpensePaymentRepository.sumAmountGroupByPayer", "重建台账汇总全部付款（覆盖索引）",
+            "ArchivedExpensePaymentRepository.sumAmountGroupByPayer", "重建台账汇总全部归档付款（覆盖索引）",
+            "ExpenseCategoryRepository.findAllByOrderByCreatedAtAsc", "分类列表读取全部分类");
+
+    /** H2 执行计划中的表访问注释：/* schema.table.tableScan *&#47; 或 /* schema.index[: 条件] *&#47; */
+    private static final Pattern ACCESS = Pattern.compile("/\\* ([\\w.]+?)(\\.tableScan)?(: [^*]*)? \\*/");
+
+    private static final List<QueryInfo> CAPTURED = new ArrayList<>();
+
+    private static volatile boolean capturing;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class CapturingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name("statement-capturing")
+                                .listener(new QueryExecutionListener() {
+                                    @Override
+                                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                    }
+
+                                    @Override
+                                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                        if (capturing) {
+                                            synchronized (CAPTURED) {
+                                                CAPTURED.addAll(queryInfoList);
+                                            }
+                                        }
+                                    }
+                                })
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> everyRepositoryQueryUsesAnIndex() {
+        Repositories repositories = new Repositories(applicationContext);
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Class<?> domainType : repositories) {
+            Class<?> repositoryInterface = repositories.getRequiredRepositoryInformation(domainType).getRepositoryInterface();
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            Arrays.stream(repositoryInterface.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !method.isSynthetic() && !Modifier.isStatic(method.getModifiers()))
+                    .sorted(Comparator.comparing(Method::getName))
+                    .forEach(method -> {
+                        String name = repositoryInterface.getSimpleName() + "." + method.getName();
+                        tests.add(DynamicTest.dynamicTest(name, () -> assertUsesIndex(name, repository, method)));
+                    });
+        }
+        assertFalse(tests.isEmpty(), "未找到仓库接口");
+        return tests.stream();
+    }
+
+    private void assertUsesIndex(String name, Object repository, Method method) {
+        List<QueryInfo> statements = capture(repository, method);
+        assertFalse(statements.isEmpty(), name + " 未执行任何 SQL");
+
+        for (QueryInfo statement : statements) {
+            String sql = statement.getQuery();
+            String lower = sql.toLowerCase();
+            if (lower.startsWith("insert") || lower.contains("next value for")) {
+                continue;
+            }
+            String plan = explain(statement);
+            // 按索引顺序读取并带行数限制（分页首页）只读取前 N 行，不算全量扫描
+            boolean limitedIndexOrder = plan.contains("/* index sorted */") && plan.contains("FETCH ");
+            Matcher matcher = ACCESS.matcher(plan);
+            while (matcher.find()) {
+                boolean tableScan = matcher.group(2) != null;
+                boolean unconditionalIndexScan = matcher.group(3) == null && !limitedIndexOrder;
+                if ((tableScan || unconditionalIndexScan) && !FULL_READS.containsKey(name)) {
+                    fail(name + " 全量扫描 " + matcher.group(1) + "\nSQL: " + sql + "\n执行计划: " + plan);
+                }
+            }
+        }
+    }
+
+    /**
+     * 在回滚的事务中调用仓库方法，返回期间执行的语句
+     */
+    private List<QueryInfo> capture(Object repository, Method method) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        synchronized (CAPTURED) {
+            CAPTURED.clear();
+        }
+        transaction.executeWithoutResult(status -> {
+            capturing = true;
+            try {
+                Object result = method.invoke(repository, sampleArguments(method));
+                if (result instanceof Stream<?> stream) {
+                    try (stream) {
+                        stream.forEach(row -> { });
+                    }
+                } else if (result instanceof Iterable<?> iterable) {
+                    StreamSupport.stream(iterable.spliterator(), false).forEach(row -> { });
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(method + " 调用失败", e);
+            } finally {
+                capturing = false;
+                status.setRollbackOnly();
+            }
+        });
+        synchronized (CAPTURED) {
+            return new ArrayList<>(CAPTURED);
+        }
+    }
+
+    private String explain(QueryInfo statement) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.getQuery())) {
+                if (!statement.getParametersList().isEmpty()) {
+                    for (ParameterSetOperation operation : statement.getParametersList().get(0)) {
+                        operation.getMethod().invoke(explain, operation.getArgs());
+                    }
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    return text.toString();
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("绑定参数失败: " + statement.getQuery(), e);
+            }
+        });
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            arguments[i] = sample(types[i], method);
+        }
+        return arguments;
+    }
+
+    private static Object sample(Class<?> type, Method method) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == double.class || type == Double.class) {
+            return 0.02;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return true;
+        }
+        if (type == String.class) {
+            return "示例";
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == Money.class) {
+            return Money.ofCents(100);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L);
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 5);
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        throw new IllegalStateException(method + " 的参数类型 " + type.getName() + " 没有示例值");
+    }
+}
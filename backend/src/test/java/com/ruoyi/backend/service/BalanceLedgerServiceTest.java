@@ -0,0 +1,99 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 余额台账测试：每次写操作后台账与付款、分摊记录的直接统计一致，重建结果与增量维护的结果相同
+ */
+class BalanceLedgerServiceTest extends ServiceTestSupport {
+
+    @Test
+    void ledgerFollowsAddUpdateAndPay() {
+        List<Long> users = createUsers(3);
+        Long a = users.get(0);
+        Long b = users.get(1);
+        Long c = users.get(2);
+
+        ExpenseResponse added = expenseService.addExpense(equalExpense("100.00", a, users));
+        assertEquals(Map.of(a, List.of(10000L, 3334L), b, List.of(0L, 3333L), c, List.of(0L, 3333L)), ledgerRows());
+        assertEquals(ledgerFromRecords(), ledgerRows());
+
+        // 改为 B 付款、C 退出分摊：A 的付款与 C 的分摊整行删除
+        ExpenseRequest update = equalExpense("90.00", b, List.of(a, b));
+        ExpenseResponse updated = expenseService.updateExpense(added.getId(), update);
+        assertEquals(Map.of(a, List.of(0L, 4500L), b, List.of(9000L, 4500L)), ledgerRows());
+        assertEquals(ledgerFromRecords(), ledgerRows());
+
+        expenseService.markShareAsPaid(share(updated, "用户0").getId());
+        assertEquals(Map.of(b, List.of(9000L, 4500L)), ledgerRows());
+        assertEquals(ledgerFromRecords(), ledgerRows());
+
+        // 重复标记不会再次扣减
+        expenseService.markShareAsPaid(share(updated, "用户0").getId());
+        assertEquals(Map.of(b, List.of(9000L, 4500L)), ledgerRows());
+    }
+
+    @Test
+    void rebuildMatchesIncrementalLedger() {
+        List<Long> users = createUsers(5);
+        List<Long> expenseIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            List<Long> participants = List.of(users.get(i % 5), users.get((i + 1) % 5), users.get((i + 3) % 5));
+            ExpenseResponse response = expenseService.addExpense(equalExpense((10 + i) + ".01", users.get(i % 5), participants));
+            expenseIds.add(response.getId());
+            if (i % 3 == 0) {
+                expenseService.markShareAsPaid(response.getShares().get(1).getId());
+            }
+        }
+        expenseService.updateExpense(expenseIds.get(4), equalExpense("77.77", users.get(2), List.of(users.get(2), users.get(4))));
+        Map<Long, List<Long>> incremental = ledgerRows();
+        assertEquals(ledgerFromRecords(), incremental);
+
+        ledgerService.rebuild();
+
+        assertEquals(incremental, ledgerRows());
+    }
+
+    /**
+     * 新用户的首笔费用并发提交时，两个事务都插入台账行；不应有一方因主键冲突回滚
+     */
+    @Test
+    void concurrentFirstExpensesForNewUserBothCommit() throws Exception {
+        Long existing = createUsers(1).get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 5; round++) {
+                Long newUser = userService.createUser("新用户" + round).getId();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<ExpenseResponse>> results = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return expenseService.addExpense(equalExpense("10.00", newUser, List.of(existing, newUser)));
+                    }));
+                }
+                start.countDown();
+                for (Future<ExpenseResponse> result : results) {
+                    result.get();
+                }
+
+                assertEquals(List.of(2000L, 1000L), ledgerRows().get(newUser), "第 " + round + " 轮");
+            }
+            assertEquals(ledgerFromRecords(), ledgerRows());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * 变更事件广播测试：并发提交的费用按读取余额的先后广播，版本号单调不减，
+ * 后到的事件不会带着更旧的余额，最后一个事件的余额即台账的最终余额
+ */
+class ChangeEventBroadcasterTest extends ServiceTestSupport {
+
+    private static final int THREADS = 8;
+
+    private static final int EXPENSES_PER_THREAD = 4;
+
+    @Test
+    void concurrentCommitsBroadcastBalancesInOrder() throws Exception {
+        List<Long> users = createUsers(3);
+        MvcResult stream = mockMvc.perform(get("/api/events")).andExpect(request().asyncStarted()).andReturn();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Long payerId = users.get(t % users.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EXPENSES_PER_THREAD; i++) {
+                        expenseService.addExpense(equalExpense("30.00", payerId, users));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            List<ChangeEvent> events = awaitEvents(stream, THREADS * EXPENSES_PER_THREAD);
+
+            // 只有新增：版本号与每个用户的累计金额都不应回退
+            Map<Long, List<Long>> latest = new TreeMap<>();
+            long version = -1;
+            for (ChangeEvent event : events) {
+                assertTrue(event.getVersion() >= version, "版本号回退：" + event.getVersion() + " < " + version);
+                version = event.getVersion();
+                for (ChangeEvent.BalanceTotal total : event.getBalances()) {
+                    List<Long> amounts = List.of(cents(total.getTotalPaid()), cents(total.getTotalOwed()));
+                    List<Long> previous = latest.put(total.getUserId(), amounts);
+                    if (previous != null) {
+                        assertTrue(amounts.get(0) >= previous.get(0) && amounts.get(1) >= previous.get(1),
+                                "用户 " + total.getUserId() + " 的余额回退：" + previous + " -> " + amounts);
+                    }
+                }
+            }
+            assertEquals(ledgerRows(), latest);
+        } finally {
+            executor.shutdownNow();
+            stream.getRequest().getAsyncContext().complete();
+        }
+    }
+
+    /**
+     * 等待事件流中出现 count 个费用事件，按到达顺序返回
+     */
+    private List<ChangeEvent> awaitEvents(MvcResult stream, int count) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            List<ChangeEvent> events = new ArrayList<>();
+            for (String line : stream.getResponse().getContentAsString().split("\n")) {
+                if (line.startsWith("data:")) {
+                    ChangeEvent event = objectMapper.readValue(line.substring("data:".length()), ChangeEvent.class);
+                    if (event.getExpenseId() != null) {
+                        events.add(event);
+                    }
+                }
+            }
+            if (events.size() >= count || System.nanoTime() > deadline) {
+                assertEquals(count, events.size(), "收到的费用事件数");
+                return events;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
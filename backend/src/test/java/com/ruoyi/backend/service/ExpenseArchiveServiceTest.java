@@ -0,0 +1,136 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.dto.SpendingReportResponse;
+import com.ruoyi.backend.dto.UserBalanceResponse;
+import com.ruoyi.backend.enums.ExportFormat;
+import com.ruoyi.backend.enums.ReportGroupBy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 归档测试：已结清的旧费用移入归档表，余额、消费报表与详情接口的结果不变，导出仍包含已归档的费用
+ */
+class ExpenseArchiveServiceTest extends ServiceTestSupport {
+
+    private static final Duration MIN_AGE = Duration.ofDays(180);
+
+    @Autowired
+    private ExpenseArchiveService archiveService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ExpenseExportService exportService;
+
+    @Test
+    void archiveMovesSettledExpensesWithoutChangingResults() {
+        List<Long> users = createUsers(3);
+        LocalDateTime old = LocalDateTime.now().minusYears(1);
+        ExpenseResponse settledOld = addExpense("90.00", users.get(0), users, old);
+        ExpenseResponse unsettledOld = addExpense("45.00", users.get(1), users, old.plusDays(1));
+        ExpenseResponse settledRecent = addExpense("30.00", users.get(2), users, LocalDateTime.now().minusDays(1));
+        payAll(settledOld);
+        payAll(settledRecent);
+        expenseService.markShareAsPaid(share(unsettledOld, "用户0").getId());
+
+        ExpenseResponse detailBefore = expenseService.getExpenseById(settledOld.getId());
+        List<UserBalanceResponse> balancesBefore = expenseService.getUserBalances();
+        Map<Long, List<Long>> ledgerRowsBefore = ledgerRows();
+        Map<ReportGroupBy, SpendingReportResponse> reportsBefore = reports();
+
+        assertEquals(1, archiveService.archive(MIN_AGE));
+
+        // 只有旧的已结清费用被移走：费用、付款与分摊各自整行移入归档表
+        assertEquals(List.of(unsettledOld.getId(), settledRecent.getId()),
+                jdbcTemplate.queryForList("SELECT id FROM expenses ORDER BY id", Long.class));
+        assertEquals(List.of(settledOld.getId()), jdbcTemplate.queryForList("SELECT id FROM expenses_archive", Long.class));
+        assertEquals(0, countFor("expense_payments", settledOld.getId()));
+        assertEquals(0, countFor("expense_shares", settledOld.getId()));
+        assertEquals(1, countFor("expense_payments_archive", settledOld.getId()));
+        assertEquals(3, countFor("expense_shares_archive", settledOld.getId()));
+
+        assertEquals(detailBefore, expenseService.getExpenseById(settledOld.getId()), "详情应从归档表读出相同内容");
+        assertEquals(balancesBefore, expenseService.getUserBalances());
+        assertEquals(ledgerRowsBefore, ledgerRows());
+        assertEquals(ledgerFromRecords(), ledgerRows());
+        assertEquals(reportsBefore, reports());
+        assertEquals(3L, reportsBefore.get(ReportGroupBy.MONTH).getCount(), "报表应包含已归档的费用");
+
+        // 重建台账同时统计归档表
+        ledgerService.rebuild();
+        assertEquals(ledgerRowsBefore, ledgerRows());
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> expenseService.updateExpense(settledOld.getId(),
+                equalExpense("90.00", users.get(0), users)));
+        assertEquals("费用已结清并归档，不能修改: " + settledOld.getId(), e.getMessage());
+        assertEquals(0, archiveService.archive(MIN_AGE), "再次归档不应有新的费用");
+    }
+
+    @Test
+    void exportIncludesArchivedExpenses() throws Exception {
+        List<Long> users = createUsers(2);
+        ExpenseResponse archived = addExpense("40.00", users.get(0), users, LocalDateTime.now().minusYears(1));
+        ExpenseResponse hot = addExpense("10.00", users.get(1), users, LocalDateTime.now().minusDays(1));
+        payAll(archived);
+        ExpenseResponse archivedBefore = expenseService.getExpenseById(archived.getId());
+        assertEquals(1, archiveService.archive(MIN_AGE));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.NDJSON, out);
+        List<ExpenseResponse> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            exported.add(objectMapper.readValue(line, ExpenseResponse.class));
+        }
+
+        // 先热表、后归档表；归档费用带有完整的付款与分摊
+        assertEquals(List.of(hot.getId(), archived.getId()), exported.stream().map(ExpenseResponse::getId).toList());
+        assertEquals(archivedBefore, exported.get(1));
+        assertEquals(1, exported.get(1).getPayments().size());
+        assertEquals(2, exported.get(1).getShares().size());
+
+        out.reset();
+        exportService.export(ExportFormat.CSV, out);
+        String[] csvLines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, csvLines.length, "表头与两条费用");
+        assertTrue(csvLines[2].startsWith(archived.getId() + ","), csvLines[2]);
+    }
+
+    private ExpenseResponse addExpense(String amount, Long payerId, List<Long> shareUserIds, LocalDateTime expenseDate) {
+        ExpenseRequest request = equalExpense(amount, payerId, shareUserIds);
+        request.setExpenseDate(expenseDate);
+        return expenseService.addExpense(request);
+    }
+
+    private void payAll(ExpenseResponse expense) {
+        expense.getShares().forEach(share -> expenseService.markShareAsPaid(share.getId()));
+    }
+
+    private int countFor(String table, Long expenseId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE expense_id = ?", Integer.class, expenseId);
+    }
+
+    private Map<ReportGroupBy, SpendingReportResponse> reports() {
+        Map<ReportGroupBy, SpendingReportResponse> reports = new EnumMap<>(ReportGroupBy.class);
+        for (ReportGroupBy groupBy : ReportGroupBy.values()) {
+            reports.put(groupBy, reportService.getSpendingReport(LocalDate.now().minusYears(2), LocalDate.now(), groupBy));
+        }
+        return reports;
+    }
+}
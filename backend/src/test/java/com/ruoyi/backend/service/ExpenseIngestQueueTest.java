@@ -0,0 +1,140 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 分组提交队列测试：组内出错的请求单独失败、写入线程在 Error 后继续运行、队列已满时返回 429
+ * <p>
+ * linger 足够长，使连续提交的请求落入同一组；写入线程通过对 {@link ExpenseBatchWriter} 打桩阻塞或抛错。
+ */
+@TestPropertySource(properties = {
+        "publicpay.ingest.enabled=true",
+        "publicpay.ingest.queue-capacity=" + ExpenseIngestQueueTest.QUEUE_CAPACITY,
+        "publicpay.ingest.group-size=10",
+        "publicpay.ingest.linger=500ms"})
+class ExpenseIngestQueueTest extends ServiceTestSupport {
+
+    static final int QUEUE_CAPACITY = 5;
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private ExpenseIngestQueue ingestQueue;
+
+    @SpyBean
+    private ExpenseBatchWriter batchWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void failingRequestsInGroupFailAlone() throws Exception {
+        List<Long> users = createUsers(3);
+        ExpenseRequest unknownUser = equalExpense("30.00", users.get(0), List.of(users.get(0), -1L));
+        // 通过字段校验，但超出列长度：批量写入失败后逐条重试时单独失败
+        ExpenseRequest tooLong = equalExpense("30.00", users.get(1), users);
+        tooLong.setDescription("长".repeat(300));
+        DistributionSummary groupSizes = meterRegistry.get("publicpay.ingest.group.size").summary();
+        long groups = groupSizes.count();
+        double grouped = groupSizes.totalAmount();
+
+        CompletableFuture<ExpenseResponse> first = ingestQueue.submit(equalExpense("30.00", users.get(0), users));
+        CompletableFuture<ExpenseResponse> unknown = ingestQueue.submit(unknownUser);
+        CompletableFuture<ExpenseResponse> invalid = ingestQueue.submit(tooLong);
+        CompletableFuture<ExpenseResponse> second = ingestQueue.submit(equalExpense("60.00", users.get(2), users));
+
+        assertNotNull(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId());
+        assertNotNull(second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId());
+        assertFailure(unknown, "部分分摊用户不存在");
+        assertFailure(invalid, "写入失败");
+        assertEquals(groups + 1, groupSizes.count(), "四个请求应在同一组中提交");
+        assertEquals(grouped + 4, groupSizes.totalAmount());
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_shares", Integer.class));
+        assertEquals(ledgerFromRecords(), ledgerRows());
+    }
+
+    @Test
+    void writerSurvivesErrorInGroup() throws Exception {
+        List<Long> users = createUsers(2);
+        doThrow(new StackOverflowError()).doCallRealMethod().when(batchWriter).loadReferences(any());
+
+        CompletableFuture<ExpenseResponse> failed = ingestQueue.submit(equalExpense("10.00", users.get(0), users));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, e.getCause());
+
+        // 写入线程仍在运行，后续请求正常提交
+        ExpenseResponse next = ingestQueue.submit(equalExpense("10.00", users.get(0), users))
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(next.getId());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+    }
+
+    @Test
+    void fullQueueReturns429WithRetryAfter() throws Exception {
+        List<Long> users = createUsers(2);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.callRealMethod();
+        }).when(batchWriter).loadReferences(any());
+        double rejected = meterRegistry.get("publicpay.ingest.rejected").counter().count();
+
+        List<CompletableFuture<ExpenseResponse>> accepted = new ArrayList<>();
+        accepted.add(ingestQueue.submit(equalExpense("10.00", users.get(0), users)));
+        // 写入线程取走第一个请求后阻塞，再填满队列
+        assertTrue(writing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            accepted.add(ingestQueue.submit(equalExpense("10.00", users.get(0), users)));
+        }
+
+        MvcResult result = mockMvc.perform(post("/api/expenses")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(equalExpense("10.00", users.get(0), users))))
+                .andReturn();
+        assertEquals(429, result.getResponse().getStatus());
+        assertEquals("1", result.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(rejected + 1, meterRegistry.get("publicpay.ingest.rejected").counter().count());
+
+        release.countDown();
+        for (CompletableFuture<ExpenseResponse> future : accepted) {
+            assertNotNull(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getId());
+        }
+        assertEquals(QUEUE_CAPACITY + 1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+    }
+
+    private static void assertFailure(CompletableFuture<?> future, String message) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(e.getCause().getMessage().contains(message), e.getCause().getMessage());
+    }
+}
@@ -0,0 +1,243 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.dto.ImportResultResponse;
+import com.ruoyi.backend.dto.SettleRequest;
+import com.ruoyi.backend.enums.ImportFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 费用写入测试：调用服务或接口，并读取数据库中的行与响应校验结果
+ */
+class ExpenseServiceTest extends ServiceTestSupport {
+
+    @Autowired
+    private ExpenseImportService importService;
+
+    @Autowired
+    private ExpenseBatchWriter batchWriter;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    /**
+     * 重复的付款人与分摊用户在新增、修改、批量导入与分组提交中以相同的信息拒绝
+     */
+    @Test
+    void duplicateUsersRejectedOnEveryPath() throws Exception {
+        List<Long> users = createUsers(2);
+        Long a = users.get(0);
+        Long b = users.get(1);
+        ExpenseResponse existing = expenseService.addExpense(equalExpense("20.00", a, users));
+
+        assertRejectedEverywhere(existing.getId(), users, "付款人重复: " + a, request -> {
+            ExpenseRequest.PaymentRequest again = new ExpenseRequest.PaymentRequest();
+            again.setPayerId(a);
+            again.setAmount(new BigDecimal("10.00"));
+            request.getPayments().get(0).setAmount(new BigDecimal("10.00"));
+            request.getPayments().add(again);
+        });
+        assertRejectedEverywhere(existing.getId(), users, "分摊用户重复: " + b, request -> request.getShareUserIds().add(b));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_payments", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_shares", Integer.class));
+        assertEquals(ledgerFromRecords(), ledgerRows());
+    }
+
+    @Test
+    void staleVersionReturns409() throws Exception {
+        List<Long> users = createUsers(2);
+        ExpenseResponse added = expenseService.addExpense(equalExpense("20.00", users.get(0), users));
+        ExpenseRequest first = equalExpense("30.00", users.get(0), users);
+        first.setVersion(added.getVersion());
+        ExpenseResponse updated = read(put(added.getId(), first, 200));
+        assertEquals(added.getVersion() + 1, updated.getVersion());
+
+        ExpenseRequest stale = equalExpense("40.00", users.get(1), users);
+        stale.setVersion(added.getVersion());
+        MvcResult conflict = put(added.getId(), stale, 409);
+
+        assertTrue(conflict.getResponse().getContentAsString().contains("费用记录已被他人修改"));
+        assertEquals(new BigDecimal("30.00"), jdbcTemplate.queryForObject(
+                "SELECT amount FROM expenses WHERE id = ?", BigDecimal.class, added.getId()));
+        assertEquals(List.of(users.get(0)), jdbcTemplate.queryForList(
+                "SELECT payer_id FROM expense_payments WHERE expense_id = ?", Long.class, added.getId()));
+        assertEquals(ledgerFromRecords(), ledgerRows());
+    }
+
+    @Test
+    void unchangedSharesKeepPaidState() throws Exception {
+        List<Long> users = createUsers(3);
+        ExpenseResponse added = expenseService.addExpense(equalExpense("30.00", users.get(0), users));
+        Long paidShareId = share(added, "用户1").getId();
+        expenseService.markShareAsPaid(paidShareId);
+        // 标记支付递增了费用版本号，客户端需使用新的版本号
+        Long paidVersion = expenseService.getExpenseById(added.getId()).getVersion();
+        assertEquals(added.getVersion() + 1, paidVersion);
+
+        ExpenseRequest request = equalExpense("30.00", users.get(0), users);
+        request.setDescription("改名");
+        request.setVersion(paidVersion);
+        ExpenseResponse updated = read(put(added.getId(), request, 200));
+
+        assertEquals("改名", updated.getDescription());
+        assertEquals(paidShareId, share(updated, "用户1").getId());
+        assertTrue(share(updated, "用户1").getIsPaid());
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT is_paid FROM expense_shares WHERE id = ?", Boolean.class, paidShareId));
+        assertEquals(shareIds(added), shareIds(updated), "未变化的分摊应原地保留");
+        assertEquals(ledgerFromRecords(), ledgerRows());
+    }
+
+    @Test
+    void changedAmountResetsPaidState() throws Exception {
+        List<Long> users = createUsers(3);
+        ExpenseResponse added = expenseService.addExpense(equalExpense("30.00", users.get(0), users));
+        Long paidShareId = share(added, "用户1").getId();
+        expenseService.markShareAsPaid(paidShareId);
+
+        ExpenseRequest request = equalExpense("60.00", users.get(0), users);
+        request.setVersion(expenseService.getExpenseById(added.getId()).getVersion());
+        ExpenseResponse updated = read(put(added.getId(), request, 200));
+
+        assertEquals(new BigDecimal("20.00"), share(updated, "用户1").getAmount());
+        assertFalse(share(updated, "用户1").getIsPaid());
+        assertEquals(List.of(2000L, 0L), jdbcTemplate.queryForObject(
+                "SELECT amount, is_paid FROM expense_shares WHERE expense_id = ? AND user_id = ?",
+                (rs, i) -> List.of(cents(rs.getBigDecimal(1)), rs.getBoolean(2) ? 1L : 0L), added.getId(), users.get(1)));
+        assertEquals(Map.of(users.get(0), List.of(6000L, 2000L), users.get(1), List.of(0L, 2000L),
+                users.get(2), List.of(0L, 2000L)), ledgerRows());
+        assertEquals(ledgerFromRecords(), ledgerRows());
+    }
+
+    @Test
+    void removedPaymentsAndSharesAreDeleted() throws Exception {
+        List<Long> users = createUsers(3);
+        ExpenseResponse added = expenseService.addExpense(equalExpense("30.00", users.get(0), users));
+
+        // 改由 B 付款，C 退出分摊
+        ExpenseRequest request = equalExpense("30.00", users.get(1), users.subList(0, 2));
+        request.setVersion(added.getVersion());
+        ExpenseResponse updated = read(put(added.getId(), request, 200));
+
+        assertEquals(List.of("用户1"), updated.getPayments().stream().map(ExpenseResponse.PaymentResponse::getPayerName).toList());
+        assertEquals(List.of("用户0", "用户1"), updated.getShares().stream()
+                .map(ExpenseResponse.ExpenseShareResponse::getUserName).sorted().toList());
+        assertEquals(List.of(users.get(1)), jdbcTemplate.queryForList(
+                "SELECT payer_id FROM expense_payments WHERE expense_id = ?", Long.class, added.getId()));
+        assertEquals(List.of(users.get(0), users.get(1)), jdbcTemplate.queryForList(
+                "SELECT user_id FROM expense_shares WHERE expense_id = ? ORDER BY user_id", Long.class, added.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM expense_shares WHERE id = ?", Integer.class, share(added, "用户2").getId()));
+        assertEquals(Map.of(users.get(0), List.of(0L, 1500L), users.get(1), List.of(3000L, 1500L)), ledgerRows());
+        assertEquals(ledgerFromRecords(), ledgerRows());
+    }
+
+    /**
+     * 修改费用与标记支付、批量结清同时作用于同一笔费用的分摊：无论谁先提交，台账都与直接统计一致，
+     * 修改不会把并发支付的分摊改回未支付
+     */
+    @Test
+    void concurrentUpdateAndPayKeepLedgerExact() throws Exception {
+        List<Long> users = createUsers(3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int round = 0; round < 20; round++) {
+                String context = "第 " + round + " 轮";
+                ExpenseResponse added = expenseService.addExpense(equalExpense("30.00", users.get(0), users));
+                Long paidShareId = share(added, "用户1").getId();
+                Long settledShareId = share(added, "用户2").getId();
+                // 偶数轮修改金额（分摊原地更新），奇数轮移除用户1的分摊
+                ExpenseRequest update = round % 2 == 0
+                        ? equalExpense("60.00", users.get(0), users)
+                        : equalExpense("30.00", users.get(0), List.of(users.get(0), users.get(2)));
+                SettleRequest settle = new SettleRequest();
+                settle.setShareIds(List.of(settledShareId));
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = List.of(
+                        executor.submit(() -> {
+                            start.await();
+                            return expenseService.updateExpense(added.getId(), update);
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            try {
+                                expenseService.markShareAsPaid(paidShareId);
+                            } catch (RuntimeException e) {
+                                // 修改先提交并移除了该分摊
+                                assertEquals("分摊记录不存在: " + paidShareId, e.getMessage(), context);
+                            }
+                            return null;
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            return settlementService.settle(settle);
+                        }));
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+
+                assertEquals(ledgerFromRecords(), ledgerRows(), context);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MvcResult put(Long expenseId, ExpenseRequest request, int expectedStatus) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.put("/api/expenses/{id}", expenseId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+        assertEquals(expectedStatus, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        return result;
+    }
+
+    private ExpenseResponse read(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsByteArray(), ExpenseResponse.class);
+    }
+
+    private static List<Long> shareIds(ExpenseResponse response) {
+        return response.getShares().stream().map(ExpenseResponse.ExpenseShareResponse::getId).sorted().toList();
+    }
+
+    private void assertRejectedEverywhere(Long expenseId, List<Long> users, String message,
+                                          Consumer<ExpenseRequest> duplicate) throws Exception {
+        ExpenseRequest request = equalExpense("20.00", users.get(0), users);
+        duplicate.accept(request);
+
+        assertEquals(message, assertThrows(RuntimeException.class, () -> expenseService.addExpense(request)).getMessage());
+        assertEquals(message, assertThrows(RuntimeException.class, () -> expenseService.updateExpense(expenseId, request)).getMessage());
+        // 分组提交在入队前调用同一校验
+        assertEquals(message, assertThrows(RuntimeException.class, () -> batchWriter.validate(request)).getMessage());
+
+        ImportResultResponse imported = importService.importExpenses(
+                new ByteArrayInputStream(objectMapper.writeValueAsBytes(List.of(request))), ImportFormat.JSON);
+        assertEquals(0, imported.getImportedRows());
+        assertEquals(message, imported.getErrors().get(0).getMessage());
+    }
+}
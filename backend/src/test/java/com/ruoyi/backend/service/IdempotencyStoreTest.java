@@ -0,0 +1,152 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 幂等键测试：重放、请求不一致时拒绝、相同键并发时只执行一次、键过期后可重新使用
+ */
+class IdempotencyStoreTest extends ServiceTestSupport {
+
+    private static final String SCOPE = "POST /api/expenses";
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void retryReplaysFirstResponse() {
+        List<Long> users = createUsers(2);
+        ExpenseRequest request = equalExpense("20.00", users.get(0), users);
+        AtomicInteger executions = new AtomicInteger();
+
+        IdempotencyStore.Result<ExpenseResponse> first = execute(idempotencyStore, "retry", request, executions);
+        IdempotencyStore.Result<ExpenseResponse> retried = execute(idempotencyStore, "retry", request, executions);
+
+        assertFalse(first.replayed());
+        assertTrue(retried.replayed());
+        assertEquals(first.body().getId(), retried.body().getId());
+        assertEquals(first.body().getAmount(), retried.body().getAmount());
+        assertEquals(1, executions.get());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+    }
+
+    @Test
+    void differentRequestWithSameKeyIsRejected() {
+        List<Long> users = createUsers(2);
+        AtomicInteger executions = new AtomicInteger();
+        execute(idempotencyStore, "mismatch", equalExpense("20.00", users.get(0), users), executions);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> execute(idempotencyStore, "mismatch", equalExpense("30.00", users.get(0), users), executions));
+
+        assertEquals("Idempotency-Key 已用于其他请求", e.getMessage());
+        assertEquals(1, executions.get());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+    }
+
+    /**
+     * 相同键的第二个请求在首个请求执行期间到达：等待其结束后重放，不并行执行
+     */
+    @Test
+    void concurrentRequestWithSameKeyWaitsAndReplays() throws Exception {
+        List<Long> users = createUsers(2);
+        ExpenseRequest request = equalExpense("20.00", users.get(0), users);
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<IdempotencyStore.Result<ExpenseResponse>> first = executor.submit(() ->
+                    idempotencyStore.execute(SCOPE, "concurrent", request, ExpenseResponse.class, () -> {
+                        executions.incrementAndGet();
+                        executing.countDown();
+                        await(release);
+                        return expenseService.addExpense(request);
+                    }));
+            assertTrue(executing.await(10, TimeUnit.SECONDS));
+            Future<IdempotencyStore.Result<ExpenseResponse>> second = executor.submit(() ->
+                    execute(idempotencyStore, "concurrent", request, executions));
+            // 第二个请求应停在等待中，而不是执行或重放
+            Thread.sleep(200);
+            assertFalse(second.isDone());
+            release.countDown();
+
+            IdempotencyStore.Result<ExpenseResponse> firstResult = first.get(10, TimeUnit.SECONDS);
+            IdempotencyStore.Result<ExpenseResponse> secondResult = second.get(10, TimeUnit.SECONDS);
+            assertFalse(firstResult.replayed());
+            assertTrue(secondResult.replayed());
+            assertEquals(firstResult.body().getId(), secondResult.body().getId());
+            assertEquals(1, executions.get());
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 键过期后、定时清理前再次使用：视为新请求执行，过期记录被替换，不因主键冲突回滚
+     */
+    @Test
+    void expiredKeyCanBeReused() throws Exception {
+        IdempotencyStore shortLived = new IdempotencyStore(recordRepository, objectMapper, transactionManager,
+                new SimpleMeterRegistry(), 100, Duration.ofMillis(50), Duration.ofSeconds(10));
+        List<Long> users = createUsers(2);
+        AtomicInteger executions = new AtomicInteger();
+        IdempotencyStore.Result<ExpenseResponse> first = execute(shortLived, "expiring", equalExpense("20.00", users.get(0), users), executions);
+        Thread.sleep(100);
+
+        IdempotencyStore.Result<ExpenseResponse> reused = execute(shortLived, "expiring", equalExpense("30.00", users.get(0), users), executions);
+
+        assertFalse(reused.replayed());
+        assertNotEquals(first.body().getId(), reused.body().getId());
+        assertEquals(2, executions.get());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys WHERE idempotency_key = 'expiring'", Integer.class));
+        // 保存的是第二次请求的响应
+        String body = jdbcTemplate.queryForObject("SELECT response_body FROM idempotency_keys WHERE idempotency_key = 'expiring'", String.class);
+        assertEquals(reused.body().getId(), objectMapper.readValue(body, ExpenseResponse.class).getId());
+    }
+
+    private IdempotencyStore.Result<ExpenseResponse> execute(IdempotencyStore store, String key, ExpenseRequest request,
+                                                             AtomicInteger executions) {
+        return store.execute(SCOPE, key, request, ExpenseResponse.class, () -> {
+            executions.incrementAndGet();
+            return expenseService.addExpense(request);
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
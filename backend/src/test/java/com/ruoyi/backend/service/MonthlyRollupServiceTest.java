@@ -0,0 +1,142 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.dto.MonthlyRollupResponse;
+import com.ruoyi.backend.enums.RollupDimension;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * 月度汇总测试：新增、修改（含移除付款人与分摊用户）、归档、合并与重建之后，
+ * 汇总查询的结果都与直接统计费用、付款与分摊记录（含已归档）的结果一致
+ */
+class MonthlyRollupServiceTest extends ServiceTestSupport {
+
+    /** 各维度的原始记录：[月份 yyyyMM, 维度键, 金额]，包含热表与归档表 */
+    private static final Map<RollupDimension, String> RECORDS = Map.of(
+            RollupDimension.CATEGORY,
+            "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date) AS m, COALESCE(e.category_id, 0) AS k, e.amount AS a "
+                    + "FROM expenses e UNION ALL "
+                    + "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date), COALESCE(e.category_id, 0), e.amount "
+                    + "FROM expenses_archive e",
+            RollupDimension.PAYER,
+            "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date) AS m, p.payer_id AS k, p.amount AS a "
+                    + "FROM expense_payments p JOIN expenses e ON e.id = p.expense_id UNION ALL "
+                    + "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date), p.payer_id, p.amount "
+                    + "FROM expense_payments_archive p JOIN expenses_archive e ON e.id = p.expense_id",
+            RollupDimension.USER,
+            "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date) AS m, s.user_id AS k, s.amount AS a "
+                    + "FROM expense_shares s JOIN expenses e ON e.id = s.expense_id UNION ALL "
+                    + "SELECT YEAR(e.expense_date) * 100 + MONTH(e.expense_date), s.user_id, s.amount "
+                    + "FROM expense_shares_archive s JOIN expenses_archive e ON e.id = s.expense_id");
+
+    @Autowired
+    private MonthlyRollupService rollupService;
+
+    @Autowired
+    private ExpenseArchiveService archiveService;
+
+    @Autowired
+    private ExpenseCategoryService categoryService;
+
+    @Test
+    void rollupsMatchRawSumsThroughEveryChange() {
+        List<Long> users = createUsers(3);
+        Long category = categoryService.createCategory("餐饮测试", null, false).getId();
+        LocalDateTime old = LocalDateTime.now().minusYears(1);
+
+        ExpenseRequest oldRequest = equalExpense("90.00", users.get(0), users);
+        oldRequest.setExpenseDate(old);
+        oldRequest.setCategoryId(category);
+        ExpenseResponse oldExpense = expenseService.addExpense(oldRequest);
+        ExpenseResponse moved = expenseService.addExpense(equalExpense("45.00", users.get(1), users.subList(0, 2)));
+        ExpenseRequest twoPayers = equalExpense("60.00", users.get(0), users.subList(1, 3));
+        twoPayers.getPayments().get(0).setAmount(new BigDecimal("40.00"));
+        twoPayers.getPayments().add(payment(users.get(2), "20.00"));
+        expenseService.addExpense(twoPayers);
+        assertRollupsMatchRecords("新增后（尚未合并）");
+
+        rollupService.fold();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rollup_deltas", Integer.class));
+        assertRollupsMatchRecords("合并后");
+
+        // 改到两个月前并归入分类，改由 C 付款，B 退出分摊：旧月份、旧付款人与旧分摊用户上的贡献都应冲销
+        ExpenseRequest update = equalExpense("50.00", users.get(2), users.subList(0, 1));
+        update.setExpenseDate(LocalDateTime.now().minusMonths(2));
+        update.setCategoryId(category);
+        expenseService.updateExpense(moved.getId(), update);
+        assertRollupsMatchRecords("修改后（尚未合并）");
+        rollupService.fold();
+        assertRollupsMatchRecords("修改并合并后");
+
+        oldExpense.getShares().forEach(share -> expenseService.markShareAsPaid(share.getId()));
+        assertEquals(1, archiveService.archive(Duration.ofDays(180)));
+        assertRollupsMatchRecords("归档后");
+
+        // 汇总行被破坏后，重建恢复为与原始记录一致，并清空待合并的增量
+        expenseService.addExpense(equalExpense("12.00", users.get(1), users));
+        jdbcTemplate.update("DELETE FROM monthly_rollups WHERE dimension = 'USER'");
+        assertNotEquals(recordTotals(RollupDimension.USER), rollupTotals(RollupDimension.USER));
+
+        int rows = rollupService.rebuild();
+        assertEquals(rows, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM monthly_rollups", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rollup_deltas", Integer.class));
+        assertRollupsMatchRecords("重建后");
+    }
+
+    private void assertRollupsMatchRecords(String context) {
+        for (RollupDimension dimension : RollupDimension.values()) {
+            Map<String, List<Long>> expected = recordTotals(dimension);
+            assertEquals(expected, rollupTotals(dimension), context + "，维度 " + dimension);
+            MonthlyRollupResponse response = rollupService.getMonthlyTotals(
+                    YearMonth.now().minusYears(3), YearMonth.now(), dimension);
+            assertEquals(expected.values().stream().mapToLong(totals -> totals.get(0)).sum(),
+                    cents(response.getTotalAmount()), context + "，维度 " + dimension + " 的合计");
+        }
+    }
+
+    /**
+     * 汇总查询的结果：“月份:维度键” → [金额（分）, 条数]
+     */
+    private Map<String, List<Long>> rollupTotals(RollupDimension dimension) {
+        Map<String, List<Long>> totals = new TreeMap<>();
+        MonthlyRollupResponse response = rollupService.getMonthlyTotals(
+                YearMonth.now().minusYears(3), YearMonth.now(), dimension);
+        for (MonthlyRollupResponse.Row row : response.getRows()) {
+            long keyId = row.getId() != null ? row.getId() : MonthlyRollupService.UNCATEGORIZED;
+            totals.put(MonthlyRollupService.periodMonth(row.getMonth()) + ":" + keyId,
+                    List.of(cents(row.getTotalAmount()), row.getCount()));
+        }
+        return totals;
+    }
+
+    /**
+     * 直接由原始记录统计的结果，格式同 {@link #rollupTotals}
+     */
+    private Map<String, List<Long>> recordTotals(RollupDimension dimension) {
+        Map<String, List<Long>> totals = new TreeMap<>();
+        jdbcTemplate.query("SELECT m, k, SUM(a), COUNT(*) FROM (" + RECORDS.get(dimension) + ") t GROUP BY m, k", rs -> {
+            totals.put(rs.getInt(1) + ":" + rs.getLong(2), List.of(cents(rs.getBigDecimal(3)), rs.getLong(4)));
+        });
+        return totals;
+    }
+
+    private static ExpenseRequest.PaymentRequest payment(Long payerId, String amount) {
+        ExpenseRequest.PaymentRequest payment = new ExpenseRequest.PaymentRequest();
+        payment.setPayerId(payerId);
+        payment.setAmount(new BigDecimal(amount));
+        return payment;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.config.RequestStatistics;
+import com.ruoyi.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 并发只读查询的请求统计测试：在执行线程上执行的 SQL 计入发起请求的线程
+ * <p>
+ * 测试环境为 Java 17，无法启用虚拟线程，这里直接以平台线程构造并发模式的 {@link ParallelReads}。
+ */
+class ParallelReadsStatisticsTest extends ServiceTestSupport {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void forkedQueriesCountTowardsCallerRequest() {
+        createUsers(2);
+        ParallelReads parallelReads = new ParallelReads(true, new SimpleAsyncTaskExecutor("parallel-reads-test-"),
+                transactionManager);
+
+        RequestStatistics.begin();
+        try {
+            long users = parallelReads.run(scope -> {
+                List<Supplier<Long>> counts = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    counts.add(scope.fork(userRepository::count));
+                }
+                scope.join();
+                return counts.stream().mapToLong(Supplier::get).sum();
+            });
+            assertEquals(6, users);
+        } finally {
+            RequestStatistics.Counts counts = RequestStatistics.end();
+            assertEquals(3, counts.getStatements(), "三个并发查询都应计入调用线程的请求");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ruoyi.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 并发只读查询测试：调用线程被中断或某个查询失败时，run 返回前其余查询都已结束
+ * <p>
+ * 以平台线程代替虚拟线程执行（取消逻辑与线程类型无关），事务管理器为空实现。
+ */
+class ParallelReadsTest {
+
+    /** 不响应中断的查询持续的时间，模拟中断无法打断的 JDBC 调用 */
+    private static final long UNINTERRUPTIBLE_MILLIS = 300;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final CountDownLatch started = new CountDownLatch(2);
+
+    private final ExecutorService callers = Executors.newSingleThreadExecutor();
+
+    private final ParallelReads parallelReads = new ParallelReads(true, new SimpleAsyncTaskExecutor("parallel-reads-test-"),
+            noOpTransactionManager());
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void interruptedCallerLeavesNothingRunning() throws Exception {
+        Thread[] caller = new Thread[1];
+        Future<?> result = callers.submit(() -> {
+            caller[0] = Thread.currentThread();
+            return parallelReads.run(scope -> {
+                scope.fork(this::uninterruptibleQuery);
+                scope.fork(this::interruptibleQuery);
+                scope.join();
+                return null;
+            });
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        caller[0].interrupt();
+
+        Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof CancellationException, String.valueOf(e.getCause()));
+        assertEquals(0, running.get(), "run 返回时不应有查询仍在运行");
+    }
+
+    @Test
+    void failedQueryWaitsForOthersToStop() throws Exception {
+        Future<?> result = callers.submit(() -> parallelReads.run(scope -> {
+            scope.fork(this::uninterruptibleQuery);
+            scope.fork(() -> {
+                running.incrementAndGet();
+                try {
+                    started.countDown();
+                    await(started);
+                    throw new IllegalStateException("查询失败");
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+            scope.join();
+            return null;
+        }));
+
+        Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals("查询失败", e.getCause().getMessage());
+        assertEquals(0, running.get(), "run 返回时不应有查询仍在运行");
+    }
+
+    private Object uninterruptibleQuery() {
+        running.incrementAndGet();
+        try {
+            started.countDown();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(UNINTERRUPTIBLE_MILLIS);
+            while (System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return null;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private Object interruptibleQuery() {
+        running.incrementAndGet();
+        try {
+            started.countDown();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("查询被中断");
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static PlatformTransactionManager noOpTransactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.SpendingReportResponse;
+import com.ruoyi.backend.enums.ReportGroupBy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 消费报表测试：顶层统计按费用金额计算，与分组方式无关；按用户分组时各组为分摊金额
+ */
+class ReportServiceTest extends ServiceTestSupport {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Test
+    void topLevelStatsDescribeExpensesForEveryGroupBy() {
+        List<Long> users = createUsers(2);
+        expenseService.addExpense(equalExpense("30.00", users.get(0), users));
+        expenseService.addExpense(equalExpense("100.00", users.get(1), users));
+        expenseService.addExpense(equalExpense("8.00", users.get(1), users.subList(0, 1)));
+
+        SpendingReportResponse byMonth = report(ReportGroupBy.MONTH);
+        assertEquals(3L, byMonth.getCount());
+        assertEquals(13_800L, cents(byMonth.getTotalAmount()));
+        for (ReportGroupBy groupBy : ReportGroupBy.values()) {
+            SpendingReportResponse report = report(groupBy);
+            assertEquals(List.of(byMonth.getCount(), byMonth.getTotalAmount(), byMonth.getP50(), byMonth.getP90(), byMonth.getP99()),
+                    List.of(report.getCount(), report.getTotalAmount(), report.getP50(), report.getP90(), report.getP99()),
+                    "groupBy=" + groupBy);
+        }
+
+        // 用户分组仍统计各自的分摊：用户0 分摊 15、50、8，用户1 分摊 15、50
+        SpendingReportResponse byUser = report(ReportGroupBy.USER);
+        assertEquals(List.of("用户0", "用户1"), byUser.getGroups().stream().map(SpendingReportResponse.Group::getName).toList());
+        assertEquals(List.of(3L, 2L), byUser.getGroups().stream().map(SpendingReportResponse.Group::getCount).toList());
+        assertEquals(List.of(new BigDecimal("73.00"), new BigDecimal("65.00")),
+                byUser.getGroups().stream().map(SpendingReportResponse.Group::getTotalAmount).toList());
+    }
+
+    private SpendingReportResponse report(ReportGroupBy groupBy) {
+        return reportService.getSpendingReport(LocalDate.now().minusMonths(1), LocalDate.now(), groupBy);
+    }
+}
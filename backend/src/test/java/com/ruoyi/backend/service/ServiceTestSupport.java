@@ -0,0 +1,136 @@
+package com.ruoyi.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.TestDatabase;
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.entity.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 服务层行为测试基类
+ * <p>
+ * 在内存 H2（MySQL 兼容模式）上启动完整上下文，每个测试前清空业务数据；
+ * 断言直接读取数据库中的行，而不是服务自身的返回值；需要校验状态码或响应头时经由 MockMvc 发起请求。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+abstract class ServiceTestSupport {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    protected ExpenseService expenseService;
+
+    @Autowired
+    protected BalanceLedgerService ledgerService;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    private ListResponseCache responseCache;
+
+    @BeforeEach
+    void resetData() {
+        TestDatabase.reset(jdbcTemplate, responseCache);
+    }
+
+    /**
+     * 创建 count 个用户，返回其ID
+     */
+    protected List<Long> createUsers(int count) {
+        List<Long> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userIds.add(userService.createUser("用户" + i).getId());
+        }
+        return userIds;
+    }
+
+    /**
+     * 构造平均分摊的费用请求：payerId 付全款，shareUserIds 分摊
+     */
+    protected static ExpenseRequest equalExpense(String amount, Long payerId, List<Long> shareUserIds) {
+        ExpenseRequest.PaymentRequest payment = new ExpenseRequest.PaymentRequest();
+        payment.setPayerId(payerId);
+        payment.setAmount(new BigDecimal(amount));
+
+        ExpenseRequest request = new ExpenseRequest();
+        request.setDescription("费用");
+        request.setAmount(new BigDecimal(amount));
+        request.setSplitType("EQUAL");
+        request.setPayments(new ArrayList<>(List.of(payment)));
+        request.setShareUserIds(new ArrayList<>(shareUserIds));
+        return request;
+    }
+
+    /**
+     * 按用户名查找响应中的分摊
+     */
+    protected static ExpenseResponse.ExpenseShareResponse share(ExpenseResponse response, String userName) {
+        return response.getShares().stream()
+                .filter(share -> share.getUserName().equals(userName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("费用 " + response.getId() + " 中没有用户 " + userName + " 的分摊"));
+    }
+
+    protected static long cents(BigDecimal amount) {
+        return Money.toCents(amount);
+    }
+
+    /**
+     * 台账表中的金额：用户ID → [总支付, 总欠款]（分），两项都为 0 的行不列出
+     */
+    protected Map<Long, List<Long>> ledgerRows() {
+        Map<Long, List<Long>> ledgers = new TreeMap<>();
+        jdbcTemplate.query("SELECT user_id, total_paid, total_owed FROM user_ledgers", rs -> {
+            long paid = cents(rs.getBigDecimal(2));
+            long owed = cents(rs.getBigDecimal(3));
+            if (paid != 0 || owed != 0) {
+                ledgers.put(rs.getLong(1), List.of(paid, owed));
+            }
+        });
+        return ledgers;
+    }
+
+    /**
+     * 直接由付款（含已归档）与未支付分摊统计的金额，格式同 {@link #ledgerRows()}
+     */
+    protected Map<Long, List<Long>> ledgerFromRecords() {
+        Map<Long, long[]> totals = new TreeMap<>();
+        jdbcTemplate.query("SELECT payer_id, SUM(amount) FROM (SELECT payer_id, amount FROM expense_payments "
+                + "UNION ALL SELECT payer_id, amount FROM expense_payments_archive) p GROUP BY payer_id", rs -> {
+            totals.computeIfAbsent(rs.getLong(1), k -> new long[2])[0] += cents(rs.getBigDecimal(2));
+        });
+        jdbcTemplate.query("SELECT user_id, SUM(amount) FROM expense_shares WHERE is_paid = FALSE GROUP BY user_id", rs -> {
+            totals.computeIfAbsent(rs.getLong(1), k -> new long[2])[1] += cents(rs.getBigDecimal(2));
+        });
+        Map<Long, List<Long>> ledgers = new TreeMap<>();
+        totals.forEach((userId, values) -> {
+            if (values[0] != 0 || values[1] != 0) {
+                ledgers.put(userId, List.of(values[0], values[1]));
+            }
+        });
+        return ledgers;
+    }
+}
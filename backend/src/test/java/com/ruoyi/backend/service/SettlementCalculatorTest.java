@@ -0,0 +1,165 @@
+package com.ruoyi.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 结算计算器测试：净额轧差、多付款人按比例拆分（含余数分配）、零余额用户与转账笔数上限
+ */
+class SettlementCalculatorTest {
+
+    private static final int A = 0;
+    private static final int B = 1;
+    private static final int C = 2;
+    private static final int D = 3;
+
+    @Test
+    void mutualDebtsAreNetted() {
+        Ledger ledger = new Ledger(3);
+        // A 付 30 由三人平摊，B 付 30 由三人平摊：A 与 B 之间的欠款互相抵消
+        ledger.expense(new int[]{A}, new long[]{3_000}).share(A, 1_000).share(B, 1_000).share(C, 1_000);
+        ledger.expense(new int[]{B}, new long[]{3_000}).share(A, 1_000).share(B, 1_000).share(C, 1_000);
+
+        long[] net = ledger.net();
+        SettlementCalculator.Transfers transfers = SettlementCalculator.simplify(net);
+
+        assertArrayEquals(new long[]{1_000, 1_000, -2_000}, net);
+        assertEquals(List.of("2->0:1000", "2->1:1000"), describe(transfers));
+    }
+
+    @Test
+    void shareIsSplitAcrossPayersByLargestRemainder() {
+        Ledger ledger = new Ledger(4);
+        // 付款 7:3，D 的 3.33 拆为 2.331 与 0.999：余下的 1 分给余数较大的 B
+        ledger.expense(new int[]{A, B}, new long[]{700, 300}).share(D, 333);
+
+        assertArrayEquals(new long[]{233, 100, 0, -333}, ledger.net());
+    }
+
+    @Test
+    void equalRemaindersGoToEarlierPayers() {
+        Ledger ledger = new Ledger(4);
+        // 三人等额付款：每笔 1.00 拆为 0.34、0.33、0.33，多出的 1 分归排在前面的 A；A 自己的那部分不计入
+        ledger.expense(new int[]{A, B, C}, new long[]{100, 100, 100}).share(D, 100).share(A, 100);
+
+        assertArrayEquals(new long[]{34 - 66, 33 + 33, 33 + 33, -100}, ledger.net());
+    }
+
+    @Test
+    void zeroBalanceUsersGetNoTransfers() {
+        Ledger ledger = new Ledger(5);
+        // B、C 相互欠款相等；D 只有没有付款记录的费用；E 没有任何记录
+        ledger.expense(new int[]{B}, new long[]{500}).share(C, 500);
+        ledger.expense(new int[]{C}, new long[]{500}).share(B, 500);
+        ledger.expense(new int[0], new long[0]).share(D, 800);
+        ledger.expense(new int[]{A}, new long[]{1_000}).share(D, 1_000);
+
+        long[] net = ledger.net();
+        SettlementCalculator.Transfers transfers = SettlementCalculator.simplify(net);
+
+        assertArrayEquals(new long[]{1_000, 0, 0, -1_000, 0}, net);
+        assertEquals(List.of("3->0:1000"), describe(transfers));
+        assertEquals(0, SettlementCalculator.simplify(new long[3]).size());
+    }
+
+    /**
+     * 随机账本：每笔分摊的拆分总和不变（净额合计为 0），执行转账后所有人结清，
+     * 转账金额为正且笔数不超过非零余额人数 - 1（因而不超过 n - 1）
+     */
+    @Test
+    void transfersSettleEveryoneWithAtMostNMinusOne() {
+        SplittableRandom random = new SplittableRandom(20240601L);
+        for (int trial = 0; trial < 2_000; trial++) {
+            int userCount = 2 + random.nextInt(trial % 100 == 0 ? 500 : 12);
+            Ledger ledger = new Ledger(userCount);
+            int expenseCount = random.nextInt(20);
+            for (int e = 0; e < expenseCount; e++) {
+                int payerCount = 1 + random.nextInt(Math.min(4, userCount));
+                int[] payers = random.ints(0, userCount).distinct().limit(payerCount).toArray();
+                long[] paid = random.longs(payers.length, 1, 100_000).toArray();
+                ledger.expense(payers, paid);
+                for (int s = random.nextInt(1, 6); s > 0; s--) {
+                    ledger.share(random.nextInt(userCount), random.nextLong(1, 50_000));
+                }
+            }
+
+            long[] net = ledger.net();
+            SettlementCalculator.Transfers transfers = SettlementCalculator.simplify(net);
+
+            String context = "trial " + trial;
+            assertEquals(0, Arrays.stream(net).sum(), context);
+            long nonZero = Arrays.stream(net).filter(amount -> amount != 0).count();
+            assertTrue(transfers.size() <= Math.max(0, nonZero - 1), context);
+            assertTrue(transfers.size() <= userCount - 1, context);
+            long[] settled = net.clone();
+            for (int i = 0; i < transfers.size(); i++) {
+                assertTrue(transfers.cents(i) > 0, context);
+                settled[transfers.from(i)] += transfers.cents(i);
+                settled[transfers.to(i)] -= transfers.cents(i);
+            }
+            assertArrayEquals(new long[userCount], settled, context);
+        }
+    }
+
+    private static List<String> describe(SettlementCalculator.Transfers transfers) {
+        List<String> described = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            described.add(transfers.from(i) + "->" + transfers.to(i) + ":" + transfers.cents(i));
+        }
+        described.sort(null);
+        return described;
+    }
+
+    /**
+     * 以 CSR 布局组装计算器的输入；share 归属最近一次 expense
+     */
+    private static final class Ledger {
+
+        private final int userCount;
+        private final List<Integer> offsets = new ArrayList<>(List.of(0));
+        private final List<Integer> paymentUsers = new ArrayList<>();
+        private final List<Long> paymentCents = new ArrayList<>();
+        private final List<int[]> shares = new ArrayList<>();
+        private final List<Long> shareCents = new ArrayList<>();
+
+        Ledger(int userCount) {
+            this.userCount = userCount;
+        }
+
+        Ledger expense(int[] payers, long[] paid) {
+            for (int i = 0; i < payers.length; i++) {
+                paymentUsers.add(payers[i]);
+                paymentCents.add(paid[i]);
+            }
+            offsets.add(paymentUsers.size());
+            return this;
+        }
+
+        Ledger share(int user, long cents) {
+            int expense = offsets.size() - 2;
+            boolean hasPayments = offsets.get(expense + 1) > offsets.get(expense);
+            shares.add(new int[]{hasPayments ? expense : -1, user});
+            shareCents.add(cents);
+            return this;
+        }
+
+        long[] net() {
+            return SettlementCalculator.netBalances(userCount,
+                    offsets.stream().mapToInt(Integer::intValue).toArray(),
+                    paymentUsers.stream().mapToInt(Integer::intValue).toArray(),
+                    paymentCents.stream().mapToLong(Long::longValue).toArray(),
+                    shares.stream().mapToInt(share -> share[0]).toArray(),
+                    shares.stream().mapToInt(share -> share[1]).toArray(),
+                    shareCents.stream().mapToLong(Long::longValue).toArray(),
+                    shares.size());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ruoyi.backend.service;
+
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.dto.SettleRequest;
+import com.ruoyi.backend.dto.SettlementResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 批量结清测试：并发结清同一批分摊时，每条分摊只被计入一次（台账扣减与结算记录标记）
+ */
+class SettlementServiceTest extends ServiceTestSupport {
+
+    private static final int THREADS = 4;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Test
+    void concurrentSettlesCountEachShareOnce() throws Exception {
+        List<Long> users = createUsers(3);
+        Long creditor = users.get(0);
+        Long debtor = users.get(1);
+        // 历次结清的响应：每轮校验全部结算记录
+        List<SettlementResponse> responses = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 5; round++) {
+                List<Long> debtorShareIds = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    ExpenseResponse expense = expenseService.addExpense(equalExpense((30 + i) + ".00", creditor, users));
+                    debtorShareIds.add(share(expense, "用户1").getId());
+                }
+                List<SettleRequest> requests = List.of(
+                        settleRequest(debtor, null, null),
+                        settleRequest(null, creditor, null),
+                        settleRequest(null, null, debtorShareIds),
+                        settleRequest(debtor, creditor, debtorShareIds.subList(0, 5)));
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<SettlementResponse>> futures = new ArrayList<>();
+                for (SettleRequest request : requests) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return settlementService.settle(request);
+                    }));
+                }
+                start.countDown();
+                for (Future<SettlementResponse> future : futures) {
+                    responses.add(future.get(30, TimeUnit.SECONDS));
+                }
+
+                // 每轮 10 笔费用中 B、C 各有一条欠 A 的分摊，四次并发结清合计恰好结清 20 条
+                assertEquals(20 * (round + 1), responses.stream().mapToInt(SettlementResponse::getSettledShares).sum());
+                assertSettledOnce(responses, "第 " + round + " 轮");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 每条已结清的分摊恰好带有一个结算记录ID；各结算记录的条数与金额等于带有其ID的分摊；台账与直接统计一致
+     */
+    private void assertSettledOnce(List<SettlementResponse> responses, String context) {
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_shares "
+                + "WHERE is_paid = TRUE AND settlement_id IS NULL AND user_id <> "
+                + "(SELECT MIN(payer_id) FROM expense_payments p WHERE p.expense_id = expense_shares.expense_id)", Integer.class), context);
+
+        Map<Long, long[]> tagged = new HashMap<>();
+        jdbcTemplate.query("SELECT settlement_id, COUNT(*), SUM(amount) FROM expense_shares "
+                + "WHERE settlement_id IS NOT NULL GROUP BY settlement_id", rs -> {
+            tagged.put(rs.getLong(1), new long[]{rs.getLong(2), cents(rs.getBigDecimal(3))});
+        });
+        Map<Long, long[]> reported = new HashMap<>();
+        for (SettlementResponse response : responses) {
+            if (response.getSettledShares() > 0) {
+                assertNotNull(response.getId(), context);
+                reported.put(response.getId(), new long[]{response.getSettledShares(), cents(response.getAmount())});
+            }
+        }
+        assertEquals(tagged.keySet(), reported.keySet(), context);
+        tagged.forEach((id, values) -> {
+            assertEquals(values[0], reported.get(id)[0], context + "，结算 " + id + " 的条数");
+            assertEquals(values[1], reported.get(id)[1], context + "，结算 " + id + " 的金额");
+        });
+        Map<Long, long[]> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT id, share_count, amount FROM settlements", rs -> {
+            stored.put(rs.getLong(1), new long[]{rs.getLong(2), cents(rs.getBigDecimal(3))});
+        });
+        assertEquals(tagged.keySet(), stored.keySet(), context);
+        tagged.forEach((id, values) -> assertArrayEquals(values, stored.get(id), context));
+
+        // 本轮的全部欠款（债务人与第三人欠债权人的分摊）都已结清，且只扣减了一次
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_shares es WHERE es.is_paid = FALSE "
+                + "AND es.user_id NOT IN (SELECT payer_id FROM expense_payments p WHERE p.expense_id = es.expense_id)", Integer.class), context);
+        assertEquals(ledgerFromRecords(), ledgerRows(), context);
+    }
+
+    private static SettleRequest settleRequest(Long debtorId, Long creditorId, List<Long> shareIds) {
+        SettleRequest request = new SettleRequest();
+        request.setDebtorId(debtorId);
+        request.setCreditorId(creditorId);
+        request.setShareIds(shareIds);
+        return request;
+    }
+}
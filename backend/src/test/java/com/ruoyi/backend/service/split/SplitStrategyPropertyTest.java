@@ -0,0 +1,286 @@
+package com.ruoyi.backend.service.split;
+
+import com.ruoyi.backend.enums.SplitType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分摊策略性质测试
+ * <p>
+ * 以固定种子随机生成金额、人数与参数，逐例校验：合计恰好等于金额、与精确份额相差不足 1 分、
+ * 结果与按余数排序的朴素最大余数法（BigInteger 计算）完全一致。失败信息带有用例序号，可按种子复现。
+ */
+class SplitStrategyPropertyTest {
+
+    private static final long SEED = 20240601L;
+
+    private static final int TRIALS = 5_000;
+
+    private final SplitStrategies strategies = SplitStrategies.defaults();
+
+    @Test
+    void proportionalMatchesReferenceLargestRemainder() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 1 + random.nextInt(trial % 50 == 0 ? 2_000 : 30);
+            long total = randomTotal(random);
+            long[] weights = randomWeights(random, n);
+
+            long[] shares = LargestRemainder.proportional(total, weights);
+
+            String context = "trial " + trial + ", total " + total + ", weights " + Arrays.toString(weights);
+            assertArrayEquals(reference(total, weights), shares, context);
+            assertEquals(total, Arrays.stream(shares).sum(), context);
+            assertWithinOneCent(total, weights, shares, context);
+        }
+    }
+
+    @Test
+    void equalSharesDifferByAtMostOneCentInOrder() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 1 + random.nextInt(trial % 50 == 0 ? 10_000 : 30);
+            long total = random.nextLong(100_000_000L);
+
+            long[] shares = strategies.get(SplitType.EQUAL).split(total, userIds(n), Map.of());
+
+            String context = "trial " + trial + ", total " + total + ", n " + n;
+            assertEquals(total, Arrays.stream(shares).sum(), context);
+            for (int i = 1; i < n; i++) {
+                assertTrue(shares[i - 1] >= shares[i] && shares[i - 1] - shares[i] <= 1, context);
+            }
+            assertTrue(shares[0] - shares[n - 1] <= 1, context);
+        }
+    }
+
+    @Test
+    void hundredDividedByThreeSumsExactly() {
+        long[] shares = strategies.get(SplitType.EQUAL).split(10_000, userIds(3), Map.of());
+
+        assertArrayEquals(new long[]{3_334, 3_333, 3_333}, shares);
+    }
+
+    @Test
+    void percentageSharesSumToAmount() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 1 + random.nextInt(trial % 50 == 0 ? 2_000 : 30);
+            long total = random.nextLong(100_000_000L);
+            int scale = random.nextInt(ProportionalSplitStrategy.MAX_SCALE + 1);
+            long[] scaled = randomPartition(random, n, 100 * BigInteger.TEN.pow(scale).longValueExact());
+            List<Long> userIds = userIds(n);
+            Map<Long, BigDecimal> percentages = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                percentages.put(userIds.get(i), BigDecimal.valueOf(scaled[i], scale));
+            }
+
+            long[] shares = strategies.get(SplitType.PERCENTAGE).split(total, userIds, percentages);
+
+            String context = "trial " + trial + ", total " + total + ", percentages " + Arrays.toString(scaled);
+            assertArrayEquals(reference(total, scaled), shares, context);
+            assertEquals(total, Arrays.stream(shares).sum(), context);
+        }
+    }
+
+    @Test
+    void weightedSharesScaleWithWeights() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 1 + random.nextInt(30);
+            long total = random.nextLong(100_000_000L);
+            long[] weights = random.longs(n, 0, 1_000).toArray();
+            weights[random.nextInt(n)] = 1 + random.nextInt(1_000);
+            List<Long> userIds = userIds(n);
+            Map<Long, BigDecimal> decimalWeights = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                // 不同的小数写法（如 2 与 2.000）应得到相同结果
+                decimalWeights.put(userIds.get(i), BigDecimal.valueOf(weights[i]).setScale(random.nextInt(4)));
+            }
+
+            long[] shares = strategies.get(SplitType.WEIGHTED).split(total, userIds, decimalWeights);
+
+            assertArrayEquals(reference(total, weights), shares, "trial " + trial);
+        }
+    }
+
+    @Test
+    void customSplitsRestAmongUnspecified() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 2 + random.nextInt(30);
+            long total = 100 + random.nextLong(100_000_000L);
+            List<Long> userIds = userIds(n);
+            Map<Long, BigDecimal> amounts = new HashMap<>();
+            long specified = 0;
+            for (int i = 0; i < n - 1; i++) {
+                if (random.nextBoolean()) {
+                    long cents = random.nextLong((total - specified) / n + 1);
+                    amounts.put(userIds.get(i), BigDecimal.valueOf(cents, 2));
+                    specified += cents;
+                }
+            }
+
+            long[] shares = strategies.get(SplitType.CUSTOM).split(total, userIds, amounts);
+
+            String context = "trial " + trial + ", total " + total + ", amounts " + amounts;
+            assertEquals(total, Arrays.stream(shares).sum(), context);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                BigDecimal amount = amounts.get(userIds.get(i));
+                if (amount != null) {
+                    assertEquals(amount.unscaledValue().longValueExact(), shares[i], context);
+                } else {
+                    min = Math.min(min, shares[i]);
+                    max = Math.max(max, shares[i]);
+                }
+            }
+            assertTrue(max - min <= 1, context);
+        }
+    }
+
+    @Test
+    void largeProductsFallBackToExactArithmetic() {
+        long total = Long.MAX_VALUE / 4;
+        long[] weights = {Long.MAX_VALUE / 8, Long.MAX_VALUE / 8 - 1, 3};
+
+        long[] shares = LargestRemainder.proportional(total, weights);
+
+        assertArrayEquals(reference(total, weights), shares);
+    }
+
+    @Test
+    void selectReturnsOrderStatistic() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 1 + random.nextInt(500);
+            int distinct = 1 + random.nextInt(trial % 2 == 0 ? 3 : 1_000);
+            long[] values = random.longs(n, 0, distinct).toArray();
+            long[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int k = random.nextInt(n);
+
+            assertEquals(sorted[k], LargestRemainder.select(values, k), "trial " + trial);
+        }
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        List<Long> userIds = userIds(2);
+
+        assertThrows(RuntimeException.class, () -> strategies.get(SplitType.PERCENTAGE)
+                .split(1_000, userIds, Map.of(1L, new BigDecimal("60"), 2L, new BigDecimal("30"))));
+        assertThrows(RuntimeException.class, () -> strategies.get(SplitType.PERCENTAGE)
+                .split(1_000, userIds, Map.of(1L, new BigDecimal("100"))));
+        assertThrows(RuntimeException.class, () -> strategies.get(SplitType.PERCENTAGE)
+                .split(1_000, userIds, Map.of(1L, new BigDecimal("99.9999999"), 2L, new BigDecimal("0.0000001"))));
+        assertThrows(RuntimeException.class, () -> strategies.get(SplitType.WEIGHTED)
+                .split(1_000, userIds, Map.of(1L, BigDecimal.ZERO, 2L, BigDecimal.ZERO)));
+        assertThrows(RuntimeException.class, () -> strategies.get(SplitType.WEIGHTED)
+                .split(1_000, userIds, Map.of(1L, BigDecimal.ONE, 2L, new BigDecimal("-1"))));
+        assertThrows(RuntimeException.class, () -> strategies.get(SplitType.CUSTOM)
+                .split(1_000, userIds, Map.of(1L, new BigDecimal("10.01"))));
+        assertThrows(RuntimeException.class, () -> strategies.get(SplitType.CUSTOM)
+                .split(1_000, userIds, Map.of(1L, new BigDecimal("5"), 2L, new BigDecimal("4"))));
+    }
+
+    /**
+     * 朴素最大余数法：按余数降序稳定排序，前 k 人各补 1 分
+     */
+    private static long[] reference(long total, long[] weights) {
+        int n = weights.length;
+        BigInteger weightSum = Arrays.stream(weights).mapToObj(BigInteger::valueOf).reduce(BigInteger.ZERO, BigInteger::add);
+        long[] shares = new long[n];
+        BigInteger[] remainders = new BigInteger[n];
+        long allocated = 0;
+        for (int i = 0; i < n; i++) {
+            BigInteger[] qr = BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i])).divideAndRemainder(weightSum);
+            shares[i] = qr[0].longValueExact();
+            remainders[i] = qr[1];
+            allocated += shares[i];
+        }
+        int[] order = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparing((Integer i) -> remainders[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int k = 0; k < total - allocated; k++) {
+            shares[order[k]]++;
+        }
+        return shares;
+    }
+
+    private static void assertWithinOneCent(long total, long[] weights, long[] shares, String context) {
+        BigInteger weightSum = Arrays.stream(weights).mapToObj(BigInteger::valueOf).reduce(BigInteger.ZERO, BigInteger::add);
+        for (int i = 0; i < weights.length; i++) {
+            // |share × W − total × w| < W
+            BigInteger diff = BigInteger.valueOf(shares[i]).multiply(weightSum)
+                    .subtract(BigInteger.valueOf(total).multiply(BigInteger.valueOf(weights[i])));
+            assertTrue(diff.abs().compareTo(weightSum) < 0, context);
+        }
+    }
+
+    /**
+     * 小额、大额（含溢出 long 的乘积）交替出现
+     */
+    private static long randomTotal(SplittableRandom random) {
+        return random.nextInt(4) == 0 ? random.nextLong(Long.MAX_VALUE / 2) : random.nextLong(100_000_000L);
+    }
+
+    /**
+     * 全部相等、含大量 0 与相同值、随机小整数、接近 long 上限四种权重分布，合计大于 0
+     */
+    private static long[] randomWeights(SplittableRandom random, int n) {
+        int kind = random.nextInt(4);
+        long[] weights = new long[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = switch (kind) {
+                case 0 -> 1;
+                case 1 -> random.nextInt(3);
+                case 2 -> random.nextInt(1_000);
+                default -> random.nextLong(Long.MAX_VALUE / n);
+            };
+        }
+        if (Arrays.stream(weights).allMatch(weight -> weight == 0)) {
+            weights[random.nextInt(n)] = 1;
+        }
+        return weights;
+    }
+
+    /**
+     * 把 total 随机拆成 n 个非负整数
+     */
+    private static long[] randomPartition(SplittableRandom random, int n, long total) {
+        long[] cuts = random.longs(n - 1, 0, total + 1).sorted().toArray();
+        long[] parts = new long[n];
+        long previous = 0;
+        for (int i = 0; i < n - 1; i++) {
+            parts[i] = cuts[i] - previous;
+            previous = cuts[i];
+        }
+        parts[n - 1] = total - previous;
+        return parts;
+    }
+
+    private static List<Long> userIds(int n) {
+        List<Long> userIds = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            userIds.add((long) i + 1);
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,155 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.BackendApplication;
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.entity.User;
+import com.ruoyi.backend.repository.UserRepository;
+import com.ruoyi.backend.service.ExpenseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单笔 50 人平均分摊 addExpense 的数据库往返次数与耗时（内存 H2）
+ * <p>
+ * jdbcBatchSize=1 相当于改用池化序列之前 IDENTITY 主键禁用批处理时的行为（每行一次 INSERT），
+ * jdbcBatchSize=50 为当前配置。往返次数在每轮迭代结束时打印。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddExpenseRoundTripBenchmark {
+
+    private static final int SPLIT_USERS = 50;
+
+    /** 语句执行与提交均计为一次往返 */
+    private static final Set<String> ROUND_TRIP_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+            "executeBatch", "executeLargeBatch", "commit", "rollback");
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    private long invocations;
+
+    private ConfigurableApplicationContext context;
+
+    private ExpenseService expenseService;
+
+    private ExpenseRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource ? counting(DataSource.class, dataSource) : bean;
+                    }
+                }))
+                // 命令行参数优先级高于 application.yml
+                .run("--spring.datasource.url=jdbc:h2:mem:roundtrip;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        expenseService = context.getBean(ExpenseService.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<Long> userIds = new ArrayList<>(SPLIT_USERS);
+        for (int i = 0; i < SPLIT_USERS; i++) {
+            User user = new User();
+            user.setName("bench-" + i);
+            userIds.add(userRepository.save(user).getId());
+        }
+
+        ExpenseRequest.PaymentRequest payment = new ExpenseRequest.PaymentRequest();
+        payment.setPayerId(userIds.get(0));
+        payment.setAmount(new BigDecimal("500.00"));
+
+        request = new ExpenseRequest();
+        request.setDescription("聚餐");
+        request.setAmount(new BigDecimal("500.00"));
+        request.setSplitType("EQUAL");
+        request.setPayments(List.of(payment));
+        request.setShareUserIds(userIds);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        roundTrips.set(0);
+        invocations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportRoundTrips() {
+        if (invocations > 0) {
+            System.out.printf("%n每次 addExpense 数据库往返: %.1f (jdbcBatchSize=%d)%n",
+                    (double) roundTrips.get() / invocations, jdbcBatchSize);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object addExpense() {
+        invocations++;
+        return expenseService.addExpense(request);
+    }
+
+    /**
+     * 包装 JDBC 对象：Connection / Statement 逐层包装，执行语句与提交时计数
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T counting(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (ROUND_TRIP_METHODS.contains(method.getName())) {
+                roundTrips.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return wrap(method, result);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object wrap(Method method, Object result) {
+        Class<?> returnType = method.getReturnType();
+        if (result == null || !returnType.isInterface()) {
+            return result;
+        }
+        if (returnType == Connection.class || Statement.class.isAssignableFrom(returnType)) {
+            return counting((Class<Object>) returnType, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.dto.UserBalanceResponse;
+import com.ruoyi.backend.entity.*;
+import com.ruoyi.backend.repository.ExpensePaymentRepository;
+import com.ruoyi.backend.repository.ExpenseShareRepository;
+import com.ruoyi.backend.repository.UserLedgerRepository;
+import com.ruoyi.backend.repository.UserRepository;
+import com.ruoyi.backend.service.BalanceLedgerService;
+import com.ruoyi.backend.service.ExpenseService;
+import com.ruoyi.backend.service.ParallelReads;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 余额汇总基准：{@link ExpenseService#getUserBalances} 读取台账并生成应收/应付明细
+ * <p>
+ * 仓库以内存数据桩替代，结果只反映汇总与 DTO 构建本身的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceAggregationBenchmark {
+
+    @Param({"100", "1000"})
+    private int users;
+
+    @Param({"1000", "10000"})
+    private int expenses;
+
+    private ExpenseService expenseService;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> userList = Fixtures.users(users);
+        List<ExpensePayment> unpaidPayments = new ArrayList<>();
+        List<ExpenseShare> unpaidShares = new ArrayList<>();
+        long[][] totals = new long[users + 1][2];
+
+        for (long id = 1; id <= expenses; id++) {
+            Expense expense = Fixtures.expense(id, userList, 2 + random.nextInt(8), random);
+            boolean hasUnpaid = false;
+            for (ExpenseShare share : expense.getShares()) {
+                totals[share.getUser().getId().intValue()][1] += BalanceLedgerService.owedCents(share);
+                if (!share.getIsPaid()) {
+                    unpaidShares.add(share);
+                    hasUnpaid = true;
+                }
+            }
+            for (ExpensePayment payment : expense.getPayments()) {
+                totals[payment.getPayer().getId().intValue()][0] += payment.getAmount().cents();
+                if (hasUnpaid) {
+                    unpaidPayments.add(payment);
+                }
+            }
+        }
+        List<UserLedger> ledgers = new ArrayList<>(users);
+        for (User user : userList) {
+            long[] userTotals = totals[user.getId().intValue()];
+            ledgers.add(new UserLedger(user.getId(), Money.ofCents(userTotals[0]), Money.ofCents(userTotals[1])));
+        }
+
+        BalanceLedgerService ledgerService = new BalanceLedgerService();
+        Fixtures.inject(ledgerService, "ledgerRepository",
+                Fixtures.stub(UserLedgerRepository.class, Map.of("findAll", () -> ledgers)));
+
+        // 默认配置（非虚拟线程）下各查询在同一只读事务中依次执行，事务管理器为空实现
+        PlatformTransactionManager transactionManager = Fixtures.stub(PlatformTransactionManager.class,
+                Map.of("getTransaction", SimpleTransactionStatus::new, "commit", () -> null));
+        ParallelReads parallelReads = new ParallelReads(new StandardEnvironment(), new SimpleAsyncTaskExecutor(), transactionManager);
+
+        expenseService = new ExpenseService();
+        Fixtures.inject(expenseService, "ledgerService", ledgerService);
+        Fixtures.inject(expenseService, "parallelReads", parallelReads);
+        Fixtures.inject(expenseService, "userRepository",
+                Fixtures.stub(UserRepository.class, Map.of("findAll", () -> userList)));
+        Fixtures.inject(expenseService, "expensePaymentRepository",
+                Fixtures.stub(ExpensePaymentRepository.class, Map.of("findWithPayerForUnpaidExpenses", () -> unpaidPayments)));
+        Fixtures.inject(expenseService, "expenseShareRepository",
+                Fixtures.stub(ExpenseShareRepository.class, Map.of("findAllUnpaidWithUser", () -> unpaidShares)));
+    }
+
+    @Benchmark
+    public List<UserBalanceResponse> getUserBalances() {
+        return expenseService.getUserBalances();
+    }
+}
@@ -0,0 +1,272 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.BackendApplication;
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.service.ExpenseService;
+import com.ruoyi.backend.service.UserService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+/**
+ * 阻塞接口压测：/api/expenses/balances 与 /api/expenses/settlement-plan 在平台线程与虚拟线程下的吞吐对比
+ * <p>
+ * 每种模式启动一个独立的应用（内存 H2），在每条 SQL 执行前注入固定延迟以模拟远程数据库，
+ * 由 clients 个并发客户端持续请求，统计预热之后的吞吐量与延迟分位数。
+ * 虚拟线程模式需要在 Java 21 上运行，低版本 JVM 下跳过。
+ * <pre>
+ * java -cp target/benchmarks.jar com.ruoyi.benchmarks.BlockingEndpointsLoadTest \
+ *      clients=1000 seconds=30 warmup=10 latencyMs=20 poolSize=100
+ * </pre>
+ */
+public final class BlockingEndpointsLoadTest {
+
+    private static final String[] ENDPOINTS = {"/api/expenses/balances", "/api/expenses/settlement-plan"};
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final int clients;
+    private final int seconds;
+    private final int warmup;
+    private final long latencyMs;
+    private final int poolSize;
+    private final int users;
+    private final int expenses;
+
+    /** 数据准备完成后才注入延迟 */
+    private volatile boolean latencyEnabled;
+
+    private BlockingEndpointsLoadTest(Map<String, String> options) {
+        clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        latencyMs = Long.parseLong(options.getOrDefault("latencyMs", "20"));
+        poolSize = Integer.parseInt(options.getOrDefault("poolSize", "100"));
+        users = Integer.parseInt(options.getOrDefault("users", "20"));
+        expenses = Integer.parseInt(options.getOrDefault("expenses", "200"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        BlockingEndpointsLoadTest test = new BlockingEndpointsLoadTest(options);
+
+        List<String> report = new ArrayList<>();
+        report.add(test.run(false));
+        if (Runtime.version().feature() >= 21) {
+            report.add(test.run(true));
+        } else {
+            report.add(String.format("%-10s 需要 Java 21，当前 %d，已跳过", "virtual", Runtime.version().feature()));
+        }
+
+        System.out.printf("%n并发客户端 %d，SQL 延迟 %d ms，连接池 %d，测量 %d 秒%n", test.clients, test.latencyMs, test.poolSize, test.seconds);
+        System.out.printf("%-10s %10s %10s %10s %10s %8s%n", "模式", "请求/秒", "p50(ms)", "p99(ms)", "max(ms)", "错误");
+        report.forEach(System.out::println);
+        System.exit(0);
+    }
+
+    private String run(boolean virtualThreads) throws Exception {
+        latencyEnabled = false;
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = start(mode, virtualThreads)) {
+            seed(context);
+            latencyEnabled = true;
+
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            Result result = load(port);
+            return String.format("%-10s %10.1f %10.1f %10.1f %10.1f %8d", mode, result.throughput(),
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.errors());
+        }
+    }
+
+    private ConfigurableApplicationContext start(String mode, boolean virtualThreads) {
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource ? delayed(DataSource.class, dataSource) : bean;
+                    }
+                }))
+                // 命令行参数优先级高于 application.yml
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--spring.jpa.properties.hibernate.log_slow_query=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--logging.level.root=WARN");
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        UserService userService = context.getBean(UserService.class);
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+
+        List<Long> userIds = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userIds.add(userService.createUser("load-" + i).getId());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < expenses; i++) {
+            List<Long> shareUserIds = new ArrayList<>();
+            int shareCount = 2 + random.nextInt(4);
+            for (int j = 0; j < shareCount; j++) {
+                shareUserIds.add(userIds.get((i + j) % users));
+            }
+            ExpenseRequest.PaymentRequest payment = new ExpenseRequest.PaymentRequest();
+            payment.setPayerId(userIds.get(random.nextInt(users)));
+            payment.setAmount(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+
+            ExpenseRequest request = new ExpenseRequest();
+            request.setDescription("压测费用-" + i);
+            request.setAmount(payment.getAmount());
+            request.setSplitType("EQUAL");
+            request.setPayments(List.of(payment));
+            request.setShareUserIds(shareUserIds);
+            expenseService.addExpense(request);
+        }
+    }
+
+    /**
+     * clients 个客户端各自循环发送请求：上一个响应返回后立即发送下一个
+     */
+    private Result load(int port) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmup);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        LongAdder errors = new LongAdder();
+        List<Samples> latencies = new ArrayList<>(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            Samples samples = new Samples();
+            latencies.add(samples);
+            sendNext(client, port, samples, measureFrom, deadline, new AtomicLong(), errors, done);
+        }
+        done.await();
+
+        long[] all = latencies.stream().flatMapToLong(Samples::stream).sorted().toArray();
+        return new Result(all, all.length / (double) seconds, errors.sum());
+    }
+
+    private void sendNext(HttpClient client, int port, Samples samples, long measureFrom, long deadline,
+                          AtomicLong count, LongAdder errors, CountDownLatch done) {
+        long now = System.nanoTime();
+        if (now >= deadline) {
+            done.countDown();
+            return;
+        }
+        String endpoint = ENDPOINTS[(int) (count.getAndIncrement() % ENDPOINTS.length)];
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + endpoint))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long end = System.nanoTime();
+            // 以完成时间落在测量窗口内为准，高并发下单个请求可能跨越预热期
+            if (end >= measureFrom && end <= deadline) {
+                if (failure != null || response.statusCode() != 200) {
+                    errors.increment();
+                } else {
+                    samples.add(end - now);
+                }
+            }
+            sendNext(client, port, samples, measureFrom, deadline, count, errors, done);
+        });
+    }
+
+    /**
+     * 单个客户端的延迟样本（同一客户端同时只有一个请求在途，无需同步）
+     */
+    private static final class Samples {
+
+        private long[] nanos = new long[256];
+        private int size;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        LongStream stream() {
+            return Arrays.stream(nanos, 0, size);
+        }
+    }
+
+    private record Result(long[] sortedNanos, double throughput, long errors) {
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * 包装 JDBC 对象：Connection / Statement 逐层包装，执行语句前休眠 latencyMs
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T delayed(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (latencyEnabled && latencyMs > 0 && EXECUTE_METHODS.contains(method.getName())) {
+                Thread.sleep(latencyMs);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return wrap(method, result);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object wrap(Method method, Object result) {
+        Class<?> returnType = method.getReturnType();
+        if (result == null || !returnType.isInterface()) {
+            return result;
+        }
+        if (returnType == Connection.class || Statement.class.isAssignableFrom(returnType)) {
+            return delayed((Class<Object>) returnType, result);
+        }
+        return result;
+    }
+}
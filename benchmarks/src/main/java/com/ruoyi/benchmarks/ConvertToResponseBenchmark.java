@@ -0,0 +1,39 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.entity.Expense;
+import com.ruoyi.backend.service.ExpenseAssembler;
+import com.ruoyi.backend.service.split.SplitStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体转响应 DTO 基准：{@link ExpenseAssembler#convertToResponse} 在分摊人数较多时的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertToResponseBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int shares;
+
+    private final ExpenseAssembler expenseAssembler = new ExpenseAssembler(SplitStrategies.defaults());
+
+    private Expense expense;
+
+    @Setup
+    public void setUp() {
+        expense = Fixtures.expense(1, Fixtures.users(shares), shares, new SplittableRandom(42));
+    }
+
+    @Benchmark
+    public ExpenseResponse convertToResponse() {
+        return expenseAssembler.convertToResponse(expense);
+    }
+}
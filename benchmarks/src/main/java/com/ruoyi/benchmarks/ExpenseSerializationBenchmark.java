@@ -0,0 +1,51 @@
+package com.ruoyi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应序列化基准：以与 Spring Boot 默认配置一致的 ObjectMapper 序列化 List&lt;ExpenseResponse&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int expenses;
+
+    @Param({"5", "50"})
+    private int sharesPerExpense;
+
+    private ObjectMapper objectMapper;
+
+    private List<ExpenseResponse> responses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> users = Fixtures.users(Math.max(sharesPerExpense, 20));
+        responses = new ArrayList<>(expenses);
+        for (long id = 1; id <= expenses; id++) {
+            responses.add(Fixtures.response(Fixtures.expense(id, users, sharesPerExpense, random)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+}
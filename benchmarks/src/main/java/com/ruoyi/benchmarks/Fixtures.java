@@ -0,0 +1,114 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.entity.*;
+import com.ruoyi.backend.enums.SplitType;
+import com.ruoyi.backend.service.ExpenseAssembler;
+import com.ruoyi.backend.service.split.SplitStrategies;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * 基准测试用的内存数据：按固定种子生成，不依赖数据库
+ */
+public final class Fixtures {
+
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private static final ExpenseAssembler ASSEMBLER = new ExpenseAssembler(SplitStrategies.defaults());
+
+    private Fixtures() {
+    }
+
+    public static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setName("user-" + (i + 1));
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * 生成一笔费用：1~3 个付款人，shareCount 人平均分摊，各分摊随机标记为已支付
+     */
+    public static Expense expense(long id, List<User> users, int shareCount, SplittableRandom random) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setDescription("费用-" + id);
+        expense.setSplitType(SplitType.EQUAL);
+        expense.setExpenseDate(BASE_DATE.plusMinutes(id));
+        expense.setCreatedAt(BASE_DATE.plusMinutes(id));
+        expense.setVersion(0L);
+
+        long totalCents = 0;
+        int payers = 1 + random.nextInt(3);
+        for (int i = 0; i < payers; i++) {
+            ExpensePayment payment = new ExpensePayment();
+            payment.setId(id * 10 + i);
+            payment.setExpense(expense);
+            payment.setPayer(users.get(random.nextInt(users.size())));
+            long cents = 100 + random.nextInt(100_000);
+            payment.setAmount(Money.ofCents(cents));
+            expense.getPayments().add(payment);
+            totalCents += cents;
+        }
+        expense.setAmount(Money.ofCents(totalCents));
+
+        Money shareAmount = Money.ofCents(Money.divideHalfUp(totalCents, shareCount));
+        int offset = random.nextInt(users.size());
+        for (int i = 0; i < shareCount; i++) {
+            ExpenseShare share = new ExpenseShare();
+            share.setId(id * 10_000 + i);
+            share.setExpense(expense);
+            share.setUser(users.get((offset + i) % users.size()));
+            share.setAmount(shareAmount);
+            share.setIsPaid(random.nextInt(4) == 0);
+            expense.getShares().add(share);
+        }
+        return expense;
+    }
+
+    /**
+     * 以接口使用的 {@link ExpenseAssembler#convertToResponse} 生成响应 DTO
+     */
+    public static ExpenseResponse response(Expense expense) {
+        return ASSEMBLER.convertToResponse(expense);
+    }
+
+    /**
+     * 以动态代理实现仓库接口，只应答 answers 中列出的方法
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Supplier<?>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Supplier<?> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answer.get();
+        });
+    }
+
+    /**
+     * 为字段注入的服务设置依赖
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ruoyi.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ruoyi.backend.dto.ExpenseResponse;
+import com.ruoyi.backend.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应编码基准：10k 条费用记录的 List&lt;ExpenseResponse&gt; 分别以 JSON / CBOR / Smile 序列化的耗时
+ * <p>
+ * ObjectMapper 的配置与应用一致（日期不写为时间戳，CBOR / Smile 下金额为整数分、时间为毫秒时间戳）。
+ * 载荷大小（原始与 gzip 后）在每个参数组合开始时打印到标准输出。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String encoding;
+
+    @Param({"10000"})
+    private int expenses;
+
+    @Param({"5"})
+    private int sharesPerExpense;
+
+    private ObjectMapper objectMapper;
+
+    private List<ExpenseResponse> responses;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (encoding) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException("不支持的编码: " + encoding);
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> users = Fixtures.users(Math.max(sharesPerExpense, 20));
+        responses = new ArrayList<>(expenses);
+        for (long id = 1; id <= expenses; id++) {
+            responses.add(Fixtures.response(Fixtures.expense(id, users, sharesPerExpense, random)));
+        }
+
+        byte[] payload = serialize();
+        System.out.printf("%n载荷大小 encoding=%s expenses=%d: %,d 字节，gzip 后 %,d 字节%n",
+                encoding, expenses, payload.length, gzipSize(payload));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    private static int gzipSize(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.size();
+    }
+}
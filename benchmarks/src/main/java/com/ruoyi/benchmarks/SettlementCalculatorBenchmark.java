@@ -0,0 +1,84 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.service.SettlementCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结算计算器基准：未支付分摊 → 净额 → 最少转账
+ * <p>
+ * 每笔费用 1~3 个付款人、平均 5 人分摊，数据在 Setup 中按固定种子生成。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementCalculatorBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    private int users;
+
+    @Param({"10000", "100000", "500000"})
+    private int shares;
+
+    private int[] paymentOffsets;
+    private int[] paymentUsers;
+    private long[] paymentCents;
+    private int[] shareExpenses;
+    private int[] shareUsers;
+    private long[] shareCents;
+    private long[] net;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        int expenses = Math.max(1, shares / 5);
+
+        paymentOffsets = new int[expenses + 1];
+        paymentUsers = new int[expenses * 3];
+        paymentCents = new long[expenses * 3];
+        int p = 0;
+        for (int e = 0; e < expenses; e++) {
+            paymentOffsets[e] = p;
+            int payers = 1 + random.nextInt(3);
+            for (int i = 0; i < payers; i++) {
+                paymentUsers[p] = random.nextInt(users);
+                paymentCents[p] = 100 + random.nextInt(100_000);
+                p++;
+            }
+        }
+        paymentOffsets[expenses] = p;
+
+        shareExpenses = new int[shares];
+        shareUsers = new int[shares];
+        shareCents = new long[shares];
+        for (int s = 0; s < shares; s++) {
+            shareExpenses[s] = random.nextInt(expenses);
+            shareUsers[s] = random.nextInt(users);
+            shareCents[s] = 1 + random.nextInt(50_000);
+        }
+
+        net = netBalances();
+    }
+
+    @Benchmark
+    public long[] netBalances() {
+        return SettlementCalculator.netBalances(users, paymentOffsets, paymentUsers, paymentCents,
+                shareExpenses, shareUsers, shareCents, shares);
+    }
+
+    @Benchmark
+    public void simplify(Blackhole blackhole) {
+        blackhole.consume(SettlementCalculator.simplify(net));
+    }
+
+    @Benchmark
+    public void settlementPlan(Blackhole blackhole) {
+        blackhole.consume(SettlementCalculator.simplify(netBalances()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.dto.ExpenseRequest;
+import com.ruoyi.backend.entity.Expense;
+import com.ruoyi.backend.entity.ExpenseShare;
+import com.ruoyi.backend.entity.User;
+import com.ruoyi.backend.enums.SplitType;
+import com.ruoyi.backend.service.ExpenseAssembler;
+import com.ruoyi.backend.service.split.SplitStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分摊计算基准：{@link ExpenseAssembler#createShares} 在不同人数下的四种分摊方式
+ * <p>
+ * CUSTOM 时一半成员指定金额，其余平均分摊剩余金额；
+ * PERCENTAGE 时各人比例为 100 / 人数（保留 6 位小数，余数补给第一人）；WEIGHTED 时权重为 1~3 循环。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark {
+
+    @Param({"2", "10", "50", "200"})
+    private int groupSize;
+
+    @Param({"EQUAL", "CUSTOM", "PERCENTAGE", "WEIGHTED"})
+    private String splitType;
+
+    private final ExpenseAssembler expenseAssembler = new ExpenseAssembler(SplitStrategies.defaults());
+
+    private Expense expense;
+
+    private ExpenseRequest request;
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = Fixtures.users(groupSize);
+        expense = new Expense();
+        expense.setId(1L);
+        expense.setSplitType(SplitType.valueOf(splitType));
+
+        request = new ExpenseRequest();
+        request.setDescription("聚餐");
+        request.setAmount(new BigDecimal("1000.00"));
+        request.setSplitType(splitType);
+        if ("CUSTOM".equals(splitType)) {
+            List<ExpenseRequest.CustomShareRequest> customShares = new ArrayList<>();
+            for (int i = 0; i < groupSize / 2; i++) {
+                ExpenseRequest.CustomShareRequest customShare = new ExpenseRequest.CustomShareRequest();
+                customShare.setUserId(users.get(i).getId());
+                customShare.setAmount(new BigDecimal("1.50"));
+                customShares.add(customShare);
+            }
+            request.setCustomShares(customShares);
+        } else if ("PERCENTAGE".equals(splitType) || "WEIGHTED".equals(splitType)) {
+            BigDecimal hundred = new BigDecimal("100.000000");
+            BigDecimal percentage = hundred.divide(BigDecimal.valueOf(groupSize), RoundingMode.DOWN);
+            BigDecimal first = hundred.subtract(percentage.multiply(BigDecimal.valueOf(groupSize - 1)));
+            List<ExpenseRequest.CustomShareRequest> customShares = new ArrayList<>();
+            for (int i = 0; i < groupSize; i++) {
+                ExpenseRequest.CustomShareRequest customShare = new ExpenseRequest.CustomShareRequest();
+                customShare.setUserId(users.get(i).getId());
+                if ("PERCENTAGE".equals(splitType)) {
+                    customShare.setWeight(i == 0 ? first : percentage);
+                } else {
+                    customShare.setWeight(BigDecimal.valueOf(1 + i % 3));
+                }
+                customShares.add(customShare);
+            }
+            request.setCustomShares(customShares);
+        }
+    }
+
+    @Benchmark
+    public List<ExpenseShare> createShares() {
+        return expenseAssembler.createShares(expense, request, users);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ruoyi.benchmarks;
+
+import com.ruoyi.backend.enums.SplitType;
+import com.ruoyi.backend.service.split.SplitStrategies;
+import com.ruoyi.backend.service.split.SplitStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分摊策略基准：不经过实体构建，直接测量 {@link SplitStrategy#split} 在大人数下的耗时
+ * <p>
+ * 金额与参数按固定种子生成；WEIGHTED 使用 0~999 的随机整数权重，使最大余数法必须做选择，
+ * PERCENTAGE 使用 6 位小数的随机比例（合计 100）。配合 {@code -prof gc} 可观察每次调用的分配量。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitStrategyBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int groupSize;
+
+    @Param({"EQUAL", "CUSTOM", "PERCENTAGE", "WEIGHTED"})
+    private String splitType;
+
+    private SplitStrategy strategy;
+
+    private long totalCents;
+
+    private List<Long> userIds;
+
+    private Map<Long, BigDecimal> parameters;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        strategy = SplitStrategies.defaults().get(SplitType.valueOf(splitType));
+        totalCents = 1_000_000 + random.nextLong(100_000_000);
+
+        userIds = new ArrayList<>(groupSize);
+        for (int i = 0; i < groupSize; i++) {
+            userIds.add((long) i + 1);
+        }
+
+        parameters = new HashMap<>();
+        switch (SplitType.valueOf(splitType)) {
+            case CUSTOM -> {
+                // 一半成员各指定 1.00，其余平均分摊剩余金额
+                for (int i = 0; i < groupSize / 2; i++) {
+                    parameters.put(userIds.get(i), new BigDecimal("1.00"));
+                }
+            }
+            case PERCENTAGE -> {
+                long[] scaled = new long[groupSize];
+                long left = 100_000_000;
+                for (int i = 0; i < groupSize - 1; i++) {
+                    scaled[i] = random.nextLong(2 * left / (groupSize - i) + 1);
+                    left -= scaled[i];
+                }
+                scaled[groupSize - 1] = left;
+                for (int i = 0; i < groupSize; i++) {
+                    parameters.put(userIds.get(i), BigDecimal.valueOf(scaled[i], 6));
+                }
+            }
+            case WEIGHTED -> {
+                for (int i = 0; i < groupSize; i++) {
+                    parameters.put(userIds.get(i), BigDecimal.valueOf(random.nextInt(1000)));
+                }
+                parameters.put(userIds.get(0), BigDecimal.ONE);
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Benchmark
+    public long[] split() {
+        return strategy.split(totalCents, userIds, parameters);
+    }
+}
@@ -5,9 +5,13 @@ const api = axios.create({
   timeout: 10000
 })
 
+// 本页面的客户端标识：随写请求发送，服务端在对应的变更事件中带回（originClientId）
+export const clientId = globalThis.crypto?.randomUUID?.() ?? `${Date.now()}-${Math.random().toString(36).slice(2)}`
+
 // 請求攔截器
 api.interceptors.request.use(
   config => {
+    config.headers['X-Client-Id'] = clientId
     return config
   },
   error => {
@@ -15,9 +19,19 @@ api.interceptors.request.use(
   }
 )
 
+// 从 ETag（"<启动标识>-<版本号>"）中取出数据版本号，与变更事件的 version 同源
+const parseVersion = etag => {
+  const match = /-(\d+)"$/.exec(etag ?? '')
+  return match ? Number(match[1]) : null
+}
+
 // 響應攔截器
 api.interceptors.response.use(
   response => {
+    // 带 withVersion 的请求同时返回数据版本号
+    if (response.config.withVersion) {
+      return { data: response.data, version: parseVersion(response.headers.etag) }
+    }
     return response.data
   },
   error => {
@@ -51,9 +65,14 @@ export const userApi = {
 
 // 费用相关API
 export const expenseApi = {
-  // 获取所有费用记录
+  // 分页获取费用记录（游标分页）
+  getExpenses(cursor = null, limit = 20) {
+    return api.get('/expenses', { params: { cursor, limit } })
+  },
+  
+  // 获取所有费用记录（不分页）
   getAllExpenses() {
-    return api.get('/expenses')
+    return api.get('/expenses', { params: { unpaged: true } })
   },
   
   // 添加费用记录
@@ -76,9 +95,19 @@ export const expenseApi = {
     return api.put(`/expenses/shares/${shareId}/pay`)
   },
   
-  // 获取用户余额统计
+  // 批量结清分摊（debtorId / creditorId / shareIds 至少提供一个）
+  settleShares(request) {
+    return api.post('/expenses/settlements', request)
+  },
+  
+  // 立即归档已结清的费用（minAgeDays 缺省使用服务端配置）
+  archiveSettled(minAgeDays = null) {
+    return api.post('/expenses/archive', null, { params: { minAgeDays } })
+  },
+  
+  // 获取用户余额统计，返回 { data, version }，version 为数据版本号（无 ETag 时为 null）
   getUserBalances() {
-    return api.get('/expenses/balances')
+    return api.get('/expenses/balances', { withVersion: true })
   }
 }
 
@@ -110,4 +139,48 @@ export const categoryApi = {
   }
 }
 
+// 报表相关API
+export const reportApi = {
+  // 消费报表：groupBy 为 category / user / month，from、to 为 yyyy-MM-dd（包含在内）
+  getSpendingReport(groupBy = 'category', from = null, to = null) {
+    return api.get('/reports/spending', { params: { groupBy, from, to } })
+  },
+
+  // 月度汇总：groupBy 为 user / category / payer，from、to 为 yyyy-MM（包含在内）
+  getMonthlyTotals(groupBy = 'user', from = null, to = null) {
+    return api.get('/reports/monthly', { params: { groupBy, from, to } })
+  }
+}
+
+// 数据变更事件（SSE）：同一页面的所有组件共用一个连接
+const changeHandlers = new Set()
+let changeSource = null
+
+// 订阅数据变更事件，返回取消订阅函数
+// 连接断开重连后可能漏掉事件，此时以 { type: 'RESYNC' } 通知订阅者整体刷新
+export const subscribeChanges = (handler) => {
+  changeHandlers.add(handler)
+  if (!changeSource) {
+    let opened = false
+    changeSource = new EventSource('/api/events')
+    changeSource.addEventListener('open', () => {
+      if (opened) {
+        changeHandlers.forEach(h => h({ type: 'RESYNC' }))
+      }
+      opened = true
+    })
+    changeSource.addEventListener('change', event => {
+      const change = JSON.parse(event.data)
+      changeHandlers.forEach(h => h(change))
+    })
+  }
+  return () => {
+    changeHandlers.delete(handler)
+    if (changeHandlers.size === 0 && changeSource) {
+      changeSource.close()
+      changeSource = null
+    }
+  }
+}
+
 export default api